@@ -0,0 +1,193 @@
+package Algorithm.CSA;
+
+import Algorithm.Dijkstra.DijkstraResult;
+import Algorithm.Transit.Timetable;
+import Algorithm.Transit.TimetableLoader;
+import Data.DataGetter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import static Algorithm.Transit.Timetable.*;
+
+// Connection Scan Algorithm: one linear pass over the departure-sorted connection array of the Timetable.
+// The scan stops as soon as no remaining connection can improve the arrival at the destination.
+public class ConnectionScan {
+    public static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final Timetable timetable;
+    private final int[] earliestArrivals;
+    private final int[] inConnections;
+    private final int[] walkSources;
+    private final int[] walkConnections;
+    private final int[] tripBoardConnections;
+
+    private int departureTime;
+    private int targetArrival;
+    private int targetStop;
+    private int scannedConnections;
+
+    // Constructor
+    public ConnectionScan(Timetable timetable) {
+        this.timetable = timetable;
+        this.earliestArrivals = new int[timetable.getStopCount()];
+        this.inConnections = new int[timetable.getStopCount()];
+        this.walkSources = new int[timetable.getStopCount()];
+        this.walkConnections = new int[timetable.getStopCount()];
+        this.tripBoardConnections = new int[timetable.getTripCount()];
+    }
+
+    // Main Connection Scan method
+    public static DijkstraResult mainConnectionScan(String originPostcode, String destinationPostcode, double radius, String time) {
+        Instant startTime = Instant.now();
+
+        DataGetter dataGetter = new DataGetter();
+        double[] originCoordinates = dataGetter.getLocationFromApiReader(originPostcode);
+        double[] destinationCoordinates = dataGetter.getLocationFromApiReader(destinationPostcode);
+        if (originCoordinates == null || destinationCoordinates == null) {
+            throw new IllegalArgumentException("Invalid postal code: " + (originCoordinates == null ? originPostcode : destinationPostcode));
+        }
+
+        Timetable timetable = TimetableLoader.getTimetable(dataGetter);
+        int[] accessMinutes = timetable.computeWalkingMinutes(originCoordinates[0], originCoordinates[1]);
+        int[] egressMinutes = timetable.computeWalkingMinutes(destinationCoordinates[0], destinationCoordinates[1]);
+
+        ConnectionScan connectionScan = new ConnectionScan(timetable);
+        connectionScan.execute(accessMinutes, egressMinutes, Timetable.convertTimeToMinutes(time));
+        DijkstraResult result = connectionScan.getResult(originPostcode, destinationPostcode);
+
+        Duration timeElapsed = Duration.between(startTime, Instant.now());
+        System.out.println("CSA route from " + originPostcode + " to " + destinationPostcode + ": " + result.getPath());
+        System.out.println("Total travel time: " + result.getTotalTravelTime() + " minutes");
+        System.out.println("Connections scanned: " + connectionScan.getScannedConnections());
+        System.out.println("Time taken for execution: " + timeElapsed.toMillis() + " milliseconds");
+
+        return result;
+    }
+
+    // Scan the connections departing at or after departureTime; egressMinutes may be null to reach every stop
+    public void execute(int[] accessMinutes, int[] egressMinutes, int departureTime) {
+        this.departureTime = departureTime;
+        this.targetArrival = UNREACHED;
+        this.targetStop = -1;
+        this.scannedConnections = 0;
+        Arrays.fill(earliestArrivals, UNREACHED);
+        Arrays.fill(inConnections, -1);
+        Arrays.fill(walkSources, -1);
+        Arrays.fill(tripBoardConnections, -1);
+
+        for (int stop = 0; stop < earliestArrivals.length; stop++) {
+            if (accessMinutes[stop] != UNREACHED) {
+                earliestArrivals[stop] = departureTime + accessMinutes[stop];
+                updateTarget(stop, egressMinutes);
+            }
+        }
+
+        int[] connections = timetable.getConnections();
+        int end = connections.length;
+        for (int base = timetable.findFirstConnection(departureTime) * CONNECTION_STRIDE; base < end; base += CONNECTION_STRIDE) {
+            int departure = connections[base + CONNECTION_DEPARTURE];
+            if (departure >= targetArrival) {
+                break;
+            }
+            scannedConnections++;
+
+            int trip = connections[base + CONNECTION_TRIP];
+            if (tripBoardConnections[trip] == -1) {
+                if (earliestArrivals[connections[base + CONNECTION_DEPARTURE_STOP]] > departure) {
+                    continue;
+                }
+                tripBoardConnections[trip] = base;
+            }
+
+            int arrivalStop = connections[base + CONNECTION_ARRIVAL_STOP];
+            int arrival = connections[base + CONNECTION_ARRIVAL];
+            if (arrival >= earliestArrivals[arrivalStop]) {
+                continue;
+            }
+            earliestArrivals[arrivalStop] = arrival;
+            inConnections[arrivalStop] = base;
+            walkSources[arrivalStop] = -1;
+            updateTarget(arrivalStop, egressMinutes);
+
+            for (int i = timetable.getFootpathStart(arrivalStop); i < timetable.getFootpathEnd(arrivalStop); i++) {
+                int target = timetable.getFootpathTarget(i);
+                int walkArrival = arrival + timetable.getFootpathMinutes(i);
+                if (walkArrival < earliestArrivals[target]) {
+                    earliestArrivals[target] = walkArrival;
+                    walkSources[target] = arrivalStop;
+                    walkConnections[target] = base;
+                    updateTarget(target, egressMinutes);
+                }
+            }
+        }
+    }
+
+    private void updateTarget(int stop, int[] egressMinutes) {
+        if (egressMinutes == null || egressMinutes[stop] == UNREACHED) {
+            return;
+        }
+        int arrival = earliestArrivals[stop] + egressMinutes[stop];
+        if (arrival < targetArrival) {
+            targetArrival = arrival;
+            targetStop = stop;
+        }
+    }
+
+    // Earliest arrival at the target, including the egress walk
+    public int getTargetArrival() {
+        return targetArrival;
+    }
+
+    // Earliest arrival at a stop
+    public int getArrival(int stop) {
+        return earliestArrivals[stop];
+    }
+
+    public int getScannedConnections() {
+        return scannedConnections;
+    }
+
+    // Build a stop-by-stop itinerary for the target arrival, as the Dijkstra engine would report it
+    public DijkstraResult getResult(String originLabel, String destinationLabel) {
+        if (targetStop == -1) {
+            return new DijkstraResult(new ArrayList<>(Collections.singletonList(destinationLabel)), new ArrayList<>(), Double.MAX_VALUE);
+        }
+
+        int[] connections = timetable.getConnections();
+        LinkedList<String> path = new LinkedList<>();
+        LinkedList<Integer> legTripIds = new LinkedList<>();
+        path.addFirst(destinationLabel);
+        legTripIds.addFirst(DijkstraResult.WALKING_LEG);
+        path.addFirst(timetable.getStopId(targetStop));
+
+        int stop = targetStop;
+        while (true) {
+            int alightConnection;
+            if (walkSources[stop] != -1) {
+                alightConnection = walkConnections[stop];
+                stop = walkSources[stop];
+                legTripIds.addFirst(DijkstraResult.WALKING_LEG);
+                path.addFirst(timetable.getStopId(stop));
+            } else if (inConnections[stop] != -1) {
+                alightConnection = inConnections[stop];
+            } else {
+                break;
+            }
+
+            int trip = connections[alightConnection + CONNECTION_TRIP];
+            int route = timetable.getTripRoute(trip);
+            int boardPosition = connections[tripBoardConnections[trip] + CONNECTION_POSITION];
+            for (int position = connections[alightConnection + CONNECTION_POSITION]; position >= boardPosition; position--) {
+                legTripIds.addFirst(timetable.getTripId(trip));
+                path.addFirst(timetable.getStopId(timetable.getRouteStop(route, position)));
+            }
+            stop = timetable.getRouteStop(route, boardPosition);
+        }
+        legTripIds.addFirst(DijkstraResult.WALKING_LEG);
+        path.addFirst(originLabel);
+
+        return new DijkstraResult(new ArrayList<>(path), new ArrayList<>(legTripIds), targetArrival - departureTime);
+    }
+}
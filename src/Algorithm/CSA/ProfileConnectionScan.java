@@ -0,0 +1,216 @@
+package Algorithm.CSA;
+
+import Algorithm.Dijkstra.ProfileResult;
+import Algorithm.Transit.Timetable;
+import Algorithm.Transit.TimetableLoader;
+import Data.DataGetter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import static Algorithm.Transit.Timetable.*;
+
+// Profile Connection Scan: one backward pass over the departure-sorted connection array computes, for every stop,
+// the Pareto set of (departure, arrival at the target) pairs. Every optimal departure from the origin in a time
+// window comes out of the same pass, instead of one earliest-arrival query per minute.
+public class ProfileConnectionScan {
+    public static final int UNREACHED = Integer.MAX_VALUE;
+    private static final int INITIAL_PROFILE_CAPACITY = 4;
+
+    private final Timetable timetable;
+    private final int[] tripArrivals;
+
+    // Profile of stop s: pairs added with decreasing departure and strictly decreasing arrival
+    private final int[][] profileDepartures;
+    private final int[][] profileArrivals;
+    private final int[] profileSizes;
+
+    private int[] originDepartures = new int[64];
+    private int[] originArrivals = new int[64];
+    private int originCount;
+    private int scannedConnections;
+
+    // Constructor
+    public ProfileConnectionScan(Timetable timetable) {
+        this.timetable = timetable;
+        this.tripArrivals = new int[timetable.getTripCount()];
+        this.profileDepartures = new int[timetable.getStopCount()][INITIAL_PROFILE_CAPACITY];
+        this.profileArrivals = new int[timetable.getStopCount()][INITIAL_PROFILE_CAPACITY];
+        this.profileSizes = new int[timetable.getStopCount()];
+    }
+
+    // Main profile query method: every optimal departure between fromTime and toTime
+    public static ProfileResult mainProfileConnectionScan(String originPostcode, String destinationPostcode, double radius, String fromTime, String toTime) {
+        Instant startTime = Instant.now();
+
+        DataGetter dataGetter = new DataGetter();
+        double[] originCoordinates = dataGetter.getLocationFromApiReader(originPostcode);
+        double[] destinationCoordinates = dataGetter.getLocationFromApiReader(destinationPostcode);
+        if (originCoordinates == null || destinationCoordinates == null) {
+            throw new IllegalArgumentException("Invalid postal code: " + (originCoordinates == null ? originPostcode : destinationPostcode));
+        }
+
+        Timetable timetable = TimetableLoader.getTimetable(dataGetter);
+        int[] accessMinutes = timetable.computeWalkingMinutes(originCoordinates[0], originCoordinates[1]);
+        int[] egressMinutes = timetable.computeWalkingMinutes(destinationCoordinates[0], destinationCoordinates[1]);
+
+        ProfileConnectionScan profileScan = new ProfileConnectionScan(timetable);
+        ProfileResult result = profileScan.execute(accessMinutes, egressMinutes,
+                Timetable.convertTimeToMinutes(fromTime), Timetable.convertTimeToMinutes(toTime));
+
+        Duration timeElapsed = Duration.between(startTime, Instant.now());
+        System.out.println("Departures from " + originPostcode + " to " + destinationPostcode + " between " + fromTime + " and " + toTime + ":");
+        for (String line : result.describe()) {
+            System.out.println(line);
+        }
+        System.out.println("Connections scanned: " + profileScan.getScannedConnections());
+        System.out.println("Time taken for execution: " + timeElapsed.toMillis() + " milliseconds");
+
+        return result;
+    }
+
+    // Compute every Pareto-optimal journey leaving the origin in [windowStart, windowEnd], plus the first optimal
+    // journey leaving after the window, so leaving at the end of the window and waiting is answered as well
+    public ProfileResult execute(int[] accessMinutes, int[] egressMinutes, int windowStart, int windowEnd) {
+        Arrays.fill(tripArrivals, UNREACHED);
+        Arrays.fill(profileSizes, 0);
+        originCount = 0;
+        scannedConnections = 0;
+
+        int directWalkMinutes = UNREACHED;
+        for (int stop = 0; stop < accessMinutes.length; stop++) {
+            if (accessMinutes[stop] != UNREACHED && egressMinutes[stop] != UNREACHED) {
+                directWalkMinutes = Math.min(directWalkMinutes, accessMinutes[stop] + egressMinutes[stop]);
+            }
+        }
+
+        int[] connections = timetable.getConnections();
+        int first = timetable.findFirstConnection(windowStart) * CONNECTION_STRIDE;
+        for (int base = connections.length - CONNECTION_STRIDE; base >= first; base -= CONNECTION_STRIDE) {
+            scannedConnections++;
+            int departureStop = connections[base + CONNECTION_DEPARTURE_STOP];
+            int departure = connections[base + CONNECTION_DEPARTURE];
+            int trip = connections[base + CONNECTION_TRIP];
+
+            // Stay seated, or alight here and continue from the arrival stop
+            int arrival = Math.min(tripArrivals[trip],
+                    getArrivalAfterAlighting(connections[base + CONNECTION_ARRIVAL_STOP], connections[base + CONNECTION_ARRIVAL], egressMinutes));
+            if (arrival == UNREACHED) {
+                continue;
+            }
+            tripArrivals[trip] = arrival;
+
+            int access = accessMinutes[departureStop];
+            if (access != UNREACHED && departure - access >= windowStart) {
+                addOriginJourney(departure - access, arrival);
+            }
+            if (arrival < getEarliestArrival(departureStop, departure)) {
+                addToProfile(departureStop, departure, arrival);
+            }
+        }
+        return buildResult(directWalkMinutes, windowEnd);
+    }
+
+    // Earliest arrival at the target after leaving a trip at stop at the given time, walking at most one footpath
+    private int getArrivalAfterAlighting(int stop, int time, int[] egressMinutes) {
+        int best = getEarliestArrival(stop, time);
+        if (egressMinutes[stop] != UNREACHED) {
+            best = Math.min(best, time + egressMinutes[stop]);
+        }
+        for (int i = timetable.getFootpathStart(stop); i < timetable.getFootpathEnd(stop); i++) {
+            int target = timetable.getFootpathTarget(i);
+            int walkArrival = time + timetable.getFootpathMinutes(i);
+            best = Math.min(best, getEarliestArrival(target, walkArrival));
+            if (egressMinutes[target] != UNREACHED) {
+                best = Math.min(best, walkArrival + egressMinutes[target]);
+            }
+        }
+        return best;
+    }
+
+    // Earliest arrival at the target when boarding at stop at or after time
+    private int getEarliestArrival(int stop, int time) {
+        int[] departures = profileDepartures[stop];
+        int low = 0;
+        int high = profileSizes[stop];
+        // Departures are decreasing: find the number of entries departing at or after time
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures[mid] >= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low == 0 ? UNREACHED : profileArrivals[stop][low - 1];
+    }
+
+    private void addToProfile(int stop, int departure, int arrival) {
+        int size = profileSizes[stop];
+        if (size > 0 && profileDepartures[stop][size - 1] == departure) {
+            profileArrivals[stop][size - 1] = arrival;
+            return;
+        }
+        if (size == profileDepartures[stop].length) {
+            profileDepartures[stop] = Arrays.copyOf(profileDepartures[stop], size * 2);
+            profileArrivals[stop] = Arrays.copyOf(profileArrivals[stop], size * 2);
+        }
+        profileDepartures[stop][size] = departure;
+        profileArrivals[stop][size] = arrival;
+        profileSizes[stop]++;
+    }
+
+    private void addOriginJourney(int departure, int arrival) {
+        if (originCount == originDepartures.length) {
+            originDepartures = Arrays.copyOf(originDepartures, originCount * 2);
+            originArrivals = Arrays.copyOf(originArrivals, originCount * 2);
+        }
+        originDepartures[originCount] = departure;
+        originArrivals[originCount] = arrival;
+        originCount++;
+    }
+
+    // Keep the origin journeys no other journey or the direct walk dominates, ordered by departure and cut off after
+    // the first journey leaving after windowEnd
+    private ProfileResult buildResult(int directWalkMinutes, int windowEnd) {
+        // Sorted by departure, and by decreasing arrival within one departure
+        long[] keys = new long[originCount];
+        for (int i = 0; i < originCount; i++) {
+            keys[i] = ((long) originDepartures[i] << 32) | (UNREACHED - originArrivals[i]);
+        }
+        Arrays.sort(keys);
+
+        int[] departures = new int[originCount];
+        int[] arrivals = new int[originCount];
+        int count = 0;
+        int bestArrival = UNREACHED;
+        for (int i = originCount - 1; i >= 0; i--) {
+            int departure = (int) (keys[i] >>> 32);
+            int arrival = UNREACHED - (int) keys[i];
+            boolean beatsWalking = directWalkMinutes == UNREACHED || arrival < departure + directWalkMinutes;
+            if (arrival < bestArrival && beatsWalking) {
+                departures[count] = departure;
+                arrivals[count] = arrival;
+                count++;
+                bestArrival = arrival;
+            }
+        }
+        int kept = 0;
+        while (kept < count && departures[count - 1 - kept] <= windowEnd) {
+            kept++;
+        }
+        int size = Math.min(count, kept + 1);
+        int[] resultDepartures = new int[size];
+        int[] resultArrivals = new int[size];
+        for (int i = 0; i < size; i++) {
+            resultDepartures[i] = departures[count - 1 - i];
+            resultArrivals[i] = arrivals[count - 1 - i];
+        }
+        return new ProfileResult(resultDepartures, resultArrivals, directWalkMinutes);
+    }
+
+    public int getScannedConnections() {
+        return scannedConnections;
+    }
+}
@@ -1,107 +1,278 @@
 package Algorithm.Dijkstra;
 
-import org.jgrapht.Graph;
-import org.jgrapht.graph.DefaultDirectedWeightedGraph;
-
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 import Data.DataGetter;
 import Algorithm.Distance.DistanceCalculator;
+import Algorithm.Distance.GridIndex;
+import Algorithm.Distance.StopDistanceTable;
+import Algorithm.OSM.FootpathBuilder;
+import Algorithm.OSM.Graph;
+import Algorithm.OSM.OsmGraphService;
+import Algorithm.Queue.IndexedPriorityQueue;
+import Algorithm.Queue.QueueType;
 
 public class CustomDijkstra {
-    private final Graph<String, CustomEdge> graph;
-    private final Map<String, Double> distances;
-    private final Map<String, String> previousNodes;
-    private final PriorityQueue<Node> priorityQueue;
-    private static String lastTimeParameter = "";
-
-    // Constructor
-    public CustomDijkstra(Graph<String, CustomEdge> graph) {
+    private static final int UNREACHED = TransitGraph.NO_CONNECTION;
+    private static final SearchMode DEFAULT_SEARCH_MODE = SearchMode.TARGET;
+    // Only add a walking path if it's within a reasonable walking distance
+    private static final double MAX_WALKING_DISTANCE_KM = 1.0;
+    // Access and egress walks follow the streets up to this distance; longer ones are estimated in a straight line
+    private static final double MAX_STREET_ACCESS_KM = 2.0;
+    private static final long NO_OSM_FAILURE = Long.MIN_VALUE;
+
+    // Street footpaths of the stops below, kept while every graph is built over the same stops and OSM graph
+    private static FootpathBuilder footpathBuilder;
+    private static Graph footpathGraph;
+    private static double[] footpathLatitudes;
+    private static double[] footpathLongitudes;
+    // Checksum of the OSM extract whose graph failed to load, NO_OSM_FAILURE while no load has failed
+    private static long failedOsmChecksum = NO_OSM_FAILURE;
+    // Source checksum of the bands in GraphCache
+    private static long graphSourceChecksum = RouteWeights.UNKNOWN_CHECKSUM;
+
+    private final TransitGraph graph;
+    private final QueryOverlay overlay;
+    private final QueueType queueType;
+    private final int[] arrivalTimes;
+    private final int[] previousNodes;
+    private final int[] previousTrips;
+    private final boolean[] settled;
+    private final IndexedPriorityQueue priorityQueue;
+    private final DistanceCalculator distanceCalculator = new DistanceCalculator();
+    private int startMinutes;
+    private int settledCount;
+
+    // A* state: the heuristic of a vertex is computed when it is first reached
+    private final float[] heuristics;
+    private boolean useHeuristic;
+    private double targetLatitude;
+    private double targetLongitude;
+
+    // Backward search state, allocated on the first bidirectional query
+    private double[] backwardDistances;
+    private int[] backwardNextEdges;
+    private int[] backwardNextVertices;
+    private boolean[] backwardSettled;
+    private IndexedPriorityQueue backwardQueue;
+
+    // Constructor for searches between stops, without super node edges
+    public CustomDijkstra(TransitGraph graph) {
+        this(graph, QueryOverlay.empty(graph.getStopCount()), QueueType.DARY_HEAP);
+    }
+
+    public CustomDijkstra(TransitGraph graph, QueueType queueType) {
+        this(graph, QueryOverlay.empty(graph.getStopCount()), queueType);
+    }
+
+    // Constructor for a query whose super node edges come from the overlay
+    public CustomDijkstra(TransitGraph graph, QueryOverlay overlay) {
+        this(graph, overlay, QueueType.DARY_HEAP);
+    }
+
+    // Constructor choosing the priority queue; arrival times are whole minutes, so buckets are one minute wide
+    public CustomDijkstra(TransitGraph graph, QueryOverlay overlay, QueueType queueType) {
         this.graph = graph;
-        this.distances = new HashMap<>();
-        this.previousNodes = new HashMap<>();
-        this.priorityQueue = new PriorityQueue<>(Comparator.comparingDouble(Node::getDistance));
+        this.overlay = overlay;
+        this.queueType = queueType;
+        this.arrivalTimes = new int[graph.getVertexCount()];
+        this.previousNodes = new int[graph.getVertexCount()];
+        this.previousTrips = new int[graph.getVertexCount()];
+        this.settled = new boolean[graph.getVertexCount()];
+        this.heuristics = new float[graph.getVertexCount()];
+        this.priorityQueue = queueType.create(graph.getVertexCount(), 1.0);
     }
 
     // Main Dijkstra method
     public static DijkstraResult mainCustomDijkstra(String originPostcode, String destinationPostcode, double radius, String time) {
+        return mainCustomDijkstra(originPostcode, destinationPostcode, radius, time, DEFAULT_SEARCH_MODE);
+    }
+
+    // Main Dijkstra method with an explicit search mode
+    public static DijkstraResult mainCustomDijkstra(String originPostcode, String destinationPostcode, double radius, String time, SearchMode searchMode) {
         Instant startTime = Instant.now();
 
-        boolean rebuildGraph = shouldRebuildGraph(time);
         DataGetter dataGetter = new DataGetter();
         DistanceCalculator distanceCalculator = new DistanceCalculator();        
 
-        Graph<String, CustomEdge> graph;
+        TransitGraph graph = getGraph(dataGetter, convertTimeToMinutes(time));
+        QueryOverlay overlay = addSuperNodes(graph, originPostcode, destinationPostcode, dataGetter, distanceCalculator);
 
-        if (!rebuildGraph && GraphCache.isGraphCached()) {
-            graph = GraphCache.getCachedGraph();
-            removeSuperNodes(graph);
-        } else {
-            graph = new DefaultDirectedWeightedGraph<>(CustomEdge.class);
-            initializeGraph(graph, dataGetter, time);
+        CustomDijkstra dijkstra = new CustomDijkstra(graph, overlay);
+        dijkstra.execute(graph.getOriginVertex(), graph.getDestinationVertex(), time, searchMode);
+        List<Integer> vertexPath = dijkstra.getPath(graph.getDestinationVertex());
+        List<String> path = dijkstra.getPathLabels(vertexPath, originPostcode, destinationPostcode);
+        List<Integer> legTripIds = dijkstra.getLegTripIds(vertexPath);
+        double totalTravelTime = dijkstra.getTotalTravelTime(graph.getDestinationVertex());
+
+        Instant endTime = Instant.now();
+        Duration timeElapsed = Duration.between(startTime, endTime);
+
+        printResults(originPostcode, destinationPostcode, path, legTripIds, totalTravelTime, timeElapsed);
+        System.out.println("Settled nodes: " + dijkstra.getSettledCount());
+
+        return new DijkstraResult(path, legTripIds, totalTravelTime);
+    }
+
+    // One-to-all search from a postcode: the earliest arrival at every stop, without reconstructing any path
+    public static TravelTimeTree mainTravelTimeTree(String originPostcode, String time) {
+        Instant startTime = Instant.now();
+
+        DataGetter dataGetter = new DataGetter();
+        double[] originCoordinates = dataGetter.getLocationFromApiReader(originPostcode);
+        if (originCoordinates == null) {
+            throw new IllegalArgumentException("Invalid postal code: " + originPostcode);
         }
 
-        addSuperNodes(graph, originPostcode, destinationPostcode, dataGetter, distanceCalculator);
+        TransitGraph graph = getGraph(dataGetter, convertTimeToMinutes(time));
+        QueryOverlay overlay = connectOriginNode(graph, originCoordinates[0], originCoordinates[1], new DistanceCalculator());
+        CustomDijkstra dijkstra = new CustomDijkstra(graph, overlay);
+        int[] arrivalTimes = dijkstra.computeArrivalTimes(graph.getOriginVertex(), time);
+
+        Duration timeElapsed = Duration.between(startTime, Instant.now());
+        System.out.println("Travel times from " + originPostcode + " to all stops: " + timeElapsed.toMillis() + " milliseconds");
+        return new TravelTimeTree(graph, originCoordinates[0], originCoordinates[1], convertTimeToMinutes(time), arrivalTimes);
+    }
 
-        CustomDijkstra dijkstra = new CustomDijkstra(graph);
-        dijkstra.execute(originPostcode, time);
-        List<String> path = dijkstra.getPath(destinationPostcode);
-        double totalTravelTime = dijkstra.getTotalTravelTime(destinationPostcode);
+    // Many-to-many travel times: one one-to-all search per origin, run in parallel on the common fork/join pool
+    public static TravelTimeMatrix mainTravelTimeMatrix(List<String> originPostcodes, List<String> destinationPostcodes, String time) {
+        Instant startTime = Instant.now();
 
-        Instant endTime = Instant.now();
-        Duration timeElapsed = Duration.between(startTime, endTime);
+        DataGetter dataGetter = new DataGetter();
+        DistanceCalculator distanceCalculator = new DistanceCalculator();
+        TransitGraph graph = getGraph(dataGetter, convertTimeToMinutes(time));
+        float[][] accessMinutes = new float[originPostcodes.size()][];
+        for (int i = 0; i < accessMinutes.length; i++) {
+            double[] coordinates = getPostcodeLocation(dataGetter, originPostcodes.get(i));
+            accessMinutes[i] = computeWalkingMinutes(graph, coordinates[0], coordinates[1], distanceCalculator);
+        }
+        float[][] egressMinutes = new float[destinationPostcodes.size()][];
+        for (int i = 0; i < egressMinutes.length; i++) {
+            double[] coordinates = getPostcodeLocation(dataGetter, destinationPostcodes.get(i));
+            egressMinutes[i] = computeWalkingMinutes(graph, coordinates[0], coordinates[1], distanceCalculator);
+        }
 
-        printResults(originPostcode, destinationPostcode, graph, path, totalTravelTime, timeElapsed);
+        TravelTimeMatrix matrix = TravelTimeMatrix.compute(graph, accessMinutes, egressMinutes, time, ForkJoinPool.commonPool());
 
-        lastTimeParameter = time;
+        Duration timeElapsed = Duration.between(startTime, Instant.now());
+        System.out.println("Travel time matrix of " + originPostcodes.size() + " x " + destinationPostcodes.size() + " postcodes: " + timeElapsed.toMillis() + " milliseconds");
+        return matrix;
+    }
 
-        return new DijkstraResult(path, graph, totalTravelTime);
+    private static double[] getPostcodeLocation(DataGetter dataGetter, String postcode) {
+        double[] coordinates = dataGetter.getLocationFromApiReader(postcode);
+        if (coordinates == null) {
+            throw new IllegalArgumentException("Invalid postal code: " + postcode);
+        }
+        return coordinates;
     }
 
-    // Initialize the graph with bus stops and routes
-    private static void initializeGraph(Graph<String, CustomEdge> graph, DataGetter dataGetter, String time) {
+    // Concurrent queries share the cached snapshot of their time band, which is built by the first of them.
+    // On a miss the window of an overlapping cached band is slid over, otherwise the band is read from its on-disk
+    // snapshot when that was built from the current tables, and only then rebuilt from scratch. A band whose
+    // timetable failed to load throws before it is written or cached, so the next query loads it again.
+    private static synchronized TransitGraph getGraph(DataGetter dataGetter, int departureMinutes) {
+        TransitGraph graph = GraphCache.getCachedGraph(departureMinutes);
+        if (graph != null) {
+            return graph;
+        }
+        int bandStart = GraphCache.getBandStart(departureMinutes);
+        int bandEnd = GraphCache.getBandEnd(bandStart);
+        long sourceChecksum = getSourceChecksum();
+        useSourceChecksum(sourceChecksum);
+        Path snapshotFile = TransitGraphSnapshot.getSnapshotFile(TransitGraphSnapshot.DEFAULT_DIRECTORY, bandStart, bandEnd);
+        int overlappingBand = GraphCache.findOverlappingBand(bandStart);
+        boolean fromSnapshot = false;
+        if (overlappingBand != GraphCache.NO_BAND) {
+            graph = slideGraph(GraphCache.getSnapshot(overlappingBand), overlappingBand, GraphCache.getBandEnd(overlappingBand), bandStart, bandEnd);
+        } else if (sourceChecksum != RouteWeights.UNKNOWN_CHECKSUM) {
+            graph = TransitGraphSnapshot.read(snapshotFile, sourceChecksum, bandStart, bandEnd);
+            fromSnapshot = graph != null;
+        }
+        if (graph == null) {
+            graph = initializeGraph(dataGetter, bandStart, bandEnd);
+            // The OSM graph is first loaded while the walking paths are built; if that failed, the walks are straight
+            sourceChecksum = getSourceChecksum();
+            useSourceChecksum(sourceChecksum);
+        }
+        if (!fromSnapshot && sourceChecksum != RouteWeights.UNKNOWN_CHECKSUM) {
+            TransitGraphSnapshot.write(graph, snapshotFile, sourceChecksum, bandStart, bandEnd);
+        }
+        GraphCache.cacheGraph(bandStart, graph);
+        return graph;
+    }
+
+    // Checksum of everything a band is built from: the route tables and, unless the OSM graph of the current extract
+    // failed to load, the OSM extract. Straight-line and street footpaths thus never share a snapshot. It never waits
+    // for the OSM graph, so a band read from its snapshot does not pay for the OSM import.
+    private static long getSourceChecksum() {
+        long sourceChecksum = RouteWeights.getSourceChecksum();
+        long osmChecksum = OsmGraphService.getSourceChecksum();
+        if (sourceChecksum == RouteWeights.UNKNOWN_CHECKSUM || failedOsmChecksum == osmChecksum) {
+            return sourceChecksum;
+        }
+        if (osmChecksum == OsmGraphService.UNKNOWN_CHECKSUM) {
+            return RouteWeights.UNKNOWN_CHECKSUM;
+        }
+        long checksum = 31 * sourceChecksum + osmChecksum;
+        return checksum == RouteWeights.UNKNOWN_CHECKSUM ? 1 : checksum;
+    }
+
+    // Cached bands built from other sources, such as straight-line walks before the OSM graph failed to load, must
+    // not be slid into a band built from these
+    private static void useSourceChecksum(long sourceChecksum) {
+        if (sourceChecksum != graphSourceChecksum) {
+            GraphCache.clearCache();
+            graphSourceChecksum = sourceChecksum;
+        }
+    }
+
+    // Build the graph of the window [fromMinutes, toMinutes) from a graph of the overlapping window
+    // [previousFrom, previousTo): departures outside the new window are dropped and only the part of the new window
+    // the previous graph did not cover is loaded from the database
+    private static TransitGraph slideGraph(TransitGraph previous, int previousFrom, int previousTo, int fromMinutes, int toMinutes) {
+        TransitGraphBuilder builder = new TransitGraphBuilder();
+        builder.addGraph(previous, Math.max(fromMinutes, previousFrom), Math.min(toMinutes, previousTo));
+        if (fromMinutes < previousFrom) {
+            builder.addConnections(RouteWeights.loadConnections(builder, convertMinutesToTime(fromMinutes), convertMinutesToTime(previousFrom)));
+        }
+        if (previousTo < toMinutes) {
+            builder.addConnections(RouteWeights.loadConnections(builder, convertMinutesToTime(previousTo), convertMinutesToTime(toMinutes)));
+        }
+        return builder.build(ForkJoinPool.commonPool());
+    }
+
+    // Initialize the graph with bus stops and the routes departing in [fromMinutes, toMinutes), streamed from the
+    // database in one query. Throws if either could not be loaded, so getGraph never caches or writes the band.
+    // The rows arrive on one connection, so the parallel stage is the per-stop sort and pack in TransitGraphBuilder.
+    private static TransitGraph initializeGraph(DataGetter dataGetter, int fromMinutes, int toMinutes) {
         Map<String, String[]> busStops = dataGetter.getBusStopCoordinates();
-        busStops.keySet().forEach(graph::addVertex);
-    
-        ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-        List<Callable<Void>> tasks = new ArrayList<>();
-        List<String> stopIds = new ArrayList<>(busStops.keySet());
-    
-        for (String fromStop : stopIds) {
-            tasks.add(() -> {
-                List<Map<String, Object>> routeWeights = RouteWeights.getRouteWeights(Collections.singletonList(fromStop), time);
-                for (Map<String, Object> weightData : routeWeights) {
-                    String toStop = (String) weightData.get("end_stop_id");
-                    int tripId = (int) weightData.get("trip_id");
-                    double totalTime = (double) weightData.get("total_time");
-    
-                    if (graph.containsVertex(fromStop) && graph.containsVertex(toStop)) {
-                        graph.addEdge(fromStop, toStop, new CustomEdge(Collections.singletonMap(tripId, totalTime)));
-                    }
-                }
-                return null;
-            });
+        if (busStops.isEmpty()) {
+            throw new IllegalStateException("Could not load the bus stops");
         }
-    
-        try {
-            executorService.invokeAll(tasks);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        } finally {
-            executorService.shutdown();
+        TransitGraphBuilder builder = new TransitGraphBuilder();
+        List<String> stopIds = new ArrayList<>(busStops.keySet());
+        Collections.sort(stopIds);
+        for (String stopId : stopIds) {
+            String[] latLon = busStops.get(stopId);
+            if (latLon == null) {
+                builder.addStop(stopId, Double.NaN, Double.NaN);
+            } else {
+                builder.addStop(stopId, Double.parseDouble(latLon[0].replace(',', '.')), Double.parseDouble(latLon[1].replace(',', '.')));
+            }
         }
     
-        addWalkingPaths(graph, busStops);
-        GraphCache.cacheGraph((DefaultDirectedWeightedGraph<String, CustomEdge>) graph);
+        builder.addConnections(RouteWeights.loadConnections(builder, convertMinutesToTime(fromMinutes), convertMinutesToTime(toMinutes)));
+        addWalkingPaths(builder);
+        return builder.build(ForkJoinPool.commonPool());
     }
 
-    // Add super nodes to the graph
-    private static void addSuperNodes(Graph<String, CustomEdge> graph, String startNode, String endNode, DataGetter dataGetter, DistanceCalculator distanceCalculator) {
+    // Add super nodes for a query; they only exist in the returned overlay, never in the shared graph
+    private static QueryOverlay addSuperNodes(TransitGraph graph, String startNode, String endNode, DataGetter dataGetter, DistanceCalculator distanceCalculator) {
         double[] originCoordinates = dataGetter.getLocationFromApiReader(startNode);
         double[] destinationCoordinates = dataGetter.getLocationFromApiReader(endNode);
     
@@ -109,193 +280,439 @@ public class CustomDijkstra {
             throw new IllegalArgumentException("Invalid postal code: " + (originCoordinates == null ? startNode : endNode));
         }
     
-        double startLat = Double.parseDouble(String.valueOf(originCoordinates[0]).replace(',', '.'));
-        double startLon = Double.parseDouble(String.valueOf(originCoordinates[1]).replace(',', '.'));
-        double endLat = Double.parseDouble(String.valueOf(destinationCoordinates[0]).replace(',', '.'));
-        double endLon = Double.parseDouble(String.valueOf(destinationCoordinates[1]).replace(',', '.'));
-    
-        graph.addVertex(startNode);
-        graph.addVertex(endNode);
-    
-        connectSuperNodes(graph, startNode, endNode, startLat, startLon, endLat, endLon, dataGetter, distanceCalculator);
+        return connectSuperNodes(graph, originCoordinates[0], originCoordinates[1], destinationCoordinates[0], destinationCoordinates[1], distanceCalculator);
     }
     
-    // Connect super nodes to the graph
-    private static void connectSuperNodes(Graph<String, CustomEdge> graph, String startNode, String endNode, double startLat, double startLon, double endLat, double endLon, DataGetter dataGetter, DistanceCalculator distanceCalculator) {
-        Map<String, String[]> busStops = dataGetter.getBusStopCoordinates();
-        int counter = 0;
+    // Connect super nodes to every bus stop by walking
+    private static QueryOverlay connectSuperNodes(TransitGraph graph, double startLat, double startLon, double endLat, double endLon, DistanceCalculator distanceCalculator) {
+        float[] accessMinutes = new float[graph.getStopCount()];
+        float[] egressMinutes = new float[graph.getStopCount()];
+        float[] accessStreetKm = computeStreetDistances(graph, startLat, startLon);
+        float[] egressStreetKm = computeStreetDistances(graph, endLat, endLon);
     
-        for (String busStop : busStops.keySet()) {
-            if (!busStop.equals(startNode) && !busStop.equals(endNode)) {
-                String[] latLon = busStops.get(busStop);
-                if (latLon == null) {
-                    System.err.println("Missing data for bus stop: " + busStop);
-                    continue;
-                }
-    
-                double lat = Double.parseDouble(latLon[0].replace(',', '.'));
-                double lon = Double.parseDouble(latLon[1].replace(',', '.'));
+        for (int stop = 0; stop < graph.getStopCount(); stop++) {
+            double lat = graph.getLatitude(stop);
+            double lon = graph.getLongitude(stop);
+            if (Double.isNaN(lat) || Double.isNaN(lon)) {
+                System.err.println("Missing data for bus stop: " + graph.getStopId(stop));
+                accessMinutes[stop] = TransitGraph.NO_WALK;
+                egressMinutes[stop] = TransitGraph.NO_WALK;
+                continue;
+            }
     
-                double startDistance = distanceCalculator.calculateWalkingTime(distanceCalculator.calculateDistance(startLat, startLon, lat, lon));
-                double endDistance = distanceCalculator.calculateWalkingTime(distanceCalculator.calculateDistance(endLat, endLon, lat, lon));
+            accessMinutes[stop] = distanceCalculator.calculateWalkingTime(getWalkingDistance(accessStreetKm, stop, startLat, startLon, lat, lon, distanceCalculator));
+            egressMinutes[stop] = distanceCalculator.calculateWalkingTime(getWalkingDistance(egressStreetKm, stop, endLat, endLon, lat, lon, distanceCalculator));
+        }
+        return new QueryOverlay(accessMinutes, egressMinutes, endLat, endLon);
+    }
     
-                graph.addEdge(startNode, busStop, new CustomEdge(Collections.singletonMap(counter++, startDistance)));
-                graph.addEdge(busStop, endNode, new CustomEdge(Collections.singletonMap(counter++, endDistance)));
+    // Connect only the origin super node; nothing reaches the destination, so a FULL search labels every stop
+    private static QueryOverlay connectOriginNode(TransitGraph graph, double startLat, double startLon, DistanceCalculator distanceCalculator) {
+        float[] egressMinutes = new float[graph.getStopCount()];
+        Arrays.fill(egressMinutes, TransitGraph.NO_WALK);
+        return new QueryOverlay(computeWalkingMinutes(graph, startLat, startLon, distanceCalculator), egressMinutes, Double.NaN, Double.NaN);
+    }
+
+    // Walking minutes between a point and every stop, NO_WALK for stops without coordinates
+    private static float[] computeWalkingMinutes(TransitGraph graph, double lat, double lon, DistanceCalculator distanceCalculator) {
+        float[] walkingMinutes = new float[graph.getStopCount()];
+        float[] streetKm = computeStreetDistances(graph, lat, lon);
+        for (int stop = 0; stop < graph.getStopCount(); stop++) {
+            double stopLat = graph.getLatitude(stop);
+            double stopLon = graph.getLongitude(stop);
+            if (Double.isNaN(stopLat) || Double.isNaN(stopLon)) {
+                walkingMinutes[stop] = TransitGraph.NO_WALK;
+                continue;
             }
+            walkingMinutes[stop] = distanceCalculator.calculateWalkingTime(getWalkingDistance(streetKm, stop, lat, lon, stopLat, stopLon, distanceCalculator));
         }
+        return walkingMinutes;
     }
-    
-    // Method to add walking paths between bus stops
-    private static void addWalkingPaths(Graph<String, CustomEdge> graph, Map<String, String[]> busStops) {
+
+    // Street kilometers from a point to every stop within MAX_STREET_ACCESS_KM, infinite for the stops further away,
+    // or null when the OSM graph is not available
+    private static float[] computeStreetDistances(TransitGraph graph, double lat, double lon) {
+        FootpathBuilder builder = getFootpathBuilder(graph.getLatitudes(), graph.getLongitudes());
+        return builder == null ? null : builder.computeDistancesKm(lat, lon, MAX_STREET_ACCESS_KM);
+    }
+
+    // Walking kilometers from a point to a stop: along the streets when they reach the stop within range, otherwise straight
+    private static double getWalkingDistance(float[] streetKm, int stop, double lat, double lon, double stopLat, double stopLon, DistanceCalculator distanceCalculator) {
+        if (streetKm != null && streetKm[stop] != Float.POSITIVE_INFINITY) {
+            return streetKm[stop];
+        }
+        return distanceCalculator.calculateDistance(lat, lon, stopLat, stopLon);
+    }
+
+    // Footpaths over the shared OSM walking graph for these stops, built once for as long as the stops stay the same.
+    // Returns null if the OSM graph cannot be loaded, in which case walks fall back to straight lines.
+    private static synchronized FootpathBuilder getFootpathBuilder(double[] latitudes, double[] longitudes) {
+        Graph osmGraph = getOsmGraph();
+        if (osmGraph == null) {
+            return null;
+        }
+        if (footpathGraph != osmGraph || !Arrays.equals(latitudes, footpathLatitudes) || !Arrays.equals(longitudes, footpathLongitudes)) {
+            footpathBuilder = new FootpathBuilder(osmGraph, latitudes, longitudes);
+            footpathGraph = osmGraph;
+            footpathLatitudes = latitudes.clone();
+            footpathLongitudes = longitudes.clone();
+        }
+        return footpathBuilder;
+    }
+
+    // The shared OSM walking graph, or null if it cannot be loaded. A failed load is remembered and only retried once
+    // the OSM extract changes, so queries do not each wait for another import that is bound to fail.
+    private static synchronized Graph getOsmGraph() {
+        long osmChecksum = OsmGraphService.getSourceChecksum();
+        if (failedOsmChecksum == osmChecksum) {
+            return null;
+        }
+        try {
+            Graph osmGraph = OsmGraphService.getGraph();
+            failedOsmChecksum = NO_OSM_FAILURE;
+            return osmGraph;
+        } catch (RuntimeException e) {
+            System.out.println("OSM walking graph unavailable, walking in straight lines: " + e.getMessage());
+            failedOsmChecksum = osmChecksum;
+            return null;
+        }
+    }
+
+    // Method to add walking paths between bus stops within walking distance. They follow the streets, searched from
+    // every stop in parallel; pairs with a stop off the OSM network are found through a spatial grid and walked straight.
+    private static void addWalkingPaths(TransitGraphBuilder builder) {
         DistanceCalculator distanceCalculator = new DistanceCalculator();
-        int counter = 0;
-    
-        for (String fromStop : busStops.keySet()) {
-            for (String toStop : busStops.keySet()) {
-                if (!fromStop.equals(toStop)) {
-                    String[] fromCoords = busStops.get(fromStop);
-                    String[] toCoords = busStops.get(toStop);
-    
-                    if (fromCoords != null && toCoords != null) {
-                        double fromLat = Double.parseDouble(fromCoords[0].replace(',', '.'));
-                        double fromLon = Double.parseDouble(fromCoords[1].replace(',', '.'));
-                        double toLat = Double.parseDouble(toCoords[0].replace(',', '.'));
-                        double toLon = Double.parseDouble(toCoords[1].replace(',', '.'));
-    
-                        double walkingDistance = distanceCalculator.calculateDistance(fromLat, fromLon, toLat, toLon);
-                        double walkingTime = distanceCalculator.calculateWalkingTime(walkingDistance);
-    
-                        // Only add a walking path if it's within a reasonable walking distance, e.g., 1 km
-                        if (walkingDistance <= 1000) {
-                            graph.addEdge(fromStop, toStop, new CustomEdge(Collections.singletonMap(counter++, walkingTime)));
-                        }
-                    }
+        int stopCount = builder.getStopCount();
+        double[] latitudes = new double[stopCount];
+        double[] longitudes = new double[stopCount];
+        for (int stop = 0; stop < stopCount; stop++) {
+            latitudes[stop] = builder.getLatitude(stop);
+            longitudes[stop] = builder.getLongitude(stop);
+        }
+        FootpathBuilder footpaths = getFootpathBuilder(latitudes, longitudes);
+        if (footpaths != null) {
+            StopDistanceTable table = footpaths.computeStopDistances(MAX_WALKING_DISTANCE_KM, ForkJoinPool.commonPool());
+            for (int stop = 0; stop < stopCount; stop++) {
+                for (int pair = table.getFirstPair(stop); pair < table.getLastPair(stop); pair++) {
+                    builder.addWalkingEdge(stop, table.getTarget(pair), distanceCalculator.calculateWalkingTime(table.getDistanceKm(pair)));
                 }
             }
         }
+        GridIndex gridIndex = new GridIndex(latitudes, longitudes, MAX_WALKING_DISTANCE_KM);
+    
+        for (int stop = 0; stop < stopCount; stop++) {
+            int fromStop = stop;
+            // A stop pair served by a bus keeps its schedule and walking becomes an alternative
+            gridIndex.forEachWithin(latitudes[fromStop], longitudes[fromStop], MAX_WALKING_DISTANCE_KM, (toStop, walkingDistance) -> {
+                if (toStop != fromStop && (footpaths == null || !footpaths.isSnapped(fromStop) || !footpaths.isSnapped(toStop))) {
+                    builder.addWalkingEdge(fromStop, toStop, distanceCalculator.calculateWalkingTime(walkingDistance));
+                }
+            });
+        }
     }
 
-    // Remove old super nodes from the graph
-    private static void removeSuperNodes(Graph<String, CustomEdge> graph) {
-        List<String> superNodes = new ArrayList<>();
-        for (String vertex : graph.vertexSet()) {
-            if (vertex.startsWith("superNode")) {
-                superNodes.add(vertex);
+    // Execute time-dependent Dijkstra: labels are arrival times and each edge is evaluated at the arrival time of its source
+    public void execute(int startVertex, String startTime) {
+        execute(startVertex, -1, startTime, SearchMode.FULL);
+    }
+
+    // Execute a query towards targetVertex; only the labels on the path to the target are final unless the mode is FULL
+    public void execute(int startVertex, int targetVertex, String startTime, SearchMode searchMode) {
+        startMinutes = convertTimeToMinutes(startTime);
+        settledCount = 0;
+        useHeuristic = searchMode == SearchMode.ASTAR;
+        if (useHeuristic) {
+            initializeHeuristic(targetVertex);
+        }
+        initializeDistancesAndQueue(startVertex);
+
+        if (searchMode == SearchMode.BIDIRECTIONAL) {
+            executeBidirectional(targetVertex);
+            return;
+        }
+        while (!priorityQueue.isEmpty()) {
+            int currentVertex = priorityQueue.poll();
+            settledCount++;
+            if (searchMode != SearchMode.FULL && currentVertex == targetVertex) {
+                break;
             }
+            relaxOutgoingEdges(currentVertex, false);
         }
-        for (String superNode : superNodes) {
-            graph.removeVertex(superNode);
+    }
+
+    // Run a FULL search and return the earliest arrival at every stop, TransitGraph.NO_CONNECTION where unreachable
+    public int[] computeArrivalTimes(int startVertex, String startTime) {
+        execute(startVertex, -1, startTime, SearchMode.FULL);
+        return Arrays.copyOf(arrivalTimes, graph.getStopCount());
+    }
+
+    private void initializeHeuristic(int targetVertex) {
+        if (targetVertex == graph.getDestinationVertex()) {
+            targetLatitude = overlay.getDestinationLatitude();
+            targetLongitude = overlay.getDestinationLongitude();
+        } else if (targetVertex < graph.getStopCount()) {
+            targetLatitude = graph.getLatitude(targetVertex);
+            targetLongitude = graph.getLongitude(targetVertex);
+        } else {
+            targetLatitude = Double.NaN;
+            targetLongitude = Double.NaN;
         }
+        Arrays.fill(heuristics, Float.NaN);
     }
 
-    // Determine whether to rebuild the graph
-    private static boolean shouldRebuildGraph(String currentTime) {
-        return !GraphCache.isGraphCached() || !currentTime.equals(lastTimeParameter);
+    // Lower bound on the minutes from a vertex to the target: straight-line distance at the fastest timetable speed,
+    // rounded down so queue keys stay whole minutes. Vertices without coordinates fall back to zero.
+    private float getHeuristic(int vertex) {
+        float heuristic = heuristics[vertex];
+        if (Float.isNaN(heuristic)) {
+            heuristic = 0;
+            if (vertex < graph.getStopCount() && !Double.isNaN(targetLatitude) && !Double.isNaN(graph.getLatitude(vertex))) {
+                double distance = distanceCalculator.calculateDistance(graph.getLatitude(vertex), graph.getLongitude(vertex), targetLatitude, targetLongitude);
+                heuristic = (float) Math.floor(distance / graph.getMaximumSpeed());
+            }
+            heuristics[vertex] = heuristic;
+        }
+        return heuristic;
     }
 
-    // Execute Dijkstra's algorithm
-    public void execute(String startNode, String startTime) {
-        initializeDistancesAndQueue(startNode, startTime);
+    // Number of vertices taken off the queues by the last query, both directions included
+    public int getSettledCount() {
+        return settledCount;
+    }
 
-        while (!priorityQueue.isEmpty()) {
-            Node currentNode = priorityQueue.poll();
-            String currentLabel = currentNode.getLabel();
-            double currentArrivalTime = currentNode.getArrivalTime();
+    // Phase 1 alternates both searches until they settle a common vertex, which yields an upper bound on the arrival.
+    // Phase 2 lets the backward search settle every vertex whose lower bound to the target fits within that bound,
+    // and phase 3 finishes the forward search restricted to those vertices. Every vertex of an optimal path is
+    // settled backwards, so the result equals the FULL search.
+    private void executeBidirectional(int targetVertex) {
+        initializeBackwardSearch(targetVertex);
+
+        int meetingVertex = -1;
+        while (meetingVertex == -1 && !priorityQueue.isEmpty() && !backwardQueue.isEmpty()) {
+            int forwardVertex = priorityQueue.poll();
+            settledCount++;
+            if (forwardVertex == targetVertex) {
+                return;
+            }
+            relaxOutgoingEdges(forwardVertex, false);
+            if (backwardSettled[forwardVertex]) {
+                meetingVertex = forwardVertex;
+            } else {
+                int backwardVertex = settleBackward();
+                if (settled[backwardVertex]) {
+                    meetingVertex = backwardVertex;
+                }
+            }
+        }
 
-            for (CustomEdge edge : graph.outgoingEdgesOf(currentLabel)) {
-                String adjacentNode = graph.getEdgeTarget(edge);
-                double edgeWeight = edge.getIdWeightMap().values().stream().mapToDouble(Double::doubleValue).sum();
+        if (meetingVertex != -1) {
+            double upperBound = evaluateBackwardPath(meetingVertex, targetVertex) - (double) startMinutes;
+            while (!backwardQueue.isEmpty() && backwardQueue.peekKey() <= upperBound) {
+                settleBackward();
+            }
+        }
 
-                double newArrivalTime = currentArrivalTime + edgeWeight;
-                double newDist = distances.get(currentLabel) + edgeWeight;
+        while (!priorityQueue.isEmpty()) {
+            int currentVertex = priorityQueue.poll();
+            settledCount++;
+            if (currentVertex == targetVertex) {
+                break;
+            }
+            relaxOutgoingEdges(currentVertex, true);
+        }
+    }
 
-                if (newDist < distances.get(adjacentNode)) {
-                    distances.put(adjacentNode, newDist);
-                    previousNodes.put(adjacentNode, currentLabel);
-                    priorityQueue.add(new Node(adjacentNode, newDist, newArrivalTime));
+    // Relax the time-dependent outgoing edges of a settled vertex, including its overlay access or egress walks.
+    // A vertex improved after being settled is queued again.
+    private void relaxOutgoingEdges(int currentVertex, boolean backwardSettledOnly) {
+        settled[currentVertex] = true;
+        int currentArrivalTime = arrivalTimes[currentVertex];
+        float currentKey = currentArrivalTime + (useHeuristic ? getHeuristic(currentVertex) : 0);
+
+        if (currentVertex == graph.getOriginVertex()) {
+            for (int stop = 0; stop < graph.getStopCount(); stop++) {
+                float accessMinutes = overlay.getAccessMinutes(stop);
+                if (accessMinutes != TransitGraph.NO_WALK && (!backwardSettledOnly || backwardSettled[stop])) {
+                    relax(currentVertex, stop, -1, currentArrivalTime + (int) accessMinutes, currentArrivalTime, currentKey);
                 }
             }
+            return;
+        }
+
+        for (int edge = graph.getFirstEdge(currentVertex); edge < graph.getLastEdge(currentVertex); edge++) {
+            int adjacentVertex = graph.getTarget(edge);
+            if (!backwardSettledOnly || backwardSettled[adjacentVertex]) {
+                relax(currentVertex, adjacentVertex, edge, graph.getArrivalTime(edge, currentArrivalTime), currentArrivalTime, currentKey);
+            }
+        }
+
+        int destinationVertex = graph.getDestinationVertex();
+        if (currentVertex < graph.getStopCount() && overlay.getEgressMinutes(currentVertex) != TransitGraph.NO_WALK
+                && (!backwardSettledOnly || backwardSettled[destinationVertex])) {
+            relax(currentVertex, destinationVertex, -1, currentArrivalTime + (int) overlay.getEgressMinutes(currentVertex), currentArrivalTime, currentKey);
+        }
+    }
+
+    // Improve the label of adjacentVertex if newArrivalTime is earlier; edge is -1 for an overlay walk
+    private void relax(int currentVertex, int adjacentVertex, int edge, int newArrivalTime, int currentArrivalTime, float currentKey) {
+        if (newArrivalTime >= arrivalTimes[adjacentVertex]) {
+            return;
+        }
+        arrivalTimes[adjacentVertex] = newArrivalTime;
+        previousNodes[adjacentVertex] = currentVertex;
+        previousTrips[adjacentVertex] = edge == -1 ? DijkstraResult.WALKING_LEG : graph.getTripId(edge, currentArrivalTime);
+        if (useHeuristic) {
+            // Clamped so a zero-minute hop that beats the heuristic cannot move a monotone queue backwards
+            priorityQueue.insertOrDecrease(adjacentVertex, Math.max(newArrivalTime + getHeuristic(adjacentVertex), currentKey));
+        } else {
+            priorityQueue.insertOrDecrease(adjacentVertex, newArrivalTime);
+        }
+    }
+
+    private void initializeBackwardSearch(int targetVertex) {
+        if (backwardQueue == null) {
+            backwardDistances = new double[graph.getVertexCount()];
+            backwardNextEdges = new int[graph.getVertexCount()];
+            backwardNextVertices = new int[graph.getVertexCount()];
+            backwardSettled = new boolean[graph.getVertexCount()];
+            backwardQueue = queueType.create(graph.getVertexCount(), 1.0);
+        }
+        backwardQueue.clear();
+        Arrays.fill(backwardDistances, Double.MAX_VALUE);
+        Arrays.fill(backwardNextEdges, -1);
+        Arrays.fill(backwardNextVertices, -1);
+        Arrays.fill(backwardSettled, false);
+        backwardDistances[targetVertex] = 0.0;
+        backwardQueue.insertOrDecrease(targetVertex, 0.0);
+    }
+
+    // Settle the next vertex of the backward search over the static lower bounds of the incoming edges
+    private int settleBackward() {
+        int currentVertex = backwardQueue.poll();
+        backwardSettled[currentVertex] = true;
+        settledCount++;
+
+        if (currentVertex == graph.getDestinationVertex()) {
+            for (int stop = 0; stop < graph.getStopCount(); stop++) {
+                relaxBackward(currentVertex, stop, -1, overlay.getEgressMinutes(stop));
+            }
+            return currentVertex;
+        }
+        for (int i = graph.getFirstIncoming(currentVertex); i < graph.getLastIncoming(currentVertex); i++) {
+            int edge = graph.getIncomingEdge(i);
+            relaxBackward(currentVertex, graph.getSource(edge), edge, graph.getLowerBound(edge));
+        }
+        if (currentVertex < graph.getStopCount()) {
+            relaxBackward(currentVertex, graph.getOriginVertex(), -1, overlay.getAccessMinutes(currentVertex));
         }
+        return currentVertex;
     }
 
-    // Initialize distances and priority queue
-    private void initializeDistancesAndQueue(String startNode, String startTime) {
-        double startArrivalTime = convertTimeToMinutes(startTime);
+    private void relaxBackward(int currentVertex, int sourceVertex, int edge, float lowerBound) {
+        if (lowerBound == TransitGraph.NO_WALK) {
+            return;
+        }
+        double newDist = backwardDistances[currentVertex] + lowerBound;
+        if (newDist < backwardDistances[sourceVertex]) {
+            backwardDistances[sourceVertex] = newDist;
+            backwardNextEdges[sourceVertex] = edge;
+            backwardNextVertices[sourceVertex] = currentVertex;
+            backwardQueue.insertOrDecrease(sourceVertex, newDist);
+        }
+    }
 
-        for (String node : graph.vertexSet()) {
-            if (node.equals(startNode)) {
-                distances.put(node, 0.0);
-                priorityQueue.add(new Node(node, 0.0, startArrivalTime));
+    // Arrival at the target when following the backward tree from the meeting vertex with real departure times
+    private int evaluateBackwardPath(int meetingVertex, int targetVertex) {
+        int time = arrivalTimes[meetingVertex];
+        for (int vertex = meetingVertex; vertex != targetVertex && time != UNREACHED; vertex = backwardNextVertices[vertex]) {
+            int edge = backwardNextEdges[vertex];
+            if (edge != -1) {
+                time = graph.getArrivalTime(edge, time);
+            } else if (vertex == graph.getOriginVertex()) {
+                time += (int) overlay.getAccessMinutes(backwardNextVertices[vertex]);
             } else {
-                distances.put(node, Double.MAX_VALUE);
-                priorityQueue.add(new Node(node, Double.MAX_VALUE, Double.MAX_VALUE));
+                time += (int) overlay.getEgressMinutes(vertex);
             }
-            previousNodes.put(node, null);
         }
+        return time;
+    }
+
+    // Initialize distances and priority queue; only the start vertex is queued, the others enter when first reached
+    private void initializeDistancesAndQueue(int startVertex) {
+        priorityQueue.clear();
+        Arrays.fill(arrivalTimes, UNREACHED);
+        Arrays.fill(previousNodes, -1);
+        Arrays.fill(previousTrips, DijkstraResult.WALKING_LEG);
+        Arrays.fill(settled, false);
+        arrivalTimes[startVertex] = startMinutes;
+        priorityQueue.insertOrDecrease(startVertex, startMinutes);
     }
 
     // Helper method to convert time string to minutes since midnight
-    private int convertTimeToMinutes(String time) {
+    static int convertTimeToMinutes(String time) {
         String[] parts = time.split(":");
         int hours = Integer.parseInt(parts[0]);
         int minutes = Integer.parseInt(parts[1]);
         return hours * 60 + minutes;
     }
 
-    // Get the path from the start node to the end node
-    public List<String> getPath(String endNode) {
-        List<String> path = new LinkedList<>();
-        for (String at = endNode; at != null; at = previousNodes.get(at)) {
+    // Helper method to convert minutes since midnight to an "HH:mm:ss" time string
+    private static String convertMinutesToTime(int minutes) {
+        return String.format("%02d:%02d:00", minutes / 60, minutes % 60);
+    }
+
+    // Get the path from the start vertex to the end vertex
+    public List<Integer> getPath(int endVertex) {
+        List<Integer> path = new LinkedList<>();
+        for (int at = endVertex; at != -1; at = previousNodes[at]) {
             path.add(at);
         }
         Collections.reverse(path);
         return path;
     }
 
-    // Get the total travel time to the end node
-    public double getTotalTravelTime(String endNode) {
-        return distances.getOrDefault(endNode, Double.MAX_VALUE);
+    // Translate a path returned by getPath into stop ids, naming the super nodes by the given labels
+    public List<String> getPathLabels(List<Integer> path, String originLabel, String destinationLabel) {
+        List<String> labels = new ArrayList<>();
+        for (int vertex : path) {
+            if (vertex == graph.getOriginVertex()) {
+                labels.add(originLabel);
+            } else if (vertex == graph.getDestinationVertex()) {
+                labels.add(destinationLabel);
+            } else {
+                labels.add(graph.getStopId(vertex));
+            }
+        }
+        return labels;
+    }
+
+    // Get the trip taken on every segment of a path returned by getPath
+    public List<Integer> getLegTripIds(List<Integer> path) {
+        List<Integer> legTripIds = new ArrayList<>();
+        for (int i = 1; i < path.size(); i++) {
+            legTripIds.add(previousTrips[path.get(i)]);
+        }
+        return legTripIds;
+    }
+
+    // Get the total travel time to the end vertex
+    public double getTotalTravelTime(int endVertex) {
+        return arrivalTimes[endVertex] == UNREACHED ? Double.MAX_VALUE : arrivalTimes[endVertex] - startMinutes;
     }
 
     // Print the results
-    private static void printResults(String startNode, String endNode, Graph<String, CustomEdge> graph, List<String> path, double totalTravelTime, Duration timeElapsed) {
+    private static void printResults(String startNode, String endNode, List<String> path, List<Integer> legTripIds, double totalTravelTime, Duration timeElapsed) {
         System.out.println("Shortest path from " + startNode + " to " + endNode + ":");
         for (int i = 0; i < path.size() - 1; i++) {
             String node = path.get(i);
             String nextNode = path.get(i + 1);
-            CustomEdge edge = graph.getEdge(node, nextNode);
-            System.out.println(node + " via edge " + edge + " to " + nextNode);
-            System.out.println(edge.getIdWeightMap().keySet());
+            int tripId = legTripIds.get(i);
+            System.out.println(node + (tripId == DijkstraResult.WALKING_LEG ? " walking" : " via trip " + tripId) + " to " + nextNode);
         }
         System.out.println(endNode);
         System.out.println("Total travel time: " + totalTravelTime + " minutes");
         System.out.println("Time taken for execution: " + timeElapsed.toMillis() + " milliseconds");
     }
-
-    // Node class representing a node in the graph
-    private static class Node {
-        private final String label;
-        private final double distance;
-        private final double arrivalTime;
-
-        public Node(String label, double distance, double arrivalTime) {
-            this.label = label;
-            this.distance = distance;
-            this.arrivalTime = arrivalTime;
-        }
-
-        public String getLabel() {
-            return label;
-        }
-
-        public double getDistance() {
-            return distance;
-        }
-
-        public double getArrivalTime() {
-            return arrivalTime;
-        }
-    }
 }
 
 
@@ -1,16 +1,18 @@
 package Algorithm.Dijkstra;
 
-import org.jgrapht.Graph;
 import java.util.List;
 
 public class DijkstraResult {
+    public static final int WALKING_LEG = -1;
+
     private final List<String> path;
-    private final Graph<String, CustomEdge> graph;
+    private final List<Integer> legTripIds;
     private final double totalTravelTime;
 
-    public DijkstraResult(List<String> path, Graph<String, CustomEdge> graph, double totalTravelTime) {
+    // legTripIds holds the trip taken on every path segment, WALKING_LEG for walks
+    public DijkstraResult(List<String> path, List<Integer> legTripIds, double totalTravelTime) {
         this.path = path;
-        this.graph = graph;
+        this.legTripIds = legTripIds;
         this.totalTravelTime = totalTravelTime;
     }
 
@@ -18,8 +20,8 @@ public class DijkstraResult {
         return path;
     }
 
-    public Graph<String, CustomEdge> getGraph() {
-        return graph;
+    public List<Integer> getLegTripIds() {
+        return legTripIds;
     }
 
     public double getTotalTravelTime() {
@@ -0,0 +1,91 @@
+package Algorithm.Dijkstra;
+
+import java.util.Arrays;
+
+// Growable primitive columns of scheduled connections. A loader worker fills its own buffer without any locking
+// and hands it to TransitGraphBuilder.addConnections once it is done.
+public class EdgeBuffer {
+    private int[] sources;
+    private int[] targets;
+    private int[] departures;
+    private int[] arrivals;
+    private int[] tripIds;
+    private int size;
+
+    // Constructor
+    public EdgeBuffer() {
+        this(1024);
+    }
+
+    public EdgeBuffer(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        this.sources = new int[capacity];
+        this.targets = new int[capacity];
+        this.departures = new int[capacity];
+        this.arrivals = new int[capacity];
+        this.tripIds = new int[capacity];
+    }
+
+    // Add one scheduled hop between two consecutive stops of a trip
+    public void add(int fromStop, int toStop, int departure, int arrival, int tripId) {
+        ensureCapacity(size + 1);
+        sources[size] = fromStop;
+        targets[size] = toStop;
+        departures[size] = departure;
+        arrivals[size] = arrival;
+        tripIds[size] = tripId;
+        size++;
+    }
+
+    // Append every connection of another buffer, keeping its order
+    public void addAll(EdgeBuffer other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.sources, 0, sources, size, other.size);
+        System.arraycopy(other.targets, 0, targets, size, other.size);
+        System.arraycopy(other.departures, 0, departures, size, other.size);
+        System.arraycopy(other.arrivals, 0, arrivals, size, other.size);
+        System.arraycopy(other.tripIds, 0, tripIds, size, other.size);
+        size += other.size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getSource(int index) {
+        return sources[index];
+    }
+
+    public int getTarget(int index) {
+        return targets[index];
+    }
+
+    public int getDeparture(int index) {
+        return departures[index];
+    }
+
+    public int getArrival(int index) {
+        return arrivals[index];
+    }
+
+    public int getTripId(int index) {
+        return tripIds[index];
+    }
+
+    // Backing source column; only the first size() entries are valid
+    int[] getSources() {
+        return sources;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= sources.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, sources.length * 2);
+        sources = Arrays.copyOf(sources, newCapacity);
+        targets = Arrays.copyOf(targets, newCapacity);
+        departures = Arrays.copyOf(departures, newCapacity);
+        arrivals = Arrays.copyOf(arrivals, newCapacity);
+        tripIds = Arrays.copyOf(tripIds, newCapacity);
+    }
+}
@@ -1,23 +1,130 @@
 package Algorithm.Dijkstra;
 
-import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+// Cache of timetable snapshots keyed by time band. A snapshot for the band starting at bandStart holds every
+// connection departing in [bandStart, bandStart + bandMinutes + horizonMinutes), so any query departing inside the
+// band can use it. Least recently used snapshots are evicted once there are too many or they use too much memory.
 public class GraphCache {
-    private static DefaultDirectedWeightedGraph<String, CustomEdge> cachedGraph;
+    public static final int DEFAULT_BAND_MINUTES = 60;
+    public static final int DEFAULT_HORIZON_MINUTES = 240;
+    public static final int DEFAULT_MAX_SNAPSHOTS = 6;
+    public static final long DEFAULT_MEMORY_CEILING_BYTES = 512L * 1024 * 1024;
+    public static final int NO_BAND = -1;
 
-    public static DefaultDirectedWeightedGraph<String, CustomEdge> getCachedGraph() {
-        return cachedGraph;
+    private static final LinkedHashMap<Integer, TransitGraph> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+    private static int bandMinutes = DEFAULT_BAND_MINUTES;
+    private static int horizonMinutes = DEFAULT_HORIZON_MINUTES;
+    private static int maxSnapshots = DEFAULT_MAX_SNAPSHOTS;
+    private static long memoryCeilingBytes = DEFAULT_MEMORY_CEILING_BYTES;
+    private static long memoryUsage;
+    private static long hits;
+    private static long misses;
+    private static long evictions;
+
+    // Change the band layout and limits; drops every cached snapshot because the bands no longer line up
+    public static synchronized void configure(int bandMinutes, int horizonMinutes, int maxSnapshots, long memoryCeilingBytes) {
+        if (bandMinutes <= 0 || horizonMinutes < 0 || maxSnapshots <= 0 || memoryCeilingBytes <= 0) {
+            throw new IllegalArgumentException("Invalid graph cache configuration");
+        }
+        GraphCache.bandMinutes = bandMinutes;
+        GraphCache.horizonMinutes = horizonMinutes;
+        GraphCache.maxSnapshots = maxSnapshots;
+        GraphCache.memoryCeilingBytes = memoryCeilingBytes;
+        clearCache();
+    }
+
+    // Start of the band containing a departure time, in minutes since midnight
+    public static synchronized int getBandStart(int minutes) {
+        return Math.floorDiv(minutes, bandMinutes) * bandMinutes;
+    }
+
+    // First departure minute no longer covered by the snapshot of the band starting at bandStart
+    public static synchronized int getBandEnd(int bandStart) {
+        return bandStart + bandMinutes + horizonMinutes;
+    }
+
+    // Snapshot covering a departure time, or null on a miss
+    public static synchronized TransitGraph getCachedGraph(int minutes) {
+        TransitGraph graph = snapshots.get(getBandStart(minutes));
+        if (graph == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return graph;
+    }
+
+    // Store the snapshot of the band starting at bandStart and evict least recently used snapshots over the limits.
+    // The newest snapshot is always kept, even if it alone exceeds the memory ceiling.
+    public static synchronized void cacheGraph(int bandStart, TransitGraph graph) {
+        TransitGraph previous = snapshots.put(bandStart, graph);
+        if (previous != null) {
+            memoryUsage -= previous.estimateMemoryBytes();
+        }
+        memoryUsage += graph.estimateMemoryBytes();
+
+        Iterator<Map.Entry<Integer, TransitGraph>> iterator = snapshots.entrySet().iterator();
+        while (snapshots.size() > 1 && (snapshots.size() > maxSnapshots || memoryUsage > memoryCeilingBytes)) {
+            Map.Entry<Integer, TransitGraph> eldest = iterator.next();
+            memoryUsage -= eldest.getValue().estimateMemoryBytes();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    // Cached band whose snapshot shares the most departures with the band starting at bandStart, or NO_BAND.
+    // Does not count as a hit or miss.
+    public static synchronized int findOverlappingBand(int bandStart) {
+        int bestBand = NO_BAND;
+        int bestOverlap = 0;
+        for (int cachedBand : snapshots.keySet()) {
+            int overlap = Math.min(getBandEnd(bandStart), getBandEnd(cachedBand)) - Math.max(bandStart, cachedBand);
+            if (overlap > bestOverlap) {
+                bestBand = cachedBand;
+                bestOverlap = overlap;
+            }
+        }
+        return bestBand;
+    }
+
+    // Snapshot of the band starting at bandStart without counting a hit or miss, or null
+    public static synchronized TransitGraph getSnapshot(int bandStart) {
+        return snapshots.get(bandStart);
+    }
+
+    public static synchronized boolean isGraphCached(int minutes) {
+        return snapshots.containsKey(getBandStart(minutes));
+    }
+
+    public static synchronized int getSnapshotCount() {
+        return snapshots.size();
+    }
+
+    public static synchronized long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    public static synchronized long getHitCount() {
+        return hits;
     }
 
-    public static void cacheGraph(DefaultDirectedWeightedGraph<String, CustomEdge> graph) {
-        cachedGraph = graph;
+    public static synchronized long getMissCount() {
+        return misses;
     }
 
-    public static boolean isGraphCached() {
-        return cachedGraph != null;
+    public static synchronized long getEvictionCount() {
+        return evictions;
     }
 
-    public static void clearCache() {
-        cachedGraph = null;
+    // Drop every snapshot and reset the counters
+    public static synchronized void clearCache() {
+        snapshots.clear();
+        memoryUsage = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
     }
 }
@@ -0,0 +1,163 @@
+package Algorithm.Dijkstra;
+
+import Algorithm.Distance.DistanceCalculator;
+
+import java.util.Arrays;
+
+// Raster isochrone of a travel time tree: a grid of square cells around the origin, each holding the fewest minutes
+// needed to get there by walking straight from the origin or from any reached stop. One tree serves every
+// threshold up to maxMinutes, so the 10, 20 and 30 minute areas come out of the same search.
+public class Isochrone {
+    public static final int UNREACHED = TravelTimeTree.UNREACHED;
+    // Must match the walking speed of DistanceCalculator.calculateWalkingTime
+    private static final double WALKING_KM_PER_MINUTE = 5.0 / 60.0;
+    private static final double KM_PER_DEGREE_LATITUDE = 111.32;
+    private static final int MAX_CELLS = 1 << 22;
+    private static final short NOT_REACHED = Short.MAX_VALUE;
+
+    private final double south;
+    private final double west;
+    private final double cellHeightDegrees;
+    private final double cellWidthDegrees;
+    private final int rows;
+    private final int columns;
+    private final short[] minutes;
+
+    private Isochrone(double south, double west, double cellHeightDegrees, double cellWidthDegrees, int rows, int columns) {
+        this.south = south;
+        this.west = west;
+        this.cellHeightDegrees = cellHeightDegrees;
+        this.cellWidthDegrees = cellWidthDegrees;
+        this.rows = rows;
+        this.columns = columns;
+        this.minutes = new short[rows * columns];
+        Arrays.fill(minutes, NOT_REACHED);
+    }
+
+    // Rasterize everything reachable within maxMinutes of the departure into cells of cellSizeKm
+    public static Isochrone build(TravelTimeTree tree, int maxMinutes, double cellSizeKm) {
+        if (maxMinutes < 0 || maxMinutes >= NOT_REACHED || cellSizeKm <= 0) {
+            throw new IllegalArgumentException("Invalid isochrone size: " + maxMinutes + " minutes, " + cellSizeKm + " km cells");
+        }
+        double originLatitude = tree.getOriginLatitude();
+        double originLongitude = tree.getOriginLongitude();
+
+        // Bounding box of the origin and the reached stops, widened by the longest possible walk
+        double minLatitude = originLatitude;
+        double maxLatitude = originLatitude;
+        double minLongitude = originLongitude;
+        double maxLongitude = originLongitude;
+        for (int stop = 0; stop < tree.getStopCount(); stop++) {
+            if (isStamped(tree, stop, maxMinutes)) {
+                minLatitude = Math.min(minLatitude, tree.getStopLatitude(stop));
+                maxLatitude = Math.max(maxLatitude, tree.getStopLatitude(stop));
+                minLongitude = Math.min(minLongitude, tree.getStopLongitude(stop));
+                maxLongitude = Math.max(maxLongitude, tree.getStopLongitude(stop));
+            }
+        }
+        double walkKm = maxMinutes * WALKING_KM_PER_MINUTE;
+        double cellHeightDegrees = cellSizeKm / KM_PER_DEGREE_LATITUDE;
+        double cellWidthDegrees = cellHeightDegrees / Math.cos(Math.toRadians(originLatitude));
+        double walkDegreesLatitude = walkKm / KM_PER_DEGREE_LATITUDE;
+        double walkDegreesLongitude = walkDegreesLatitude / Math.cos(Math.toRadians(originLatitude));
+        double south = minLatitude - walkDegreesLatitude;
+        double west = minLongitude - walkDegreesLongitude;
+        int rows = (int) Math.ceil((maxLatitude + walkDegreesLatitude - south) / cellHeightDegrees) + 1;
+        int columns = (int) Math.ceil((maxLongitude + walkDegreesLongitude - west) / cellWidthDegrees) + 1;
+        if ((long) rows * columns > MAX_CELLS) {
+            throw new IllegalArgumentException("Isochrone grid too large: " + rows + " x " + columns + " cells");
+        }
+
+        Isochrone isochrone = new Isochrone(south, west, cellHeightDegrees, cellWidthDegrees, rows, columns);
+        DistanceCalculator distanceCalculator = new DistanceCalculator();
+        isochrone.stamp(originLatitude, originLongitude, 0, maxMinutes, distanceCalculator);
+        for (int stop = 0; stop < tree.getStopCount(); stop++) {
+            if (isStamped(tree, stop, maxMinutes)) {
+                isochrone.stamp(tree.getStopLatitude(stop), tree.getStopLongitude(stop), tree.getTravelTime(stop), maxMinutes, distanceCalculator);
+            }
+        }
+        return isochrone;
+    }
+
+    private static boolean isStamped(TravelTimeTree tree, int stop, int maxMinutes) {
+        return tree.getTravelTime(stop) <= maxMinutes && !Double.isNaN(tree.getStopLatitude(stop)) && !Double.isNaN(tree.getStopLongitude(stop));
+    }
+
+    // Lower every cell within walking reach of a point, reached after startMinutes, to its walking arrival
+    private void stamp(double latitude, double longitude, int startMinutes, int maxMinutes, DistanceCalculator distanceCalculator) {
+        double walkKm = (maxMinutes - startMinutes) * WALKING_KM_PER_MINUTE;
+        int firstRow = Math.max(0, getRow(latitude - walkKm / KM_PER_DEGREE_LATITUDE));
+        int lastRow = Math.min(rows - 1, getRow(latitude + walkKm / KM_PER_DEGREE_LATITUDE));
+        double walkDegreesLongitude = walkKm / KM_PER_DEGREE_LATITUDE / Math.cos(Math.toRadians(latitude));
+        int firstColumn = Math.max(0, getColumn(longitude - walkDegreesLongitude));
+        int lastColumn = Math.min(columns - 1, getColumn(longitude + walkDegreesLongitude));
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            double cellLatitude = south + (row + 0.5) * cellHeightDegrees;
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                double cellLongitude = west + (column + 0.5) * cellWidthDegrees;
+                int arrival = startMinutes + distanceCalculator.calculateWalkingTime(
+                        distanceCalculator.calculateDistance(latitude, longitude, cellLatitude, cellLongitude));
+                int cell = row * columns + column;
+                if (arrival <= maxMinutes && arrival < minutes[cell]) {
+                    minutes[cell] = (short) arrival;
+                }
+            }
+        }
+    }
+
+    private int getRow(double latitude) {
+        return (int) Math.floor((latitude - south) / cellHeightDegrees);
+    }
+
+    private int getColumn(double longitude) {
+        return (int) Math.floor((longitude - west) / cellWidthDegrees);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public double getCellHeightDegrees() {
+        return cellHeightDegrees;
+    }
+
+    public double getCellWidthDegrees() {
+        return cellWidthDegrees;
+    }
+
+    // Minutes to reach the cell holding the given point, UNREACHED if it is outside the isochrone
+    public int getMinutes(double latitude, double longitude) {
+        int row = getRow(latitude);
+        int column = getColumn(longitude);
+        if (row < 0 || row >= rows || column < 0 || column >= columns || minutes[row * columns + column] == NOT_REACHED) {
+            return UNREACHED;
+        }
+        return minutes[row * columns + column];
+    }
+
+    // South-west corners of the cells reached in more than fromMinutes and at most toMinutes, as latitude,
+    // longitude pairs; consecutive thresholds give the rings of a banded isochrone
+    public double[] getCells(int fromMinutes, int toMinutes) {
+        int upper = Math.min(toMinutes, NOT_REACHED - 1);
+        int count = 0;
+        for (short cellMinutes : minutes) {
+            if (cellMinutes > fromMinutes && cellMinutes <= upper) {
+                count++;
+            }
+        }
+        double[] corners = new double[2 * count];
+        int index = 0;
+        for (int cell = 0; cell < minutes.length; cell++) {
+            if (minutes[cell] > fromMinutes && minutes[cell] <= upper) {
+                corners[index++] = south + (cell / columns) * cellHeightDegrees;
+                corners[index++] = west + (cell % columns) * cellWidthDegrees;
+            }
+        }
+        return corners;
+    }
+}
@@ -0,0 +1,75 @@
+package Algorithm.Dijkstra;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Result of a profile (range) query: every Pareto-optimal departure from the origin in a time window with its
+// arrival at the destination. No journey in the profile departs earlier and arrives later than another one.
+// All times are minutes since midnight.
+public class ProfileResult {
+    public static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final int[] departureTimes;
+    private final int[] arrivalTimes;
+    private final int directWalkMinutes;
+
+    // departureTimes must be strictly increasing and arrivalTimes strictly increasing with them;
+    // directWalkMinutes is the walk without any trip, UNREACHED if there is none
+    public ProfileResult(int[] departureTimes, int[] arrivalTimes, int directWalkMinutes) {
+        this.departureTimes = departureTimes;
+        this.arrivalTimes = arrivalTimes;
+        this.directWalkMinutes = directWalkMinutes;
+    }
+
+    public int size() {
+        return departureTimes.length;
+    }
+
+    public int getDepartureTime(int index) {
+        return departureTimes[index];
+    }
+
+    public int getArrivalTime(int index) {
+        return arrivalTimes[index];
+    }
+
+    public int getTravelTime(int index) {
+        return arrivalTimes[index] - departureTimes[index];
+    }
+
+    public int getDirectWalkMinutes() {
+        return directWalkMinutes;
+    }
+
+    // Earliest arrival when leaving the origin at the given time, UNREACHED if the destination cannot be reached
+    public int getEarliestArrival(int departureTime) {
+        int low = 0;
+        int high = departureTimes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departureTimes[mid] < departureTime) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int arrival = low < departureTimes.length ? arrivalTimes[low] : UNREACHED;
+        if (directWalkMinutes != UNREACHED) {
+            arrival = Math.min(arrival, departureTime + directWalkMinutes);
+        }
+        return arrival;
+    }
+
+    // "HH:mm -> HH:mm (n min)" for every optimal departure
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < departureTimes.length; i++) {
+            lines.add(formatTime(departureTimes[i]) + " -> " + formatTime(arrivalTimes[i]) + " (" + getTravelTime(i) + " min)");
+        }
+        return lines;
+    }
+
+    private static String formatTime(int minutes) {
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+}
@@ -0,0 +1,44 @@
+package Algorithm.Dijkstra;
+
+import java.util.Arrays;
+
+// Per-query access and egress edges of the origin and destination super nodes. The cached TransitGraph is never
+// modified, so any number of queries can search it at the same time, each with its own overlay.
+public class QueryOverlay {
+    private final float[] accessMinutes;
+    private final float[] egressMinutes;
+    private final double destinationLatitude;
+    private final double destinationLongitude;
+
+    // Walking minutes from the origin to every stop and from every stop to the destination, TransitGraph.NO_WALK
+    // where there is no such walk; the destination coordinates may be NaN if unknown
+    public QueryOverlay(float[] accessMinutes, float[] egressMinutes, double destinationLatitude, double destinationLongitude) {
+        this.accessMinutes = accessMinutes;
+        this.egressMinutes = egressMinutes;
+        this.destinationLatitude = destinationLatitude;
+        this.destinationLongitude = destinationLongitude;
+    }
+
+    // Overlay without any super node edges
+    public static QueryOverlay empty(int stopCount) {
+        float[] none = new float[stopCount];
+        Arrays.fill(none, TransitGraph.NO_WALK);
+        return new QueryOverlay(none, none, Double.NaN, Double.NaN);
+    }
+
+    public float getAccessMinutes(int stop) {
+        return accessMinutes[stop];
+    }
+
+    public float getEgressMinutes(int stop) {
+        return egressMinutes[stop];
+    }
+
+    public double getDestinationLatitude() {
+        return destinationLatitude;
+    }
+
+    public double getDestinationLongitude() {
+        return destinationLongitude;
+    }
+}
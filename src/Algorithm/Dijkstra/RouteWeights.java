@@ -1,68 +1,86 @@
 package Algorithm.Dijkstra;
 
 import java.sql.*;
-import java.util.*;
 import Data.DatabaseSingleton;
 
 public class RouteWeights {
-    public static List<Map<String, Object>> getRouteWeights(List<String> stopIds, String userTime) {
-        List<Map<String, Object>> results = new ArrayList<>();
+    // MySQL Connector/J only streams rows one by one for forward-only, read-only statements with this fetch size
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    public static final long UNKNOWN_CHECKSUM = 0;
+
+    // Checksum of the source tables, UNKNOWN_CHECKSUM until it has been computed
+    private static long sourceChecksum = UNKNOWN_CHECKSUM;
+
+    // Load every hop departing in [fromTime, toTime) with one streaming query, straight into primitive columns.
+    // Times are "HH:mm:ss" strings as stored in the view. Hops whose stops the builder does not know are skipped.
+    // A failed query throws instead of returning the rows read so far, so a truncated timetable is never cached.
+    public static EdgeBuffer loadConnections(TransitGraphBuilder builder, String fromTime, String toTime) {
+        EdgeBuffer buffer = new EdgeBuffer(64 * 1024);
         Connection connection = DatabaseSingleton.getConnection();
-        String placeholders = String.join(",", Collections.nCopies(stopIds.size(), "?"));
-        String query = "SELECT " +
-                       "start_stop_id, trip_id, start_departure_time, end_stop_id, end_arrival_time, travel_time " +
+        String query = "SELECT start_stop_id, trip_id, start_departure_time, end_stop_id, end_arrival_time " +
                        "FROM view_route_weights " +
-                       "WHERE start_stop_id IN (" + placeholders + ") AND start_departure_time > ? " +
-                       "ORDER BY start_departure_time";
-    
-        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            int index = 1;
-            for (String stopId : stopIds) {
-                preparedStatement.setString(index++, stopId);
+                       "WHERE start_departure_time >= ? AND start_departure_time < ?";
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            preparedStatement.setFetchSize(STREAMING_FETCH_SIZE);
+            preparedStatement.setString(1, fromTime);
+            preparedStatement.setString(2, toTime);
+
+            try (ResultSet rs = preparedStatement.executeQuery()) {
+                while (rs.next()) {
+                    int from = builder.getStopIndex(rs.getString(1));
+                    int to = builder.getStopIndex(rs.getString(4));
+                    if (from != -1 && to != -1) {
+                        buffer.add(from, to, convertTimeToMinutes(rs.getString(3)), convertTimeToMinutes(rs.getString(5)), rs.getInt(2));
+                    }
+                }
             }
-            preparedStatement.setString(index, userTime);
-    
-            ResultSet rs = preparedStatement.executeQuery();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not load the connections departing in [" + fromTime + ", " + toTime + ")", e);
+        }
+        return buffer;
+    }
+
+    // Combined checksum of the tables the transit graph is built from, used to detect stale on-disk snapshots.
+    // Returns UNKNOWN_CHECKSUM if a table could not be checksummed, in which case snapshots must not be trusted.
+    // CHECKSUM TABLE reads every row of stop_times, so it runs once per process and band misses reuse the result.
+    public static synchronized long getSourceChecksum() {
+        if (sourceChecksum == UNKNOWN_CHECKSUM) {
+            sourceChecksum = computeSourceChecksum();
+        }
+        return sourceChecksum;
+    }
+
+    private static long computeSourceChecksum() {
+        long checksum = 17;
+        Connection connection = DatabaseSingleton.getConnection();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("CHECKSUM TABLE stops, stop_times")) {
             while (rs.next()) {
-                Map<String, Object> row = new HashMap<>();
-                row.put("start_stop_id", rs.getString("start_stop_id"));
-                row.put("trip_id", rs.getInt("trip_id"));
-                row.put("start_departure_time", rs.getString("start_departure_time"));
-                row.put("end_stop_id", rs.getString("end_stop_id"));
-                row.put("end_arrival_time", rs.getString("end_arrival_time"));
-                row.put("travel_time", rs.getInt("travel_time") * 1.0); 
-                
-                // if there is a previous stop, calculate waiting time
-                if (!results.isEmpty()) {
-                    Map<String, Object> previousRow = results.get(results.size() - 1);
-                    String previousArrivalTime = (String) previousRow.get("end_arrival_time");
-                    String nextDepartureTime = (String) row.get("start_departure_time");
-                    double waitingTime = calculateWaitingTime(previousArrivalTime, nextDepartureTime);
-                    row.put("waiting_time", waitingTime);
-                    row.put("total_time", waitingTime + (double) row.get("travel_time"));
-                } else {
-                    row.put("waiting_time", 0.0);
-                    row.put("total_time", row.get("travel_time"));
+                long tableChecksum = rs.getLong(2);
+                if (rs.wasNull()) {
+                    return UNKNOWN_CHECKSUM;
                 }
-                
-                results.add(row);
+                checksum = 31 * checksum + tableChecksum;
             }
         } catch (SQLException e) {
             e.printStackTrace();
+            return UNKNOWN_CHECKSUM;
         }
-        return results;
-    }
-
-    public static double calculateWaitingTime(String previousArrivalTime, String nextDepartureTime) {
-        int previousArrivalMinutes = convertTimeToMinutes(previousArrivalTime);
-        int nextDepartureMinutes = convertTimeToMinutes(nextDepartureTime);
-        return nextDepartureMinutes - previousArrivalMinutes;
+        return checksum;
     }
 
+    // Parses "H:mm" or "HH:mm:ss" without splitting, as it runs for every streamed row
     private static int convertTimeToMinutes(String time) {
-        String[] parts = time.split(":");
-        int hours = Integer.parseInt(parts[0]);
-        int minutes = Integer.parseInt(parts[1]);
+        int colon = time.indexOf(':');
+        int hours = 0;
+        for (int i = 0; i < colon; i++) {
+            hours = hours * 10 + (time.charAt(i) - '0');
+        }
+        int minutes = 0;
+        for (int i = colon + 1; i < time.length() && time.charAt(i) != ':'; i++) {
+            minutes = minutes * 10 + (time.charAt(i) - '0');
+        }
         return hours * 60 + minutes;
     }
 }
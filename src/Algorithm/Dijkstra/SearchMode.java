@@ -0,0 +1,15 @@
+package Algorithm.Dijkstra;
+
+// How far CustomDijkstra searches for a query
+public enum SearchMode {
+    // Settle every reachable vertex
+    FULL,
+    // Stop as soon as the target vertex is settled
+    TARGET,
+    // Stop at the target and order the queue by arrival time plus the straight-line distance to the target
+    // divided by the fastest speed in the timetable
+    ASTAR,
+    // Time-dependent forward search from the start plus a backward search from the target over static lower bounds;
+    // once they meet, the forward search only enters vertices the backward search has settled
+    BIDIRECTIONAL
+}
@@ -0,0 +1,307 @@
+package Algorithm.Dijkstra;
+
+import Algorithm.Distance.DistanceCalculator;
+
+import java.util.Arrays;
+import java.util.Map;
+
+// Compressed-sparse-row timetable graph. Stops are dense ints, the outgoing edges of vertex v are
+// [offsets[v], offsets[v + 1]) and every edge has a static walking weight and/or a slice of the
+// departure-sorted schedule arrays. Two extra vertices after the stops are the origin and destination super nodes;
+// their edges live in a per-query QueryOverlay, so the graph itself is immutable and can be shared between threads.
+public class TransitGraph {
+    public static final int NO_CONNECTION = Integer.MAX_VALUE;
+    public static final float NO_WALK = Float.POSITIVE_INFINITY;
+    private static final double WALKING_SPEED_KM_PER_MINUTE = 5.0 / 60;
+
+    private final String[] stopIds;
+    private final Map<String, Integer> stopIndexById;
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final float[] weights;
+
+    // Schedule of edge e is [scheduleOffsets[e], scheduleOffsets[e + 1]), sorted by departure, with the arrival and
+    // trip of every connection as scheduled. Queries read the suffix minima instead, which keep the edges FIFO: the
+    // earliest arrival of a departure and all later ones, and the trip that achieves it.
+    private final int[] scheduleOffsets;
+    private final int[] departures;
+    private final int[] arrivals;
+    private final int[] tripIds;
+    private final int[] earliestArrivals;
+    private final int[] earliestTripIds;
+
+    // Reverse adjacency for backward searches: incoming edges of v are incomingEdges[incomingOffsets[v] .. incomingOffsets[v + 1])
+    private final int[] edgeSources;
+    private final int[] incomingOffsets;
+    private final int[] incomingEdges;
+    private final float[] minimumRideMinutes;
+
+    // Fastest stop-to-stop speed in km per minute, used to turn straight-line distances into time lower bounds
+    private final double maximumSpeed;
+
+    TransitGraph(String[] stopIds, Map<String, Integer> stopIndexById, double[] latitudes, double[] longitudes,
+                 int[] offsets, int[] targets, float[] weights,
+                 int[] scheduleOffsets, int[] departures, int[] arrivals, int[] tripIds) {
+        this.stopIds = stopIds;
+        this.stopIndexById = stopIndexById;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.scheduleOffsets = scheduleOffsets;
+        this.departures = departures;
+        this.arrivals = arrivals;
+        this.tripIds = tripIds;
+        this.earliestArrivals = arrivals.clone();
+        this.earliestTripIds = tripIds.clone();
+
+        int vertexCount = offsets.length - 1;
+        this.edgeSources = new int[targets.length];
+        this.incomingOffsets = new int[vertexCount + 1];
+        this.incomingEdges = new int[targets.length];
+        this.minimumRideMinutes = new float[targets.length];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                edgeSources[edge] = vertex;
+                incomingOffsets[targets[edge] + 1]++;
+                minimumRideMinutes[edge] = NO_WALK;
+                for (int i = scheduleOffsets[edge]; i < scheduleOffsets[edge + 1]; i++) {
+                    minimumRideMinutes[edge] = Math.min(minimumRideMinutes[edge], arrivals[i] - departures[i]);
+                }
+                for (int i = scheduleOffsets[edge + 1] - 2; i >= scheduleOffsets[edge]; i--) {
+                    if (earliestArrivals[i + 1] < earliestArrivals[i]) {
+                        earliestArrivals[i] = earliestArrivals[i + 1];
+                        earliestTripIds[i] = earliestTripIds[i + 1];
+                    }
+                }
+            }
+        }
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            incomingOffsets[vertex + 1] += incomingOffsets[vertex];
+        }
+        int[] next = Arrays.copyOf(incomingOffsets, vertexCount);
+        for (int edge = 0; edge < targets.length; edge++) {
+            incomingEdges[next[targets[edge]]++] = edge;
+        }
+        this.maximumSpeed = computeMaximumSpeed();
+    }
+
+    // Zero-minute hops come from timetables rounded to the minute and would make the speed unbounded, so they are skipped
+    private double computeMaximumSpeed() {
+        DistanceCalculator distanceCalculator = new DistanceCalculator();
+        double speed = WALKING_SPEED_KM_PER_MINUTE;
+        for (int stop = 0; stop < stopIds.length; stop++) {
+            if (Double.isNaN(latitudes[stop]) || Double.isNaN(longitudes[stop])) {
+                continue;
+            }
+            for (int edge = offsets[stop]; edge < offsets[stop + 1]; edge++) {
+                int target = targets[edge];
+                float minutes = getLowerBound(edge);
+                if (target >= stopIds.length || minutes < 1 || minutes == NO_WALK
+                        || Double.isNaN(latitudes[target]) || Double.isNaN(longitudes[target])) {
+                    continue;
+                }
+                double distance = distanceCalculator.calculateDistance(latitudes[stop], longitudes[stop], latitudes[target], longitudes[target]);
+                speed = Math.max(speed, distance / minutes);
+            }
+        }
+        return speed;
+    }
+
+    public int getStopCount() {
+        return stopIds.length;
+    }
+
+    public int getVertexCount() {
+        return offsets.length - 1;
+    }
+
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    public int getOriginVertex() {
+        return stopIds.length;
+    }
+
+    public int getDestinationVertex() {
+        return stopIds.length + 1;
+    }
+
+    public String getStopId(int stop) {
+        return stopIds[stop];
+    }
+
+    // Returns the dense index of a stop id, or -1 if the stop is unknown
+    public int getStopIndex(String stopId) {
+        Integer index = stopIndexById.get(stopId);
+        return index == null ? -1 : index;
+    }
+
+    public double getLatitude(int stop) {
+        return latitudes[stop];
+    }
+
+    public double getLongitude(int stop) {
+        return longitudes[stop];
+    }
+
+    // Fastest speed between two stops in km per minute, never below walking speed
+    public double getMaximumSpeed() {
+        return maximumSpeed;
+    }
+
+    public int getFirstEdge(int vertex) {
+        return offsets[vertex];
+    }
+
+    public int getLastEdge(int vertex) {
+        return offsets[vertex + 1];
+    }
+
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    public float getWeight(int edge) {
+        return weights[edge];
+    }
+
+    public int getSource(int edge) {
+        return edgeSources[edge];
+    }
+
+    public int getFirstIncoming(int vertex) {
+        return incomingOffsets[vertex];
+    }
+
+    public int getLastIncoming(int vertex) {
+        return incomingOffsets[vertex + 1];
+    }
+
+    public int getIncomingEdge(int index) {
+        return incomingEdges[index];
+    }
+
+    // Time-independent lower bound on the minutes needed to traverse the edge, NO_WALK if it can never be used.
+    // A departure can never be caught earlier than scheduled, so the shortest ride of the schedule is a valid bound.
+    public float getLowerBound(int edge) {
+        return Math.min(weights[edge], minimumRideMinutes[edge]);
+    }
+
+    // Returns the edge from one vertex to another, or -1 if there is none
+    public int findEdge(int from, int to) {
+        for (int edge = offsets[from]; edge < offsets[from + 1]; edge++) {
+            if (targets[edge] == to) {
+                return edge;
+            }
+        }
+        return -1;
+    }
+
+    public int getDepartureCount(int edge) {
+        return scheduleOffsets[edge + 1] - scheduleOffsets[edge];
+    }
+
+    // Earliest arrival at the edge target when standing at its source at the given time
+    public int getArrivalTime(int edge, int time) {
+        int walkingArrival = weights[edge] == NO_WALK ? NO_CONNECTION : time + (int) weights[edge];
+        int index = findNextDeparture(edge, time);
+        if (index < 0) {
+            return walkingArrival;
+        }
+        return Math.min(earliestArrivals[index], walkingArrival);
+    }
+
+    // Trip used to reach the edge target as early as possible from the given time, or DijkstraResult.WALKING_LEG
+    public int getTripId(int edge, int time) {
+        int index = findNextDeparture(edge, time);
+        if (index < 0) {
+            return DijkstraResult.WALKING_LEG;
+        }
+        if (weights[edge] != NO_WALK && time + (int) weights[edge] <= earliestArrivals[index]) {
+            return DijkstraResult.WALKING_LEG;
+        }
+        return earliestTripIds[index];
+    }
+
+    // Binary search for the first departure of the edge at or after time
+    private int findNextDeparture(int edge, int time) {
+        int low = scheduleOffsets[edge];
+        int high = scheduleOffsets[edge + 1];
+        int end = high;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < end ? low : -1;
+    }
+
+    // Approximate heap footprint of the primitive arrays, used by GraphCache for its memory ceiling
+    public long estimateMemoryBytes() {
+        long ints = (long) offsets.length + targets.length + scheduleOffsets.length + departures.length + 2L * arrivals.length
+                + 2L * tripIds.length + edgeSources.length + incomingOffsets.length + incomingEdges.length;
+        long floats = (long) weights.length + minimumRideMinutes.length;
+        long doubles = (long) latitudes.length + longitudes.length;
+        // Stop id strings and their map entries are estimated at 100 bytes per stop
+        return 4 * ints + 4 * floats + 8 * doubles + 100L * stopIds.length;
+    }
+
+    // Raw columns, read by TransitGraphSnapshot; the reverse index is derived again when a snapshot is loaded
+    String[] getStopIds() {
+        return stopIds;
+    }
+
+    double[] getLatitudes() {
+        return latitudes;
+    }
+
+    double[] getLongitudes() {
+        return longitudes;
+    }
+
+    int[] getOffsets() {
+        return offsets;
+    }
+
+    int[] getTargets() {
+        return targets;
+    }
+
+    float[] getWeights() {
+        return weights;
+    }
+
+    int[] getScheduleOffsets() {
+        return scheduleOffsets;
+    }
+
+    int[] getDepartures() {
+        return departures;
+    }
+
+    int[] getArrivals() {
+        return arrivals;
+    }
+
+    int[] getTripIds() {
+        return tripIds;
+    }
+
+    @Override
+    public String toString() {
+        return "TransitGraph{" +
+                "stops=" + stopIds.length +
+                ", edges=" + targets.length +
+                ", departures=" + departures.length +
+                '}';
+    }
+}
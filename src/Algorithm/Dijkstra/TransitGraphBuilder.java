@@ -0,0 +1,348 @@
+package Algorithm.Dijkstra;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Collects stops, scheduled connections and walking edges into primitive columns and packs them into a TransitGraph.
+// The builder itself is not thread-safe: loaders fill their own EdgeBuffer and hand it over with addConnections.
+// Connections are fully ordered on build, so the graph does not depend on the order in which they arrive.
+public class TransitGraphBuilder {
+    // Connections of one stop are sorted on a packed (target, departure, local index) key
+    private static final int TARGET_SHIFT = 40;
+    private static final int DEPARTURE_SHIFT = 24;
+    private static final int MAX_LOCAL_CONNECTIONS = 1 << DEPARTURE_SHIFT;
+    // Packing one stop is cheap, so parallel builds hand out slices of stops rather than single stops
+    private static final int STOPS_PER_TASK = 64;
+
+    private final Map<String, Integer> stopIndexById = new HashMap<>();
+    private String[] stopIds = new String[64];
+    private double[] latitudes = new double[64];
+    private double[] longitudes = new double[64];
+    private int stopCount;
+
+    private final EdgeBuffer connections = new EdgeBuffer();
+
+    private int[] walkSources = new int[1024];
+    private int[] walkTargets = new int[1024];
+    private float[] walkMinutes = new float[1024];
+    private int walkCount;
+
+    // Add a stop and return its dense index; coordinates may be NaN when unknown
+    public int addStop(String stopId, double latitude, double longitude) {
+        Integer existing = stopIndexById.get(stopId);
+        if (existing != null) {
+            return existing;
+        }
+        if (stopCount == stopIds.length) {
+            stopIds = Arrays.copyOf(stopIds, stopCount * 2);
+            latitudes = Arrays.copyOf(latitudes, stopCount * 2);
+            longitudes = Arrays.copyOf(longitudes, stopCount * 2);
+        }
+        stopIds[stopCount] = stopId;
+        latitudes[stopCount] = latitude;
+        longitudes[stopCount] = longitude;
+        stopIndexById.put(stopId, stopCount);
+        return stopCount++;
+    }
+
+    // Returns the dense index of a stop id, or -1 if the stop is unknown
+    public int getStopIndex(String stopId) {
+        Integer index = stopIndexById.get(stopId);
+        return index == null ? -1 : index;
+    }
+
+    public int getStopCount() {
+        return stopCount;
+    }
+
+    public double getLatitude(int stop) {
+        return latitudes[stop];
+    }
+
+    public double getLongitude(int stop) {
+        return longitudes[stop];
+    }
+
+    // Add one scheduled hop between two consecutive stops of a trip
+    public void addConnection(int fromStop, int toStop, int departure, int arrival, int tripId) {
+        connections.add(fromStop, toStop, departure, arrival, tripId);
+    }
+
+    // Append the connections collected by one loader worker
+    public void addConnections(EdgeBuffer buffer) {
+        connections.addAll(buffer);
+    }
+
+    // Add a walking alternative between two stops; for repeated pairs the shortest walk is kept
+    public void addWalkingEdge(int fromStop, int toStop, float minutes) {
+        if (walkCount == walkSources.length) {
+            int capacity = walkCount * 2;
+            walkSources = Arrays.copyOf(walkSources, capacity);
+            walkTargets = Arrays.copyOf(walkTargets, capacity);
+            walkMinutes = Arrays.copyOf(walkMinutes, capacity);
+        }
+        walkSources[walkCount] = fromStop;
+        walkTargets[walkCount] = toStop;
+        walkMinutes[walkCount] = minutes;
+        walkCount++;
+    }
+
+    // Carry over the stops, walking edges and the connections departing in [fromMinutes, toMinutes) of a graph built
+    // for an overlapping window, so sliding the window only loads the departures the old graph did not cover.
+    // The connections are copied as scheduled, so the FIFO minima are derived again over the kept departures only.
+    public void addGraph(TransitGraph graph, int fromMinutes, int toMinutes) {
+        int[] stops = new int[graph.getStopCount()];
+        for (int stop = 0; stop < stops.length; stop++) {
+            stops[stop] = addStop(graph.getStopId(stop), graph.getLatitude(stop), graph.getLongitude(stop));
+        }
+        int[] scheduleOffsets = graph.getScheduleOffsets();
+        int[] departures = graph.getDepartures();
+        int[] arrivals = graph.getArrivals();
+        int[] tripIds = graph.getTripIds();
+        for (int stop = 0; stop < stops.length; stop++) {
+            for (int edge = graph.getFirstEdge(stop); edge < graph.getLastEdge(stop); edge++) {
+                int target = stops[graph.getTarget(edge)];
+                if (graph.getWeight(edge) != TransitGraph.NO_WALK) {
+                    addWalkingEdge(stops[stop], target, graph.getWeight(edge));
+                }
+                for (int i = scheduleOffsets[edge]; i < scheduleOffsets[edge + 1]; i++) {
+                    if (departures[i] >= fromMinutes && departures[i] < toMinutes) {
+                        connections.add(stops[stop], target, departures[i], arrivals[i], tripIds[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    // Pack everything into CSR arrays. Every stop pair becomes one edge holding its walking time and its
+    // departure-sorted schedule. The origin and destination super nodes get no edges; queries supply them.
+    public TransitGraph build() {
+        StopEdges[] edges = new StopEdges[stopCount];
+        Grouping grouping = new Grouping();
+        for (int stop = 0; stop < stopCount; stop++) {
+            edges[stop] = packStop(stop, grouping);
+        }
+        return assemble(edges);
+    }
+
+    // Same graph as build(), but the stops are sorted and packed in parallel on the pool. Every stop writes only
+    // its own slot and the slots are concatenated in stop order, so the result does not depend on scheduling.
+    public TransitGraph build(ForkJoinPool pool) {
+        StopEdges[] edges = new StopEdges[stopCount];
+        pool.invoke(new StopRange(this, new Grouping(), edges, 0, stopCount));
+        return assemble(edges);
+    }
+
+    // Connections and walking edges grouped by source stop, shared read-only by the packing tasks
+    private class Grouping {
+        final int[] connectionOrder = groupBySource(connections.getSources(), connections.size());
+        final int[] connectionStarts = countBySource(connections.getSources(), connections.size());
+        final int[] walkOrder = groupBySource(walkSources, walkCount);
+        final int[] walkStarts = countBySource(walkSources, walkCount);
+    }
+
+    // The edges of one source stop, sorted by target, with their schedules laid out edge after edge
+    private static class StopEdges {
+        final int[] targets;
+        final float[] weights;
+        final int[] scheduleCounts;
+        final int[] departures;
+        final int[] arrivals;
+        final int[] tripIds;
+        int edgeCount;
+
+        StopEdges(int edgeCapacity, int connectionCount) {
+            targets = new int[edgeCapacity];
+            weights = new float[edgeCapacity];
+            scheduleCounts = new int[edgeCapacity];
+            departures = new int[connectionCount];
+            arrivals = new int[connectionCount];
+            tripIds = new int[connectionCount];
+        }
+    }
+
+    private StopEdges packStop(int stop, Grouping grouping) {
+        int connectionStart = grouping.connectionStarts[stop];
+        long[] keys = sortConnectionKeys(grouping.connectionOrder, connectionStart, grouping.connectionStarts[stop + 1]);
+        int[] walks = sortWalks(grouping.walkOrder, grouping.walkStarts[stop], grouping.walkStarts[stop + 1]);
+        StopEdges edges = new StopEdges(keys.length + walks.length, keys.length);
+
+        int edgeCount = 0;
+        int c = 0;
+        int w = 0;
+        while (c < keys.length || w < walks.length) {
+            int connectionTarget = c < keys.length ? (int) (keys[c] >>> TARGET_SHIFT) : Integer.MAX_VALUE;
+            int walkTarget = w < walks.length ? walkTargets[walks[w]] : Integer.MAX_VALUE;
+            int target = Math.min(connectionTarget, walkTarget);
+
+            edges.targets[edgeCount] = target;
+            edges.weights[edgeCount] = TransitGraph.NO_WALK;
+            while (w < walks.length && walkTargets[walks[w]] == target) {
+                edges.weights[edgeCount] = Math.min(edges.weights[edgeCount], walkMinutes[walks[w]]);
+                w++;
+            }
+
+            int scheduleStart = c;
+            while (c < keys.length && (int) (keys[c] >>> TARGET_SHIFT) == target) {
+                int connection = grouping.connectionOrder[connectionStart + (int) (keys[c] & (MAX_LOCAL_CONNECTIONS - 1))];
+                edges.departures[c] = connections.getDeparture(connection);
+                edges.arrivals[c] = connections.getArrival(connection);
+                edges.tripIds[c] = connections.getTripId(connection);
+                c++;
+            }
+            sortTies(edges.departures, edges.arrivals, edges.tripIds, scheduleStart, c);
+            edges.scheduleCounts[edgeCount] = c - scheduleStart;
+            edgeCount++;
+        }
+        edges.edgeCount = edgeCount;
+        return edges;
+    }
+
+    // Concatenate the packed stops in stop order
+    private TransitGraph assemble(StopEdges[] stops) {
+        int originVertex = stopCount;
+        int destinationVertex = stopCount + 1;
+        int edgeCount = 0;
+        for (StopEdges edges : stops) {
+            edgeCount += edges.edgeCount;
+        }
+        int connectionCount = connections.size();
+        int[] offsets = new int[stopCount + 3];
+        int[] targets = new int[edgeCount];
+        float[] weights = new float[edgeCount];
+        int[] scheduleOffsets = new int[edgeCount + 1];
+        int[] departures = new int[connectionCount];
+        int[] arrivals = new int[connectionCount];
+        int[] tripIds = new int[connectionCount];
+
+        int edge = 0;
+        int scheduleCount = 0;
+        for (int stop = 0; stop < stopCount; stop++) {
+            StopEdges edges = stops[stop];
+            offsets[stop] = edge;
+            System.arraycopy(edges.targets, 0, targets, edge, edges.edgeCount);
+            System.arraycopy(edges.weights, 0, weights, edge, edges.edgeCount);
+            System.arraycopy(edges.departures, 0, departures, scheduleCount, edges.departures.length);
+            System.arraycopy(edges.arrivals, 0, arrivals, scheduleCount, edges.arrivals.length);
+            System.arraycopy(edges.tripIds, 0, tripIds, scheduleCount, edges.tripIds.length);
+            for (int i = 0; i < edges.edgeCount; i++) {
+                scheduleOffsets[edge++] = scheduleCount;
+                scheduleCount += edges.scheduleCounts[i];
+            }
+        }
+
+        offsets[originVertex] = edge;
+        offsets[destinationVertex] = edge;
+        offsets[destinationVertex + 1] = edge;
+        scheduleOffsets[edge] = scheduleCount;
+
+        return new TransitGraph(Arrays.copyOf(stopIds, stopCount), new HashMap<>(stopIndexById),
+                Arrays.copyOf(latitudes, stopCount), Arrays.copyOf(longitudes, stopCount),
+                offsets, targets, weights, scheduleOffsets, departures, arrivals, tripIds);
+    }
+
+    // Splits the stops in halves until a slice of at most STOPS_PER_TASK is left, which is packed on one worker
+    private static class StopRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final TransitGraphBuilder builder;
+        private final Grouping grouping;
+        private final StopEdges[] edges;
+        private final int from;
+        private final int to;
+
+        StopRange(TransitGraphBuilder builder, Grouping grouping, StopEdges[] edges, int from, int to) {
+            this.builder = builder;
+            this.grouping = grouping;
+            this.edges = edges;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > STOPS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new StopRange(builder, grouping, edges, from, mid),
+                        new StopRange(builder, grouping, edges, mid, to));
+            } else {
+                for (int stop = from; stop < to; stop++) {
+                    edges[stop] = builder.packStop(stop, grouping);
+                }
+            }
+        }
+    }
+    // Order equal departures by arrival and trip id, so the graph does not depend on the order connections were added.
+    // The slice is already sorted by departure, which keeps this insertion sort linear in practice.
+    private static void sortTies(int[] departures, int[] arrivals, int[] tripIds, int start, int end) {
+        for (int i = start + 1; i < end; i++) {
+            int departure = departures[i];
+            int arrival = arrivals[i];
+            int tripId = tripIds[i];
+            int j = i - 1;
+            while (j >= start && departures[j] == departure
+                    && (arrivals[j] > arrival || (arrivals[j] == arrival && tripIds[j] > tripId))) {
+                arrivals[j + 1] = arrivals[j];
+                tripIds[j + 1] = tripIds[j];
+                j--;
+            }
+            arrivals[j + 1] = arrival;
+            tripIds[j + 1] = tripId;
+        }
+    }
+
+    // Prefix sums of the number of entries per source stop
+    private int[] countBySource(int[] sources, int count) {
+        int[] starts = new int[stopCount + 1];
+        for (int i = 0; i < count; i++) {
+            starts[sources[i] + 1]++;
+        }
+        for (int stop = 0; stop < stopCount; stop++) {
+            starts[stop + 1] += starts[stop];
+        }
+        return starts;
+    }
+
+    // Counting sort of entry indices by source stop
+    private int[] groupBySource(int[] sources, int count) {
+        int[] next = countBySource(sources, count);
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[next[sources[i]]++] = i;
+        }
+        return order;
+    }
+
+    // Sort the connections of one source stop by target and departure
+    private long[] sortConnectionKeys(int[] order, int start, int end) {
+        if (end - start > MAX_LOCAL_CONNECTIONS) {
+            throw new IllegalStateException("Too many connections from stop " + stopIds[connections.getSource(order[start])]);
+        }
+        long[] keys = new long[end - start];
+        for (int i = start; i < end; i++) {
+            int connection = order[i];
+            keys[i - start] = ((long) connections.getTarget(connection) << TARGET_SHIFT)
+                    | ((long) connections.getDeparture(connection) << DEPARTURE_SHIFT)
+                    | (i - start);
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    // Sort the walking edges of one source stop by target
+    private int[] sortWalks(int[] order, int start, int end) {
+        long[] keys = new long[end - start];
+        for (int i = start; i < end; i++) {
+            keys[i - start] = ((long) walkTargets[order[i]] << 32) | order[i];
+        }
+        Arrays.sort(keys);
+        int[] walks = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            walks[i] = (int) keys[i];
+        }
+        return walks;
+    }
+}
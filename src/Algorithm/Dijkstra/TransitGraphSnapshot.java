@@ -0,0 +1,97 @@
+package Algorithm.Dijkstra;
+
+import Algorithm.Snapshot.SnapshotFormat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import static Algorithm.Snapshot.SnapshotFormat.*;
+
+// Binary on-disk copy of a TransitGraph, so a cold start can read the timetable from disk instead of rebuilding it
+// from MySQL. The file is mapped and its columns are copied into the heap arrays of a new graph in one bulk pass
+// each; the graph does not stay backed by the file. The checksum in the header covers the source tables. Payload:
+// the departure window and counts, stop ids, coordinates, then the CSR and schedule columns.
+public class TransitGraphSnapshot {
+    public static final Path DEFAULT_DIRECTORY = Paths.get("snapshots");
+    // Bump the version whenever the payload layout changes
+    private static final SnapshotFormat FORMAT = new SnapshotFormat(0x54475348, 2, "transit graph");
+
+    // File holding the snapshot of the departure window [fromMinutes, toMinutes)
+    public static Path getSnapshotFile(Path directory, int fromMinutes, int toMinutes) {
+        return directory.resolve("transit-" + fromMinutes + "-" + toMinutes + ".bin");
+    }
+
+    // Returns false if the snapshot could not be written; the graph itself stays usable
+    public static boolean write(TransitGraph graph, Path file, long sourceChecksum, int fromMinutes, int toMinutes) {
+        byte[][] stopIds = new byte[graph.getStopCount()][];
+        long size = 5 * 4;
+        for (int stop = 0; stop < stopIds.length; stop++) {
+            stopIds[stop] = graph.getStopIds()[stop].getBytes(StandardCharsets.UTF_8);
+            size += 4 + stopIds[stop].length;
+        }
+        size += 8L * (graph.getLatitudes().length + graph.getLongitudes().length);
+        size += 4L * (graph.getOffsets().length + graph.getTargets().length + graph.getWeights().length
+                + graph.getScheduleOffsets().length + graph.getDepartures().length + graph.getArrivals().length
+                + graph.getTripIds().length);
+        ByteBuffer buffer = FORMAT.allocate(size, sourceChecksum);
+        if (buffer == null) {
+            return false;
+        }
+
+        buffer.putInt(fromMinutes);
+        buffer.putInt(toMinutes);
+        buffer.putInt(stopIds.length);
+        buffer.putInt(graph.getEdgeCount());
+        buffer.putInt(graph.getDepartures().length);
+        for (byte[] stopId : stopIds) {
+            buffer.putInt(stopId.length);
+            buffer.put(stopId);
+        }
+        putDoubles(buffer, graph.getLatitudes());
+        putDoubles(buffer, graph.getLongitudes());
+        putInts(buffer, graph.getOffsets());
+        putInts(buffer, graph.getTargets());
+        putFloats(buffer, graph.getWeights());
+        putInts(buffer, graph.getScheduleOffsets());
+        putInts(buffer, graph.getDepartures());
+        putInts(buffer, graph.getArrivals());
+        putInts(buffer, graph.getTripIds());
+        return FORMAT.write(buffer, file);
+    }
+
+    // Returns null if the snapshot is missing, stale, built for another departure window or corrupt
+    public static TransitGraph read(Path file, long sourceChecksum, int fromMinutes, int toMinutes) {
+        return FORMAT.read(file, sourceChecksum, buffer -> {
+            if (buffer.getInt() != fromMinutes || buffer.getInt() != toMinutes) {
+                return null;
+            }
+            int stopCount = buffer.getInt();
+            int edgeCount = buffer.getInt();
+            int connectionCount = buffer.getInt();
+
+            String[] stopIds = new String[stopCount];
+            Map<String, Integer> stopIndexById = new HashMap<>(stopCount * 2);
+            for (int stop = 0; stop < stopCount; stop++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                stopIds[stop] = new String(bytes, StandardCharsets.UTF_8);
+                stopIndexById.put(stopIds[stop], stop);
+            }
+            double[] latitudes = getDoubles(buffer, stopCount);
+            double[] longitudes = getDoubles(buffer, stopCount);
+            int[] offsets = getInts(buffer, stopCount + 3);
+            int[] targets = getInts(buffer, edgeCount);
+            float[] weights = getFloats(buffer, edgeCount);
+            int[] scheduleOffsets = getInts(buffer, edgeCount + 1);
+            int[] departures = getInts(buffer, connectionCount);
+            int[] arrivals = getInts(buffer, connectionCount);
+            int[] tripIds = getInts(buffer, connectionCount);
+            return new TransitGraph(stopIds, stopIndexById, latitudes, longitudes, offsets, targets, weights,
+                    scheduleOffsets, departures, arrivals, tripIds);
+        });
+    }
+}
@@ -0,0 +1,124 @@
+package Algorithm.Dijkstra;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Travel minutes between every origin and every destination at one departure time, stored row by row in a short[].
+// Each origin takes one one-to-all search over the shared, immutable graph, and the origins are searched in
+// parallel on a fork/join pool; a destination is then reached from whichever stop gives the earliest arrival.
+public class TravelTimeMatrix {
+    public static final int UNREACHED = TravelTimeTree.UNREACHED;
+    private static final short NOT_REACHED = Short.MAX_VALUE;
+
+    private final int originCount;
+    private final int destinationCount;
+    private final short[] minutes;
+
+    private TravelTimeMatrix(int originCount, int destinationCount) {
+        this.originCount = originCount;
+        this.destinationCount = destinationCount;
+        this.minutes = new short[originCount * destinationCount];
+    }
+
+    // accessMinutes[o] holds the walking minutes from origin o to every stop, egressMinutes[d] those from every stop
+    // to destination d, TransitGraph.NO_WALK where there is no such walk
+    public static TravelTimeMatrix compute(TransitGraph graph, float[][] accessMinutes, float[][] egressMinutes, String time, ForkJoinPool pool) {
+        int stopCount = graph.getStopCount();
+        int destinationCount = egressMinutes.length;
+        // Stop-major, so combining one stop with every destination reads consecutive values
+        float[] egressByStop = new float[stopCount * destinationCount];
+        for (int destination = 0; destination < destinationCount; destination++) {
+            for (int stop = 0; stop < stopCount; stop++) {
+                egressByStop[stop * destinationCount + destination] = egressMinutes[destination][stop];
+            }
+        }
+        float[] noEgress = new float[stopCount];
+        Arrays.fill(noEgress, TransitGraph.NO_WALK);
+
+        TravelTimeMatrix matrix = new TravelTimeMatrix(accessMinutes.length, destinationCount);
+        pool.invoke(new OriginRange(matrix, graph, accessMinutes, noEgress, egressByStop, time, 0, accessMinutes.length));
+        return matrix;
+    }
+
+    // Splits the origins in halves until a single origin is left, which is searched on the worker that holds it
+    private static class OriginRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final TravelTimeMatrix matrix;
+        private final TransitGraph graph;
+        private final float[][] accessMinutes;
+        private final float[] noEgress;
+        private final float[] egressByStop;
+        private final String time;
+        private final int from;
+        private final int to;
+
+        OriginRange(TravelTimeMatrix matrix, TransitGraph graph, float[][] accessMinutes, float[] noEgress, float[] egressByStop, String time, int from, int to) {
+            this.matrix = matrix;
+            this.graph = graph;
+            this.accessMinutes = accessMinutes;
+            this.noEgress = noEgress;
+            this.egressByStop = egressByStop;
+            this.time = time;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new OriginRange(matrix, graph, accessMinutes, noEgress, egressByStop, time, from, mid),
+                        new OriginRange(matrix, graph, accessMinutes, noEgress, egressByStop, time, mid, to));
+            } else if (to - from == 1) {
+                QueryOverlay overlay = new QueryOverlay(accessMinutes[from], noEgress, Double.NaN, Double.NaN);
+                CustomDijkstra dijkstra = new CustomDijkstra(graph, overlay);
+                int departure = CustomDijkstra.convertTimeToMinutes(time);
+                matrix.fillRow(from, dijkstra.computeArrivalTimes(graph.getOriginVertex(), time), departure, egressByStop);
+            }
+        }
+    }
+
+    // Earliest arrival at each destination over every reached stop and its egress walk
+    private void fillRow(int origin, int[] arrivalTimes, int departure, float[] egressByStop) {
+        int[] best = new int[destinationCount];
+        Arrays.fill(best, UNREACHED);
+        for (int stop = 0; stop < arrivalTimes.length; stop++) {
+            if (arrivalTimes[stop] == UNREACHED) {
+                continue;
+            }
+            int base = stop * destinationCount;
+            for (int destination = 0; destination < destinationCount; destination++) {
+                float egress = egressByStop[base + destination];
+                if (egress != TransitGraph.NO_WALK) {
+                    best[destination] = Math.min(best[destination], arrivalTimes[stop] + (int) egress);
+                }
+            }
+        }
+        int row = origin * destinationCount;
+        for (int destination = 0; destination < destinationCount; destination++) {
+            int travelTime = best[destination] == UNREACHED ? NOT_REACHED : best[destination] - departure;
+            minutes[row + destination] = (short) Math.min(travelTime, NOT_REACHED);
+        }
+    }
+
+    public int getOriginCount() {
+        return originCount;
+    }
+
+    public int getDestinationCount() {
+        return destinationCount;
+    }
+
+    // Minutes from the origin to the destination, UNREACHED if there is no journey
+    public int getTravelTime(int origin, int destination) {
+        short value = minutes[origin * destinationCount + destination];
+        return value == NOT_REACHED ? UNREACHED : value;
+    }
+
+    // The matrix itself, row by row with Short.MAX_VALUE for unreached pairs; not copied, so callers must not modify it
+    public short[] getMinutes() {
+        return minutes;
+    }
+}
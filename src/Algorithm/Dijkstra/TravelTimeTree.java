@@ -0,0 +1,64 @@
+package Algorithm.Dijkstra;
+
+// Earliest arrival at every stop from one origin and departure time, the result of a single one-to-all search.
+// Times are minutes since midnight; stops that cannot be reached hold UNREACHED.
+public class TravelTimeTree {
+    public static final int UNREACHED = TransitGraph.NO_CONNECTION;
+
+    private final TransitGraph graph;
+    private final double originLatitude;
+    private final double originLongitude;
+    private final int departureTime;
+    private final int[] arrivalTimes;
+
+    // arrivalTimes is indexed by the stop indices of graph
+    public TravelTimeTree(TransitGraph graph, double originLatitude, double originLongitude, int departureTime, int[] arrivalTimes) {
+        this.graph = graph;
+        this.originLatitude = originLatitude;
+        this.originLongitude = originLongitude;
+        this.departureTime = departureTime;
+        this.arrivalTimes = arrivalTimes;
+    }
+
+    public int getStopCount() {
+        return arrivalTimes.length;
+    }
+
+    public String getStopId(int stop) {
+        return graph.getStopId(stop);
+    }
+
+    public double getStopLatitude(int stop) {
+        return graph.getLatitude(stop);
+    }
+
+    public double getStopLongitude(int stop) {
+        return graph.getLongitude(stop);
+    }
+
+    public double getOriginLatitude() {
+        return originLatitude;
+    }
+
+    public double getOriginLongitude() {
+        return originLongitude;
+    }
+
+    public int getDepartureTime() {
+        return departureTime;
+    }
+
+    public int getArrivalTime(int stop) {
+        return arrivalTimes[stop];
+    }
+
+    // Minutes from the departure to the stop, UNREACHED if it cannot be reached
+    public int getTravelTime(int stop) {
+        return arrivalTimes[stop] == UNREACHED ? UNREACHED : arrivalTimes[stop] - departureTime;
+    }
+
+    // The arrival times themselves, indexed by stop; not copied, so callers must not modify them
+    public int[] getArrivalTimes() {
+        return arrivalTimes;
+    }
+}
@@ -0,0 +1,121 @@
+package Algorithm.Distance;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded, thread-safe map from long keys to float values, used to memoize walking distances between node pairs.
+// The table is split into sets of WAYS entries; a key can only live in the set its hash selects, and a full set
+// evicts its least recently used entry. Sets are guarded by a fixed number of lock stripes, so lookups of
+// different keys rarely contend. Keys must not be negative.
+public class DistanceCache {
+    private static final int WAYS = 4;
+    private static final int STRIPES = 64;
+    private static final long EMPTY = -1;
+
+    private final long[] keys;
+    private final float[] values;
+    private final int setMask;
+    private final Object[] locks = new Object[STRIPES];
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    // Holds at least capacity entries; the number of sets is rounded up to a power of two
+    public DistanceCache(int capacity) {
+        int sets = 1;
+        while (sets * WAYS < capacity) {
+            sets <<= 1;
+        }
+        this.keys = new long[sets * WAYS];
+        this.values = new float[sets * WAYS];
+        this.setMask = sets - 1;
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // Value of the key, or NaN if it is not cached; a hit makes the entry the most recently used of its set
+    public float get(long key) {
+        int set = getSet(key);
+        int base = set * WAYS;
+        synchronized (locks[set & (STRIPES - 1)]) {
+            for (int way = 0; way < WAYS; way++) {
+                if (keys[base + way] == key) {
+                    float value = values[base + way];
+                    moveToFront(base, way, key, value);
+                    hitCount.increment();
+                    return value;
+                }
+            }
+        }
+        missCount.increment();
+        return Float.NaN;
+    }
+
+    // Store the value as the most recently used entry of its set, evicting the least recently used one if needed
+    public void put(long key, float value) {
+        int set = getSet(key);
+        int base = set * WAYS;
+        synchronized (locks[set & (STRIPES - 1)]) {
+            int way = 0;
+            while (way < WAYS - 1 && keys[base + way] != key && keys[base + way] != EMPTY) {
+                way++;
+            }
+            if (keys[base + way] != key && keys[base + way] != EMPTY) {
+                evictionCount.increment();
+            }
+            moveToFront(base, way, key, value);
+        }
+    }
+
+    // Shift the entries before way one slot back and put the key in front
+    private void moveToFront(int base, int way, long key, float value) {
+        for (int i = way; i > 0; i--) {
+            keys[base + i] = keys[base + i - 1];
+            values[base + i] = values[base + i - 1];
+        }
+        keys[base] = key;
+        values[base] = value;
+    }
+
+    private int getSet(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & setMask;
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    // Share of lookups answered from the cache, 0 before the first lookup
+    public double getHitRate() {
+        long hits = hitCount.sum();
+        long lookups = hits + missCount.sum();
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    public void clear() {
+        for (int set = 0; set <= setMask; set++) {
+            synchronized (locks[set & (STRIPES - 1)]) {
+                Arrays.fill(keys, set * WAYS, set * WAYS + WAYS, EMPTY);
+            }
+        }
+        hitCount.reset();
+        missCount.reset();
+        evictionCount.reset();
+    }
+}
@@ -1,14 +1,13 @@
 package Algorithm.Distance;
 
-import Algorithm.OSM.Coordinate;
-import Algorithm.OSM.Dijkstra;
-import Algorithm.OSM.Graph;
 import Algorithm.OSM.OsmParser;
 public class DistanceCalculatorOSM {
-    private Graph graph;
+    private final WalkingDistanceOracle oracle;
 
+    // The walking graph, its contraction hierarchy and the distance cache are shared by every calculator, so
+    // only the first one waits for them; a repeated distance afterwards is a cache probe
     public DistanceCalculatorOSM(OsmParser osmParser) {
-        this.graph = osmParser.createGraph();
+        this.oracle = osmParser.getWalkingDistanceOracle();
     }
 
     /*
@@ -20,17 +19,7 @@ public class DistanceCalculatorOSM {
     @return Distance between the two points in kilometers
     */
     public double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        Coordinate source = new Coordinate(lat1, lon1);
-        Coordinate target = new Coordinate(lat2, lon2);
-        
-        // Use the graph to find the shortest path distance
-        return findShortestPathDistance(source, target);
-    }
-
-    private double findShortestPathDistance(Coordinate source, Coordinate target) {
-        // Implement Dijkstra's algorithm or any shortest path algorithm here
-        Dijkstra dijkstra = new Dijkstra(graph);
-        return dijkstra.findShortestDistance(source, target);
+        return oracle.calculateDistance(lat1, lon1, lat2, lon2);
     }
 
     public int calculateWalkingTime(double distanceKm) {
@@ -0,0 +1,191 @@
+package Algorithm.Distance;
+
+import java.util.Arrays;
+
+// Uniform latitude/longitude grid over a fixed set of points for radius and nearest-point queries. Points are
+// bucketed into cells of roughly cellSizeKm and a query only visits the cells overlapping its radius, so finding all
+// pairs within walking distance is near-linear instead of quadratic. Points with NaN coordinates are left out.
+public class GridIndex {
+    private static final double KM_PER_DEGREE = 6371.0 * Math.PI / 180;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final DistanceCalculator distanceCalculator = new DistanceCalculator();
+
+    private final double minLatitude;
+    private final double minLongitude;
+    private final double cellLatitude;
+    private final double cellLongitude;
+    private final double furthestLatitude;
+    private final int rows;
+    private final int columns;
+
+    // Points of cell c are cellPoints[cellOffsets[c] .. cellOffsets[c + 1])
+    private final int[] cellOffsets;
+    private final int[] cellPoints;
+
+    // Callback for every point found within the radius of a query
+    public interface PointVisitor {
+        void visit(int point, double distanceKm);
+    }
+
+    // Constructor; the arrays are not copied and must not change afterwards
+    public GridIndex(double[] latitudes, double[] longitudes, double cellSizeKm) {
+        if (cellSizeKm <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSizeKm);
+        }
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+
+        double minLat = Double.MAX_VALUE;
+        double maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE;
+        double maxLon = -Double.MAX_VALUE;
+        for (int point = 0; point < latitudes.length; point++) {
+            if (isIndexed(point)) {
+                minLat = Math.min(minLat, latitudes[point]);
+                maxLat = Math.max(maxLat, latitudes[point]);
+                minLon = Math.min(minLon, longitudes[point]);
+                maxLon = Math.max(maxLon, longitudes[point]);
+            }
+        }
+        if (minLat > maxLat) {
+            minLat = maxLat = minLon = maxLon = 0;
+        }
+
+        // Longitude cells are sized at the latitude furthest from the equator, so no cell is narrower than cellSizeKm
+        double widestCos = Math.max(Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat)))), 0.01);
+        this.minLatitude = minLat;
+        this.minLongitude = minLon;
+        this.cellLatitude = cellSizeKm / KM_PER_DEGREE;
+        this.cellLongitude = cellSizeKm / (KM_PER_DEGREE * widestCos);
+        this.furthestLatitude = Math.max(Math.abs(minLat), Math.abs(maxLat));
+        this.rows = (int) ((maxLat - minLat) / cellLatitude) + 1;
+        this.columns = (int) ((maxLon - minLon) / cellLongitude) + 1;
+
+        this.cellOffsets = new int[rows * columns + 1];
+        for (int point = 0; point < latitudes.length; point++) {
+            if (isIndexed(point)) {
+                cellOffsets[cellOf(point) + 1]++;
+            }
+        }
+        for (int cell = 0; cell < rows * columns; cell++) {
+            cellOffsets[cell + 1] += cellOffsets[cell];
+        }
+        this.cellPoints = new int[cellOffsets[rows * columns]];
+        int[] next = Arrays.copyOf(cellOffsets, rows * columns);
+        for (int point = 0; point < latitudes.length; point++) {
+            if (isIndexed(point)) {
+                cellPoints[next[cellOf(point)]++] = point;
+            }
+        }
+    }
+
+    public int getPointCount() {
+        return latitudes.length;
+    }
+
+    // Visit every indexed point within radiusKm of the given location, by haversine distance
+    public void forEachWithin(double latitude, double longitude, double radiusKm, PointVisitor visitor) {
+        if (Double.isNaN(latitude) || Double.isNaN(longitude) || cellPoints.length == 0) {
+            return;
+        }
+        double radiusLatitude = radiusKm / KM_PER_DEGREE;
+        double furthestLatitude = Math.min(Math.abs(latitude) + radiusLatitude, 89.0);
+        double radiusLongitude = radiusKm / (KM_PER_DEGREE * Math.cos(Math.toRadians(furthestLatitude)));
+
+        int firstRow = Math.max(0, (int) Math.floor((latitude - radiusLatitude - minLatitude) / cellLatitude));
+        int lastRow = Math.min(rows - 1, (int) Math.floor((latitude + radiusLatitude - minLatitude) / cellLatitude));
+        int firstColumn = Math.max(0, (int) Math.floor((longitude - radiusLongitude - minLongitude) / cellLongitude));
+        int lastColumn = Math.min(columns - 1, (int) Math.floor((longitude + radiusLongitude - minLongitude) / cellLongitude));
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                for (int i = cellOffsets[cell]; i < cellOffsets[cell + 1]; i++) {
+                    int point = cellPoints[i];
+                    double distance = distanceCalculator.calculateDistance(latitude, longitude, latitudes[point], longitudes[point]);
+                    if (distance <= radiusKm) {
+                        visitor.visit(point, distance);
+                    }
+                }
+            }
+        }
+    }
+
+    // Closest indexed point to the given location, or -1 if there is none
+    public int findNearest(double latitude, double longitude) {
+        int[] nearest = findNearest(latitude, longitude, 1);
+        return nearest.length == 0 ? -1 : nearest[0];
+    }
+
+    // Up to k indexed points closest to the given location, nearest first. The cells are visited in rings around
+    // the cell of the location until the next ring cannot hold anything closer than the k-th point found so far.
+    public int[] findNearest(double latitude, double longitude, int k) {
+        if (Double.isNaN(latitude) || Double.isNaN(longitude) || cellPoints.length == 0 || k <= 0) {
+            return new int[0];
+        }
+        int[] points = new int[Math.min(k, cellPoints.length)];
+        double[] distances = new double[points.length];
+        int count = 0;
+
+        int centerRow = Math.max(0, Math.min(rows - 1, (int) Math.floor((latitude - minLatitude) / cellLatitude)));
+        int centerColumn = Math.max(0, Math.min(columns - 1, (int) Math.floor((longitude - minLongitude) / cellLongitude)));
+        // Every point r rings out is at least r cells away; cells are narrowest at the latitude furthest from the equator
+        double cosine = Math.cos(Math.toRadians(Math.min(Math.max(Math.abs(latitude), furthestLatitude), 89.0)));
+        double ringKm = Math.min(cellLatitude * KM_PER_DEGREE, cellLongitude * KM_PER_DEGREE * cosine);
+        int maxRing = Math.max(rows, columns);
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (count == points.length && (ring - 1) * ringKm > distances[count - 1]) {
+                break;
+            }
+            for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                if (row < 0 || row >= rows) {
+                    continue;
+                }
+                boolean edgeRow = row == centerRow - ring || row == centerRow + ring;
+                for (int column = centerColumn - ring; column <= centerColumn + ring; column += edgeRow ? 1 : 2 * ring) {
+                    if (column >= 0 && column < columns) {
+                        int cell = row * columns + column;
+                        for (int i = cellOffsets[cell]; i < cellOffsets[cell + 1]; i++) {
+                            int point = cellPoints[i];
+                            double distance = distanceCalculator.calculateDistance(latitude, longitude, latitudes[point], longitudes[point]);
+                            count = insertNearest(points, distances, count, point, distance);
+                        }
+                    }
+                    if (ring == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(points, count);
+    }
+
+    // Insert a point into the sorted candidate arrays if it is among the closest found so far; returns the new count
+    private static int insertNearest(int[] points, double[] distances, int count, int point, double distance) {
+        if (count == points.length && distance >= distances[count - 1]) {
+            return count;
+        }
+        int position = count == points.length ? count - 1 : count++;
+        while (position > 0 && distances[position - 1] > distance) {
+            points[position] = points[position - 1];
+            distances[position] = distances[position - 1];
+            position--;
+        }
+        points[position] = point;
+        distances[position] = distance;
+        return count;
+    }
+
+    private boolean isIndexed(int point) {
+        return !Double.isNaN(latitudes[point]) && !Double.isNaN(longitudes[point]);
+    }
+
+    private int cellOf(int point) {
+        int row = Math.min(rows - 1, (int) ((latitudes[point] - minLatitude) / cellLatitude));
+        int column = Math.min(columns - 1, (int) ((longitudes[point] - minLongitude) / cellLongitude));
+        return row * columns + column;
+    }
+}
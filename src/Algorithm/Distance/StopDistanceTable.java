@@ -0,0 +1,47 @@
+package Algorithm.Distance;
+
+import java.util.Arrays;
+
+// Walking distances between stops within walking range, in CSR form: the neighbors of stop s are
+// targets[offsets[s] .. offsets[s + 1]), sorted by stop index, with their street distances in kilometers.
+public class StopDistanceTable {
+    private final int[] offsets;
+    private final int[] targets;
+    private final float[] distancesKm;
+
+    public StopDistanceTable(int[] offsets, int[] targets, float[] distancesKm) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.distancesKm = distancesKm;
+    }
+
+    public int getStopCount() {
+        return offsets.length - 1;
+    }
+
+    public int getPairCount() {
+        return targets.length;
+    }
+
+    public int getFirstPair(int stop) {
+        return offsets[stop];
+    }
+
+    public int getLastPair(int stop) {
+        return offsets[stop + 1];
+    }
+
+    public int getTarget(int pair) {
+        return targets[pair];
+    }
+
+    public float getDistanceKm(int pair) {
+        return distancesKm[pair];
+    }
+
+    // Walking distance between two stops, Double.MAX_VALUE if they are not within walking range of each other
+    public double getDistanceKm(int fromStop, int toStop) {
+        int pair = Arrays.binarySearch(targets, offsets[fromStop], offsets[fromStop + 1], toStop);
+        return pair < 0 ? Double.MAX_VALUE : distancesKm[pair];
+    }
+}
@@ -0,0 +1,61 @@
+package Algorithm.Distance;
+
+import Algorithm.OSM.ContractionHierarchy;
+import Algorithm.OSM.Coordinate;
+
+// Street walking distances between stops and postcodes, in kilometers. Every point is snapped to its closest OSM
+// node and the distance between two nodes is answered by the contraction hierarchy once, then kept in a bounded
+// DistanceCache keyed on the node pair, so repeated stop-to-stop and postcode-to-stop lookups cost a table probe.
+// Safe to share between threads: each thread gets its own hierarchy query.
+public class WalkingDistanceOracle {
+    public static final int DEFAULT_CACHE_CAPACITY = 1 << 20;
+    private static final double METERS_PER_KM = 1000.0;
+
+    private final ContractionHierarchy hierarchy;
+    private final DistanceCache cache;
+    private final ThreadLocal<ContractionHierarchy.Query> queries;
+    private final DistanceCalculator distanceCalculator = new DistanceCalculator();
+
+    public WalkingDistanceOracle(ContractionHierarchy hierarchy) {
+        this(hierarchy, DEFAULT_CACHE_CAPACITY);
+    }
+
+    public WalkingDistanceOracle(ContractionHierarchy hierarchy, int cacheCapacity) {
+        this.hierarchy = hierarchy;
+        this.cache = new DistanceCache(cacheCapacity);
+        this.queries = ThreadLocal.withInitial(hierarchy::createQuery);
+    }
+
+    // Walking distance between two points: the straight walks to and from the network plus the street distance
+    // between the snapped nodes. Double.MAX_VALUE if the nodes are not connected.
+    public double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
+        int sourceNode = hierarchy.findClosestNode(new Coordinate(lat1, lon1));
+        int targetNode = hierarchy.findClosestNode(new Coordinate(lat2, lon2));
+        if (sourceNode == -1 || targetNode == -1) {
+            return Double.MAX_VALUE;
+        }
+        double networkKm = getNodeDistanceKm(sourceNode, targetNode);
+        if (networkKm == Double.MAX_VALUE) {
+            return Double.MAX_VALUE;
+        }
+        return distanceCalculator.calculateDistance(lat1, lon1, hierarchy.getLatitude(sourceNode), hierarchy.getLongitude(sourceNode))
+                + networkKm
+                + distanceCalculator.calculateDistance(hierarchy.getLatitude(targetNode), hierarchy.getLongitude(targetNode), lat2, lon2);
+    }
+
+    // Street distance between two node indices, cached; Double.MAX_VALUE if the target cannot be reached
+    public double getNodeDistanceKm(int sourceNode, int targetNode) {
+        long key = ((long) sourceNode << 32) | targetNode;
+        float cached = cache.get(key);
+        if (Float.isNaN(cached)) {
+            double meters = queries.get().getDistance(sourceNode, targetNode);
+            cached = meters == Double.MAX_VALUE ? Float.POSITIVE_INFINITY : (float) meters;
+            cache.put(key, cached);
+        }
+        return cached == Float.POSITIVE_INFINITY ? Double.MAX_VALUE : cached / METERS_PER_KM;
+    }
+
+    public DistanceCache getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,387 @@
+package Algorithm.OSM;
+
+import Algorithm.Queue.DaryHeap;
+import Algorithm.Queue.IndexedPriorityQueue;
+
+import java.util.*;
+
+// Contraction hierarchy over the OSM walking graph. Preprocessing contracts the nodes one by one, cheapest first,
+// and adds a shortcut wherever removing a node would break a shortest path. A query then runs two small Dijkstra
+// searches that only ever move up the node order and meet at the highest node of the shortest path, so a
+// point-to-point distance settles a few hundred nodes instead of the whole graph. Distances are in meters.
+public class ContractionHierarchy {
+    // Witness searches give up after this many settled nodes and add the shortcut instead, which is always safe
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final Graph graph;
+
+    // Upward edges in CSR form: forward edges lead to higher nodes, backward edges come from higher nodes
+    private final int[] forwardOffsets;
+    private final int[] forwardTargets;
+    private final double[] forwardWeights;
+    private final int[] backwardOffsets;
+    private final int[] backwardTargets;
+    private final double[] backwardWeights;
+    private final int shortcutCount;
+
+    private ContractionHierarchy(Graph graph, int[] forwardOffsets, int[] forwardTargets, double[] forwardWeights,
+                                 int[] backwardOffsets, int[] backwardTargets, double[] backwardWeights, int shortcutCount) {
+        this.graph = graph;
+        this.forwardOffsets = forwardOffsets;
+        this.forwardTargets = forwardTargets;
+        this.forwardWeights = forwardWeights;
+        this.backwardOffsets = backwardOffsets;
+        this.backwardTargets = backwardTargets;
+        this.backwardWeights = backwardWeights;
+        this.shortcutCount = shortcutCount;
+    }
+
+    // Contract every node of the graph; nodes keep their indices in the graph
+    public static ContractionHierarchy build(Graph graph) {
+        Contractor contractor = new Contractor(graph.getNodeCount());
+        for (int node = 0; node < graph.getNodeCount(); node++) {
+            for (int edge = graph.getFirstEdge(node); edge < graph.getLastEdge(node); edge++) {
+                if (graph.getTarget(edge) != node) {
+                    contractor.addEdge(node, graph.getTarget(edge), graph.getLength(edge));
+                }
+            }
+        }
+        contractor.contractAll();
+        return contractor.toHierarchy(graph);
+    }
+
+    public int getNodeCount() {
+        return graph.getNodeCount();
+    }
+
+    public int getShortcutCount() {
+        return shortcutCount;
+    }
+
+    public double getLatitude(int node) {
+        return graph.getLatitude(node);
+    }
+
+    public double getLongitude(int node) {
+        return graph.getLongitude(node);
+    }
+
+    // Index of the node closest to the coordinate, or -1 if the graph is empty
+    public int findClosestNode(Coordinate coordinate) {
+        return graph.findClosestNode(coordinate.getLatitude(), coordinate.getLongitude());
+    }
+
+    // Per-thread query state over the shared, immutable hierarchy
+    public Query createQuery() {
+        return new Query();
+    }
+
+    // Bidirectional upward search; reuse one instance per thread, it is not thread-safe
+    public class Query {
+        private final double[] forwardDistances = new double[graph.getNodeCount()];
+        private final double[] backwardDistances = new double[graph.getNodeCount()];
+        private final IndexedPriorityQueue forwardQueue = new DaryHeap(graph.getNodeCount(), DaryHeap.DEFAULT_ARITY);
+        private final IndexedPriorityQueue backwardQueue = new DaryHeap(graph.getNodeCount(), DaryHeap.DEFAULT_ARITY);
+        private final int[] touched = new int[2 * graph.getNodeCount()];
+        private int touchedCount;
+        private int settledCount;
+
+        private Query() {
+            Arrays.fill(forwardDistances, Double.MAX_VALUE);
+            Arrays.fill(backwardDistances, Double.MAX_VALUE);
+        }
+
+        // Walking distance between the nodes closest to both coordinates, Double.MAX_VALUE if they are not connected
+        public double findShortestDistance(Coordinate source, Coordinate target) {
+            int sourceNode = findClosestNode(source);
+            int targetNode = findClosestNode(target);
+            if (sourceNode == -1 || targetNode == -1) {
+                return Double.MAX_VALUE;
+            }
+            return getDistance(sourceNode, targetNode);
+        }
+
+        // Shortest distance between two node indices, Double.MAX_VALUE if the target cannot be reached
+        public double getDistance(int sourceNode, int targetNode) {
+            reset();
+            forwardDistances[sourceNode] = 0.0;
+            backwardDistances[targetNode] = 0.0;
+            touched[touchedCount++] = sourceNode;
+            touched[touchedCount++] = targetNode;
+            forwardQueue.insertOrDecrease(sourceNode, 0.0);
+            backwardQueue.insertOrDecrease(targetNode, 0.0);
+
+            double best = sourceNode == targetNode ? 0.0 : Double.MAX_VALUE;
+            // A direction is done once its smallest key cannot improve the best meeting point
+            while ((!forwardQueue.isEmpty() && forwardQueue.peekKey() < best) || (!backwardQueue.isEmpty() && backwardQueue.peekKey() < best)) {
+                if (!forwardQueue.isEmpty() && forwardQueue.peekKey() < best) {
+                    best = settle(forwardQueue, forwardDistances, backwardDistances, forwardOffsets, forwardTargets, forwardWeights, best);
+                }
+                if (!backwardQueue.isEmpty() && backwardQueue.peekKey() < best) {
+                    best = settle(backwardQueue, backwardDistances, forwardDistances, backwardOffsets, backwardTargets, backwardWeights, best);
+                }
+            }
+            return best;
+        }
+
+        private double settle(IndexedPriorityQueue queue, double[] distances, double[] otherDistances, int[] offsets, int[] targets, double[] weights, double best) {
+            int node = queue.poll();
+            settledCount++;
+            if (otherDistances[node] != Double.MAX_VALUE) {
+                best = Math.min(best, distances[node] + otherDistances[node]);
+            }
+            for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                int adjacent = targets[edge];
+                double newDist = distances[node] + weights[edge];
+                if (newDist < distances[adjacent]) {
+                    if (forwardDistances[adjacent] == Double.MAX_VALUE && backwardDistances[adjacent] == Double.MAX_VALUE) {
+                        touched[touchedCount++] = adjacent;
+                    }
+                    distances[adjacent] = newDist;
+                    queue.insertOrDecrease(adjacent, newDist);
+                }
+            }
+            return best;
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                forwardDistances[touched[i]] = Double.MAX_VALUE;
+                backwardDistances[touched[i]] = Double.MAX_VALUE;
+            }
+            touchedCount = 0;
+            settledCount = 0;
+            forwardQueue.clear();
+            backwardQueue.clear();
+        }
+
+        // Nodes settled by the last query, both directions included
+        public int getSettledCount() {
+            return settledCount;
+        }
+    }
+
+    // Mutable graph used while contracting: every edge and shortcut is kept in the out-list of its source and the
+    // in-list of its target, and edges of contracted nodes are skipped instead of removed
+    private static class Contractor {
+        private final int nodeCount;
+        private final int[][] outTargets;
+        private final double[][] outWeights;
+        private final int[] outSizes;
+        private final int[][] inTargets;
+        private final double[][] inWeights;
+        private final int[] inSizes;
+        private final boolean[] contracted;
+        private final int[] contractedNeighbors;
+        private final int[] rank;
+        private int shortcutCount;
+
+        // Witness search state, reset through the touched list
+        private final double[] witnessDistances;
+        private final int[] witnessTouched;
+        private int witnessTouchedCount;
+        private final IndexedPriorityQueue witnessQueue;
+
+        Contractor(int nodeCount) {
+            this.nodeCount = nodeCount;
+            this.outTargets = new int[nodeCount][2];
+            this.outWeights = new double[nodeCount][2];
+            this.outSizes = new int[nodeCount];
+            this.inTargets = new int[nodeCount][2];
+            this.inWeights = new double[nodeCount][2];
+            this.inSizes = new int[nodeCount];
+            this.contracted = new boolean[nodeCount];
+            this.contractedNeighbors = new int[nodeCount];
+            this.rank = new int[nodeCount];
+            this.witnessDistances = new double[nodeCount];
+            this.witnessTouched = new int[nodeCount];
+            this.witnessQueue = new DaryHeap(nodeCount, DaryHeap.DEFAULT_ARITY);
+            Arrays.fill(witnessDistances, Double.MAX_VALUE);
+        }
+
+        // Add the edge, or lower the weight of an existing edge between the same nodes; returns true if anything changed
+        boolean addEdge(int source, int target, double weight) {
+            for (int i = 0; i < outSizes[source]; i++) {
+                if (outTargets[source][i] == target) {
+                    if (weight >= outWeights[source][i]) {
+                        return false;
+                    }
+                    outWeights[source][i] = weight;
+                    for (int j = 0; j < inSizes[target]; j++) {
+                        if (inTargets[target][j] == source) {
+                            inWeights[target][j] = weight;
+                        }
+                    }
+                    return true;
+                }
+            }
+            if (outSizes[source] == outTargets[source].length) {
+                outTargets[source] = Arrays.copyOf(outTargets[source], outSizes[source] * 2);
+                outWeights[source] = Arrays.copyOf(outWeights[source], outSizes[source] * 2);
+            }
+            outTargets[source][outSizes[source]] = target;
+            outWeights[source][outSizes[source]++] = weight;
+            if (inSizes[target] == inTargets[target].length) {
+                inTargets[target] = Arrays.copyOf(inTargets[target], inSizes[target] * 2);
+                inWeights[target] = Arrays.copyOf(inWeights[target], inSizes[target] * 2);
+            }
+            inTargets[target][inSizes[target]] = source;
+            inWeights[target][inSizes[target]++] = weight;
+            return true;
+        }
+
+        // Contract the nodes by edge difference plus the number of contracted neighbors, which spreads the
+        // contraction evenly; priorities are recomputed lazily when a node reaches the front of the queue
+        void contractAll() {
+            IndexedPriorityQueue order = new DaryHeap(nodeCount, DaryHeap.DEFAULT_ARITY);
+            for (int node = 0; node < nodeCount; node++) {
+                order.insertOrDecrease(node, getPriority(node));
+            }
+            int nextRank = 0;
+            while (!order.isEmpty()) {
+                int node = order.poll();
+                double priority = getPriority(node);
+                if (!order.isEmpty() && priority > order.peekKey()) {
+                    order.insertOrDecrease(node, priority);
+                    continue;
+                }
+                contract(node, true);
+                contracted[node] = true;
+                rank[node] = nextRank++;
+                for (int i = 0; i < outSizes[node]; i++) {
+                    contractedNeighbors[outTargets[node][i]]++;
+                }
+                for (int i = 0; i < inSizes[node]; i++) {
+                    contractedNeighbors[inTargets[node][i]]++;
+                }
+            }
+        }
+
+        private double getPriority(int node) {
+            int removed = 0;
+            for (int i = 0; i < outSizes[node]; i++) {
+                if (!contracted[outTargets[node][i]]) {
+                    removed++;
+                }
+            }
+            for (int i = 0; i < inSizes[node]; i++) {
+                if (!contracted[inTargets[node][i]]) {
+                    removed++;
+                }
+            }
+            return contract(node, false) - removed + contractedNeighbors[node];
+        }
+
+        // Count, and if add is set insert, the shortcuts needed to remove node from the remaining graph
+        private int contract(int node, boolean add) {
+            int shortcuts = 0;
+            for (int i = 0; i < inSizes[node]; i++) {
+                int source = inTargets[node][i];
+                if (contracted[source]) {
+                    continue;
+                }
+                double inWeight = inWeights[node][i];
+                double maxWeight = -1;
+                for (int j = 0; j < outSizes[node]; j++) {
+                    if (!contracted[outTargets[node][j]] && outTargets[node][j] != source) {
+                        maxWeight = Math.max(maxWeight, inWeight + outWeights[node][j]);
+                    }
+                }
+                if (maxWeight < 0) {
+                    continue;
+                }
+                runWitnessSearch(source, node, maxWeight);
+                for (int j = 0; j < outSizes[node]; j++) {
+                    int target = outTargets[node][j];
+                    if (contracted[target] || target == source) {
+                        continue;
+                    }
+                    double viaWeight = inWeight + outWeights[node][j];
+                    if (witnessDistances[target] > viaWeight) {
+                        shortcuts++;
+                        if (add && addEdge(source, target, viaWeight)) {
+                            shortcutCount++;
+                        }
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        // Bounded Dijkstra from source over the remaining graph without the node being contracted
+        private void runWitnessSearch(int source, int excluded, double maxWeight) {
+            for (int i = 0; i < witnessTouchedCount; i++) {
+                witnessDistances[witnessTouched[i]] = Double.MAX_VALUE;
+            }
+            witnessTouchedCount = 0;
+            witnessQueue.clear();
+            witnessDistances[source] = 0.0;
+            witnessTouched[witnessTouchedCount++] = source;
+            witnessQueue.insertOrDecrease(source, 0.0);
+
+            int settled = 0;
+            while (!witnessQueue.isEmpty() && witnessQueue.peekKey() <= maxWeight && settled < WITNESS_SETTLE_LIMIT) {
+                int current = witnessQueue.poll();
+                settled++;
+                for (int i = 0; i < outSizes[current]; i++) {
+                    int adjacent = outTargets[current][i];
+                    if (adjacent == excluded || contracted[adjacent]) {
+                        continue;
+                    }
+                    double newDist = witnessDistances[current] + outWeights[current][i];
+                    if (newDist < witnessDistances[adjacent]) {
+                        if (witnessDistances[adjacent] == Double.MAX_VALUE) {
+                            witnessTouched[witnessTouchedCount++] = adjacent;
+                        }
+                        witnessDistances[adjacent] = newDist;
+                        witnessQueue.insertOrDecrease(adjacent, newDist);
+                    }
+                }
+            }
+        }
+
+        // Keep every edge and shortcut that leads up the order, in the direction it is searched
+        ContractionHierarchy toHierarchy(Graph graph) {
+            int[] forwardOffsets = new int[nodeCount + 1];
+            int[] backwardOffsets = new int[nodeCount + 1];
+            for (int node = 0; node < nodeCount; node++) {
+                for (int i = 0; i < outSizes[node]; i++) {
+                    if (rank[outTargets[node][i]] > rank[node]) {
+                        forwardOffsets[node + 1]++;
+                    }
+                }
+                for (int i = 0; i < inSizes[node]; i++) {
+                    if (rank[inTargets[node][i]] > rank[node]) {
+                        backwardOffsets[node + 1]++;
+                    }
+                }
+            }
+            for (int node = 0; node < nodeCount; node++) {
+                forwardOffsets[node + 1] += forwardOffsets[node];
+                backwardOffsets[node + 1] += backwardOffsets[node];
+            }
+            int[] forwardTargets = new int[forwardOffsets[nodeCount]];
+            double[] forwardWeights = new double[forwardOffsets[nodeCount]];
+            int[] backwardTargets = new int[backwardOffsets[nodeCount]];
+            double[] backwardWeights = new double[backwardOffsets[nodeCount]];
+            for (int node = 0; node < nodeCount; node++) {
+                int forward = forwardOffsets[node];
+                for (int i = 0; i < outSizes[node]; i++) {
+                    if (rank[outTargets[node][i]] > rank[node]) {
+                        forwardTargets[forward] = outTargets[node][i];
+                        forwardWeights[forward++] = outWeights[node][i];
+                    }
+                }
+                int backward = backwardOffsets[node];
+                for (int i = 0; i < inSizes[node]; i++) {
+                    if (rank[inTargets[node][i]] > rank[node]) {
+                        backwardTargets[backward] = inTargets[node][i];
+                        backwardWeights[backward++] = inWeights[node][i];
+                    }
+                }
+            }
+            return new ContractionHierarchy(graph, forwardOffsets, forwardTargets, forwardWeights,
+                    backwardOffsets, backwardTargets, backwardWeights, shortcutCount);
+        }
+    }
+}
@@ -1,110 +1,141 @@
 package Algorithm.OSM;
 
+import Algorithm.Queue.IndexedPriorityQueue;
+import Algorithm.Queue.QueueType;
+
 import java.util.*;
 
 public class Dijkstra {
     private final Graph graph;
-    private final Map<Integer, Double> distances;
-    private final Map<Integer, Integer> previousNodes;
-    private final PriorityQueue<Node> priorityQueue;
+    private final double[] distances;
+    private final int[] previousNodes;
+    private final IndexedPriorityQueue priorityQueue;
+    private int settledCount;
+
+    // ALT state: the landmark bound of a node is computed when it is first reached, and only the reached nodes are
+    // reset after a query, so a short walk never touches the whole graph
+    private final Landmarks landmarks;
+    private final double[] heuristics;
+    private final int[] touched;
+    private int touchedCount;
 
     public Dijkstra(Graph graph) {
+        this(graph, QueueType.DARY_HEAP);
+    }
+
+    // Edge distances are in meters, so the bucket queue uses one meter buckets
+    public Dijkstra(Graph graph, QueueType queueType) {
+        this.graph = graph;
+        this.distances = new double[graph.getNodeCount()];
+        this.previousNodes = new int[graph.getNodeCount()];
+        this.priorityQueue = queueType.create(graph.getNodeCount(), 1.0);
+        this.landmarks = null;
+        this.heuristics = null;
+        this.touched = null;
+    }
+
+    // Landmark A* towards the target. The landmark bounds are not monotone to the last centimeter, so the keys
+    // can decrease slightly and only the binary heap can hold them.
+    public Dijkstra(Graph graph, Landmarks landmarks) {
+        if (landmarks.getNodeCount() != graph.getNodeCount()) {
+            throw new IllegalArgumentException("Landmarks of a graph with " + landmarks.getNodeCount() + " nodes, not " + graph.getNodeCount());
+        }
         this.graph = graph;
-        this.distances = new HashMap<>();
-        this.previousNodes = new HashMap<>();
-        this.priorityQueue = new PriorityQueue<>(Comparator.comparingDouble(Node::getDistance));
+        this.distances = new double[graph.getNodeCount()];
+        this.previousNodes = new int[graph.getNodeCount()];
+        this.priorityQueue = QueueType.DARY_HEAP.create(graph.getNodeCount(), 1.0);
+        this.landmarks = landmarks;
+        this.heuristics = new double[graph.getNodeCount()];
+        this.touched = new int[graph.getNodeCount()];
+        Arrays.fill(distances, Double.MAX_VALUE);
     }
 
     public double findShortestDistance(Coordinate source, Coordinate target) {
-        Integer startNode = findClosestNode(source);
-        Integer endNode = findClosestNode(target);
-        if (startNode == null || endNode == null) {
+        int startNode = graph.findClosestNode(source.getLatitude(), source.getLongitude());
+        int endNode = graph.findClosestNode(target.getLatitude(), target.getLongitude());
+        if (startNode == -1 || endNode == -1) {
             return Double.MAX_VALUE;
         }
 
+        if (landmarks != null) {
+            return executeLandmarks(startNode, endNode);
+        }
+
         execute(startNode);
 
-        return distances.getOrDefault(endNode, Double.MAX_VALUE);
+        return distances[endNode];
+    }
+
+    // Nodes polled by the last query
+    public int getSettledCount() {
+        return settledCount;
     }
 
+    // Vertices improved after being polled are queued again, which keeps bucket queues with wide buckets exact
     private void execute(int startNode) {
-        for (Integer node : graph.getCoordinates().keySet()) {
-            if (node == startNode) {
-                distances.put(node, 0.0);
-                priorityQueue.add(new Node(node, 0.0));
-            } else {
-                distances.put(node, Double.MAX_VALUE);
-                priorityQueue.add(new Node(node, Double.MAX_VALUE));
-            }
-            previousNodes.put(node, null);
-        }
+        priorityQueue.clear();
+        Arrays.fill(distances, Double.MAX_VALUE);
+        Arrays.fill(previousNodes, -1);
+        distances[startNode] = 0.0;
+        priorityQueue.insertOrDecrease(startNode, 0.0);
+        settledCount = 0;
 
         while (!priorityQueue.isEmpty()) {
-            Node currentNode = priorityQueue.poll();
-            int currentLabel = currentNode.getLabel();
-
-            for (Edge edge : graph.getAdjacencyList().get(currentLabel)) {
-                int adjacentNode = edge.getTargetNodeId();
-                double edgeWeight = edge.getDistance();
-
-                double newDist = distances.get(currentLabel) + edgeWeight;
-                if (newDist < distances.get(adjacentNode)) {
-                    distances.put(adjacentNode, newDist);
-                    previousNodes.put(adjacentNode, currentLabel);
-                    priorityQueue.add(new Node(adjacentNode, newDist));
+            int current = priorityQueue.poll();
+            settledCount++;
+            for (int edge = graph.getFirstEdge(current); edge < graph.getLastEdge(current); edge++) {
+                int adjacent = graph.getTarget(edge);
+                double newDist = distances[current] + graph.getLength(edge);
+                if (newDist < distances[adjacent]) {
+                    distances[adjacent] = newDist;
+                    previousNodes[adjacent] = current;
+                    priorityQueue.insertOrDecrease(adjacent, newDist);
                 }
             }
         }
     }
 
-    private Integer findClosestNode(Coordinate coordinate) {
-        double minDistance = Double.MAX_VALUE;
-        Integer closestNode = null;
+    // A* keyed on distance plus landmark bound, stopping when the target is polled. The bounds never overestimate,
+    // and nodes improved after being polled are queued again, so the first poll of the target is exact. Nodes a
+    // landmark proves cannot reach the target are never queued.
+    private double executeLandmarks(int startNode, int endNode) {
+        priorityQueue.clear();
+        settledCount = 0;
+        double result = Double.MAX_VALUE;
+        reach(startNode, endNode, 0.0, -1);
 
-        for (Map.Entry<Integer, Coordinate> entry : graph.getCoordinates().entrySet()) {
-            double distance = haversineDistance(coordinate, entry.getValue());
-            if (distance < minDistance) {
-                minDistance = distance;
-                closestNode = entry.getKey();
+        while (!priorityQueue.isEmpty()) {
+            int current = priorityQueue.poll();
+            settledCount++;
+            if (current == endNode) {
+                result = distances[endNode];
+                break;
+            }
+            for (int edge = graph.getFirstEdge(current); edge < graph.getLastEdge(current); edge++) {
+                int adjacent = graph.getTarget(edge);
+                double newDist = distances[current] + graph.getLength(edge);
+                if (newDist < distances[adjacent]) {
+                    reach(adjacent, endNode, newDist, current);
+                }
             }
         }
 
-        return closestNode;
-    }
-
-    private double haversineDistance(Coordinate c1, Coordinate c2) {
-        double lat1Radians = Math.toRadians(c1.getLatitude());
-        double lon1Radians = Math.toRadians(c1.getLongitude());
-        double lat2Radians = Math.toRadians(c2.getLatitude());
-        double lon2Radians = Math.toRadians(c2.getLongitude());
-
-        double deltaLat = lat2Radians - lat1Radians;
-        double deltaLon = lon2Radians - lon1Radians;
-
-        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2) +
-                   Math.cos(lat1Radians) * Math.cos(lat2Radians) *
-                   Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        double EARTH_RADIUS_KM = 6371.0;
-        return EARTH_RADIUS_KM * c;
-    }
-
-    private static class Node {
-        private final int label;
-        private final double distance;
-
-        public Node(int label, double distance) {
-            this.label = label;
-            this.distance = distance;
+        for (int i = 0; i < touchedCount; i++) {
+            distances[touched[i]] = Double.MAX_VALUE;
         }
+        touchedCount = 0;
+        return result;
+    }
 
-        public int getLabel() {
-            return label;
+    private void reach(int node, int endNode, double distance, int previousNode) {
+        if (distances[node] == Double.MAX_VALUE) {
+            touched[touchedCount++] = node;
+            heuristics[node] = landmarks.getLowerBound(node, endNode);
         }
-
-        public double getDistance() {
-            return distance;
+        distances[node] = distance;
+        previousNodes[node] = previousNode;
+        if (heuristics[node] != Double.MAX_VALUE) {
+            priorityQueue.insertOrDecrease(node, distance + heuristics[node]);
         }
     }
 }
@@ -0,0 +1,214 @@
+package Algorithm.OSM;
+
+import Algorithm.Distance.DistanceCalculator;
+import Algorithm.Distance.StopDistanceTable;
+import Algorithm.Queue.IndexedPriorityQueue;
+import Algorithm.Queue.QueueType;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Street walking distances from stops and points to the stops around them. Every stop is snapped to its closest OSM
+// node once; a walk is then the straight walk onto the network, the street distance and the straight walk off it.
+// Each source takes one one-to-many Dijkstra that stops as soon as the walking range is exceeded, so the searches
+// stay small, and the stop-to-stop table runs those searches in parallel on a fork/join pool.
+public class FootpathBuilder {
+    private static final double METERS_PER_KM = 1000.0;
+
+    private final Graph graph;
+    // Snapped node of every stop and the meters from the stop to it; -1 for stops without coordinates or node
+    private final int[] stopNodes;
+    private final double[] snapMeters;
+    // Stops snapped to the same node, as a linked list: firstStops[node], then nextStops[stop], ending in -1
+    private final int[] firstStops;
+    private final int[] nextStops;
+    private final ThreadLocal<Search> searches;
+
+    public FootpathBuilder(Graph graph, double[] stopLatitudes, double[] stopLongitudes) {
+        this.graph = graph;
+        this.stopNodes = new int[stopLatitudes.length];
+        this.snapMeters = new double[stopLatitudes.length];
+        this.firstStops = new int[graph.getNodeCount()];
+        this.nextStops = new int[stopLatitudes.length];
+        this.searches = ThreadLocal.withInitial(() -> new Search(graph.getNodeCount()));
+        Arrays.fill(firstStops, -1);
+
+        DistanceCalculator distanceCalculator = new DistanceCalculator();
+        for (int stop = stopLatitudes.length - 1; stop >= 0; stop--) {
+            int node = Double.isNaN(stopLatitudes[stop]) || Double.isNaN(stopLongitudes[stop])
+                    ? -1 : graph.findClosestNode(stopLatitudes[stop], stopLongitudes[stop]);
+            stopNodes[stop] = node;
+            nextStops[stop] = -1;
+            if (node != -1) {
+                snapMeters[stop] = METERS_PER_KM * distanceCalculator.calculateDistance(stopLatitudes[stop], stopLongitudes[stop],
+                        graph.getLatitude(node), graph.getLongitude(node));
+                nextStops[stop] = firstStops[node];
+                firstStops[node] = stop;
+            }
+        }
+    }
+
+    public int getStopCount() {
+        return stopNodes.length;
+    }
+
+    // Whether the stop could be snapped onto the network; stops that could not have no footpaths
+    public boolean isSnapped(int stop) {
+        return stopNodes[stop] != -1;
+    }
+
+    // Walking kilometers from a point to every stop within maxDistanceKm of it, Float.POSITIVE_INFINITY for the rest
+    public float[] computeDistancesKm(double latitude, double longitude, double maxDistanceKm) {
+        float[] distancesKm = new float[stopNodes.length];
+        Arrays.fill(distancesKm, Float.POSITIVE_INFINITY);
+        int node = graph.findClosestNode(latitude, longitude);
+        if (node == -1) {
+            return distancesKm;
+        }
+        double startMeters = METERS_PER_KM * new DistanceCalculator().calculateDistance(latitude, longitude, graph.getLatitude(node), graph.getLongitude(node));
+        searches.get().run(node, startMeters, maxDistanceKm * METERS_PER_KM, (stop, meters) -> distancesKm[stop] = (float) (meters / METERS_PER_KM));
+        return distancesKm;
+    }
+
+    // Walking kilometers between every pair of distinct stops within maxDistanceKm of each other, one bounded search
+    // per stop, run in parallel on the pool
+    public StopDistanceTable computeStopDistances(double maxDistanceKm, ForkJoinPool pool) {
+        int[][] targets = new int[stopNodes.length][];
+        float[][] distancesKm = new float[stopNodes.length][];
+        pool.invoke(new StopRange(this, maxDistanceKm, targets, distancesKm, 0, stopNodes.length));
+
+        int[] offsets = new int[stopNodes.length + 1];
+        for (int stop = 0; stop < stopNodes.length; stop++) {
+            offsets[stop + 1] = offsets[stop] + targets[stop].length;
+        }
+        int[] allTargets = new int[offsets[stopNodes.length]];
+        float[] allDistancesKm = new float[offsets[stopNodes.length]];
+        for (int stop = 0; stop < stopNodes.length; stop++) {
+            System.arraycopy(targets[stop], 0, allTargets, offsets[stop], targets[stop].length);
+            System.arraycopy(distancesKm[stop], 0, allDistancesKm, offsets[stop], distancesKm[stop].length);
+        }
+        return new StopDistanceTable(offsets, allTargets, allDistancesKm);
+    }
+
+    // Footpaths of one stop, sorted by target stop as StopDistanceTable expects
+    private void computeFootpaths(int fromStop, double maxDistanceKm, int[][] targets, float[][] distancesKm) {
+        if (stopNodes[fromStop] == -1) {
+            targets[fromStop] = new int[0];
+            distancesKm[fromStop] = new float[0];
+            return;
+        }
+        float[] found = new float[stopNodes.length];
+        Arrays.fill(found, Float.POSITIVE_INFINITY);
+        searches.get().run(stopNodes[fromStop], snapMeters[fromStop], maxDistanceKm * METERS_PER_KM, (toStop, meters) -> {
+            if (toStop != fromStop) {
+                found[toStop] = (float) (meters / METERS_PER_KM);
+            }
+        });
+        int count = 0;
+        for (float km : found) {
+            if (km != Float.POSITIVE_INFINITY) {
+                count++;
+            }
+        }
+        targets[fromStop] = new int[count];
+        distancesKm[fromStop] = new float[count];
+        int index = 0;
+        for (int toStop = 0; toStop < found.length; toStop++) {
+            if (found[toStop] != Float.POSITIVE_INFINITY) {
+                targets[fromStop][index] = toStop;
+                distancesKm[fromStop][index++] = found[toStop];
+            }
+        }
+    }
+
+    // Splits the stops in halves until a single stop is left, which is searched on the worker that holds it
+    private static class StopRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FootpathBuilder builder;
+        private final double maxDistanceKm;
+        private final int[][] targets;
+        private final float[][] distancesKm;
+        private final int from;
+        private final int to;
+
+        StopRange(FootpathBuilder builder, double maxDistanceKm, int[][] targets, float[][] distancesKm, int from, int to) {
+            this.builder = builder;
+            this.maxDistanceKm = maxDistanceKm;
+            this.targets = targets;
+            this.distancesKm = distancesKm;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new StopRange(builder, maxDistanceKm, targets, distancesKm, from, mid),
+                        new StopRange(builder, maxDistanceKm, targets, distancesKm, mid, to));
+            } else if (to - from == 1) {
+                builder.computeFootpaths(from, maxDistanceKm, targets, distancesKm);
+            }
+        }
+    }
+
+    private interface StopVisitor {
+        void visit(int stop, double meters);
+    }
+
+    // Search state of one thread. Only the nodes reached by a search are reset afterwards, so a small search over a
+    // large graph costs no more than the nodes it touches.
+    private class Search {
+        private final double[] distances;
+        private final int[] touched;
+        private final IndexedPriorityQueue priorityQueue;
+        private int touchedCount;
+
+        Search(int nodeCount) {
+            this.distances = new double[nodeCount];
+            this.touched = new int[nodeCount];
+            this.priorityQueue = QueueType.DARY_HEAP.create(nodeCount, 1.0);
+            Arrays.fill(distances, Double.MAX_VALUE);
+        }
+
+        // Visit every stop whose walk from the start node, already startMeters away, is at most maxMeters long
+        void run(int startNode, double startMeters, double maxMeters, StopVisitor visitor) {
+            reach(startNode, startMeters);
+            while (!priorityQueue.isEmpty()) {
+                int current = priorityQueue.poll();
+                double distance = distances[current];
+                if (distance > maxMeters) {
+                    break;
+                }
+                for (int stop = firstStops[current]; stop != -1; stop = nextStops[stop]) {
+                    double meters = distance + snapMeters[stop];
+                    if (meters <= maxMeters) {
+                        visitor.visit(stop, meters);
+                    }
+                }
+                for (int edge = graph.getFirstEdge(current); edge < graph.getLastEdge(current); edge++) {
+                    int adjacent = graph.getTarget(edge);
+                    double newDist = distance + graph.getLength(edge);
+                    if (newDist < distances[adjacent]) {
+                        reach(adjacent, newDist);
+                    }
+                }
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                distances[touched[i]] = Double.MAX_VALUE;
+            }
+            touchedCount = 0;
+            priorityQueue.clear();
+        }
+
+        private void reach(int node, double distance) {
+            if (distances[node] == Double.MAX_VALUE) {
+                touched[touchedCount++] = node;
+            }
+            distances[node] = distance;
+            priorityQueue.insertOrDecrease(node, distance);
+        }
+    }
+}
@@ -1,30 +1,119 @@
 package Algorithm.OSM;
 
-import java.util.List;
-import java.util.Map;
+import Algorithm.Distance.GridIndex;
 
+import java.util.Arrays;
+
+// OSM walking network in flat arrays: nodes are numbered 0 .. n - 1 by ascending OSM id, and the street segments
+// leaving node v are targets[offsets[v] .. offsets[v + 1]) with their lengths in meters. The arrays are never
+// modified after construction, so one graph can serve any number of searches at the same time.
 public class Graph {
-    private Map<Integer, Coordinate> coordinates;
-    private Map<Integer, List<Edge>> adjacencyList;
+    // Nodes are a few dozen meters apart in town, so a cell holds a handful of them
+    private static final double NODE_INDEX_CELL_KM = 0.2;
+
+    private final int[] nodeIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] offsets;
+    private final int[] targets;
+    private final float[] lengths;
+    private final GridIndex nodeIndex;
+
+    // Called by GraphBuilder and OsmGraphSnapshot; nodeIds must be sorted
+    Graph(int[] nodeIds, double[] latitudes, double[] longitudes, int[] offsets, int[] targets, float[] lengths) {
+        this.nodeIds = nodeIds;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.lengths = lengths;
+        // Spatial index for snapping points to the network, built once with the graph
+        this.nodeIndex = new GridIndex(latitudes, longitudes, NODE_INDEX_CELL_KM);
+    }
+
+    public int getNodeCount() {
+        return nodeIds.length;
+    }
+
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    public int getNodeId(int node) {
+        return nodeIds[node];
+    }
+
+    // Index of the node with the given OSM id, or -1 if it is not part of the network
+    public int getNodeIndex(int nodeId) {
+        int index = Arrays.binarySearch(nodeIds, nodeId);
+        return index < 0 ? -1 : index;
+    }
+
+    public double getLatitude(int node) {
+        return latitudes[node];
+    }
+
+    public double getLongitude(int node) {
+        return longitudes[node];
+    }
+
+    public int getFirstEdge(int node) {
+        return offsets[node];
+    }
+
+    public int getLastEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    // Length of the segment in meters
+    public float getLength(int edge) {
+        return lengths[edge];
+    }
+
+    // Index of the node closest to the given location, or -1 if the graph has no nodes
+    public int findClosestNode(double latitude, double longitude) {
+        return nodeIndex.findNearest(latitude, longitude);
+    }
+
+    // Indices of up to k nodes closest to the given location, nearest first
+    public int[] findClosestNodes(double latitude, double longitude, int k) {
+        return nodeIndex.findNearest(latitude, longitude, k);
+    }
+
+    // Raw columns for OsmGraphSnapshot; callers must not modify them
+    int[] getNodeIds() {
+        return nodeIds;
+    }
+
+    double[] getLatitudes() {
+        return latitudes;
+    }
+
+    double[] getLongitudes() {
+        return longitudes;
+    }
 
-    public Graph(Map<Integer, Coordinate> coordinates, Map<Integer, List<Edge>> adjacencyList) {
-        this.coordinates = coordinates;
-        this.adjacencyList = adjacencyList;
+    int[] getOffsets() {
+        return offsets;
     }
 
-    public Map<Integer, Coordinate> getCoordinates() {
-        return coordinates;
+    int[] getTargets() {
+        return targets;
     }
 
-    public Map<Integer, List<Edge>> getAdjacencyList() {
-        return adjacencyList;
+    float[] getLengths() {
+        return lengths;
     }
 
     @Override
     public String toString() {
         return "Graph{" +
-                "coordinates=" + coordinates +
-                ", adjacencyList=" + adjacencyList +
+                "nodes=" + nodeIds.length +
+                ", edges=" + targets.length +
                 '}';
     }
 }
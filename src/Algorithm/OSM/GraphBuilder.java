@@ -0,0 +1,92 @@
+package Algorithm.OSM;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Collects OSM nodes and street segments into primitive columns and packs them into a Graph. Nodes are renumbered
+// by ascending OSM id on build, so the graph does not depend on the order in which the segments arrive.
+public class GraphBuilder {
+    private final Map<Integer, Integer> nodeIndexById = new HashMap<>();
+    private int[] nodeIds = new int[1024];
+    private double[] latitudes = new double[1024];
+    private double[] longitudes = new double[1024];
+    private int nodeCount;
+
+    private int[] edgeSources = new int[1024];
+    private int[] edgeTargets = new int[1024];
+    private float[] edgeLengths = new float[1024];
+    private int edgeCount;
+
+    // Add a node and return its index in the builder; a node that is already known keeps its first coordinates
+    public int addNode(int nodeId, double latitude, double longitude) {
+        Integer existing = nodeIndexById.get(nodeId);
+        if (existing != null) {
+            return existing;
+        }
+        if (nodeCount == nodeIds.length) {
+            nodeIds = Arrays.copyOf(nodeIds, nodeCount * 2);
+            latitudes = Arrays.copyOf(latitudes, nodeCount * 2);
+            longitudes = Arrays.copyOf(longitudes, nodeCount * 2);
+        }
+        nodeIds[nodeCount] = nodeId;
+        latitudes[nodeCount] = latitude;
+        longitudes[nodeCount] = longitude;
+        nodeIndexById.put(nodeId, nodeCount);
+        return nodeCount++;
+    }
+
+    // Add a one-way segment between two nodes returned by addNode; lengths are in meters
+    public void addEdge(int fromNode, int toNode, float length) {
+        if (edgeCount == edgeSources.length) {
+            edgeSources = Arrays.copyOf(edgeSources, edgeCount * 2);
+            edgeTargets = Arrays.copyOf(edgeTargets, edgeCount * 2);
+            edgeLengths = Arrays.copyOf(edgeLengths, edgeCount * 2);
+        }
+        edgeSources[edgeCount] = fromNode;
+        edgeTargets[edgeCount] = toNode;
+        edgeLengths[edgeCount] = length;
+        edgeCount++;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    // Pack the nodes by OSM id and the segments into CSR arrays, keeping the order of the segments of each node
+    public Graph build() {
+        long[] keys = new long[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            keys[node] = ((long) nodeIds[node] << 32) | node;
+        }
+        Arrays.sort(keys);
+        int[] sortedIds = new int[nodeCount];
+        double[] sortedLatitudes = new double[nodeCount];
+        double[] sortedLongitudes = new double[nodeCount];
+        int[] newIndex = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            int node = (int) keys[i];
+            newIndex[node] = i;
+            sortedIds[i] = nodeIds[node];
+            sortedLatitudes[i] = latitudes[node];
+            sortedLongitudes[i] = longitudes[node];
+        }
+
+        int[] offsets = new int[nodeCount + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            offsets[newIndex[edgeSources[edge]] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+        int[] targets = new int[edgeCount];
+        float[] lengths = new float[edgeCount];
+        int[] next = Arrays.copyOf(offsets, nodeCount);
+        for (int edge = 0; edge < edgeCount; edge++) {
+            int position = next[newIndex[edgeSources[edge]]]++;
+            targets[position] = newIndex[edgeTargets[edge]];
+            lengths[position] = edgeLengths[edge];
+        }
+        return new Graph(sortedIds, sortedLatitudes, sortedLongitudes, offsets, targets, lengths);
+    }
+}
@@ -0,0 +1,52 @@
+package Algorithm.OSM;
+
+import Algorithm.Snapshot.SnapshotFormat;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static Algorithm.Snapshot.SnapshotFormat.*;
+
+// Binary on-disk copy of the landmark distance arrays, so the landmark searches only run again when the OSM extract
+// changes. Payload: the node count of the graph the arrays belong to, the landmark nodes, then for every landmark
+// its distances from and to every node.
+public class LandmarkSnapshot {
+    // Bump the version whenever the payload layout changes
+    private static final SnapshotFormat FORMAT = new SnapshotFormat(0x4C4D524B, 1, "landmark");
+
+    // Returns false if the snapshot could not be written; the landmarks themselves stay usable
+    public static boolean write(Landmarks landmarks, Path file, long sourceChecksum) {
+        ByteBuffer buffer = FORMAT.allocate(2 * 4 + 4L * landmarks.getLandmarkCount()
+                + 8L * landmarks.getLandmarkCount() * landmarks.getNodeCount(), sourceChecksum);
+        if (buffer == null) {
+            return false;
+        }
+        buffer.putInt(landmarks.getNodeCount());
+        buffer.putInt(landmarks.getLandmarkCount());
+        putInts(buffer, landmarks.getLandmarkNodes());
+        for (int landmark = 0; landmark < landmarks.getLandmarkCount(); landmark++) {
+            putFloats(buffer, landmarks.getFromLandmark(landmark));
+            putFloats(buffer, landmarks.getToLandmark(landmark));
+        }
+        return FORMAT.write(buffer, file);
+    }
+
+    // Returns null if the snapshot is missing, was computed from another OSM file or for a graph of another size, or
+    // is corrupt
+    public static Landmarks read(Path file, long sourceChecksum, int nodeCount) {
+        return FORMAT.read(file, sourceChecksum, buffer -> {
+            if (buffer.getInt() != nodeCount) {
+                return null;
+            }
+            int landmarkCount = buffer.getInt();
+            int[] landmarkNodes = getInts(buffer, landmarkCount);
+            float[][] fromLandmark = new float[landmarkCount][];
+            float[][] toLandmark = new float[landmarkCount][];
+            for (int landmark = 0; landmark < landmarkCount; landmark++) {
+                fromLandmark[landmark] = getFloats(buffer, nodeCount);
+                toLandmark[landmark] = getFloats(buffer, nodeCount);
+            }
+            return new Landmarks(nodeCount, landmarkNodes, fromLandmark, toLandmark);
+        });
+    }
+}
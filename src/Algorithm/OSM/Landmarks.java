@@ -0,0 +1,251 @@
+package Algorithm.OSM;
+
+import Algorithm.Queue.IndexedPriorityQueue;
+import Algorithm.Queue.QueueType;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Landmarks for ALT (A*, landmarks, triangle inequality) queries on the OSM walking graph. For every landmark L the
+// street distance from L to every node and from every node to L is stored, in meters, and the triangle inequality
+// turns them into a lower bound on the distance between any two nodes. Landmarks are picked far apart on the edge of
+// the network, where the bounds are tightest, and their distance arrays are searched in parallel.
+public class Landmarks {
+    public static final int DEFAULT_LANDMARK_COUNT = 8;
+    // Distances are stored as floats, which are within half a centimeter of the exact value on networks below
+    // 130 km across; lowering every bound by a centimeter keeps it a true lower bound
+    private static final double SLACK_METERS = 0.01;
+
+    private final int nodeCount;
+    private final int[] landmarkNodes;
+    // fromLandmark[l][v] is the distance from landmark l to node v, toLandmark[l][v] the one back, both
+    // Float.POSITIVE_INFINITY where there is no path
+    private final float[][] fromLandmark;
+    private final float[][] toLandmark;
+
+    Landmarks(int nodeCount, int[] landmarkNodes, float[][] fromLandmark, float[][] toLandmark) {
+        this.nodeCount = nodeCount;
+        this.landmarkNodes = landmarkNodes;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+
+    public static Landmarks build(Graph graph) {
+        return build(graph, DEFAULT_LANDMARK_COUNT, ForkJoinPool.commonPool());
+    }
+
+    // Pick up to count landmarks among the nodes reachable from the middle of the network, then run the forward and
+    // backward search of every landmark as separate tasks on the pool
+    public static Landmarks build(Graph graph, int count, ForkJoinPool pool) {
+        int[] landmarkNodes = selectLandmarks(graph, count);
+        int[] reverseOffsets = new int[graph.getNodeCount() + 1];
+        int[] reverseSources = new int[graph.getEdgeCount()];
+        float[] reverseLengths = new float[graph.getEdgeCount()];
+        reverseEdges(graph, reverseOffsets, reverseSources, reverseLengths);
+
+        float[][] fromLandmark = new float[landmarkNodes.length][];
+        float[][] toLandmark = new float[landmarkNodes.length][];
+        pool.invoke(new SearchRange(landmarkNodes, graph.getOffsets(), graph.getTargets(), graph.getLengths(), fromLandmark,
+                reverseOffsets, reverseSources, reverseLengths, toLandmark, 0, 2 * landmarkNodes.length));
+        return new Landmarks(graph.getNodeCount(), landmarkNodes, fromLandmark, toLandmark);
+    }
+
+    // Farthest-point selection by straight-line distance over the nodes reached from the node closest to the mean
+    // coordinate: the first landmark is the reached node farthest from that node, every next one the reached node
+    // farthest from all landmarks so far. Restricting to reached nodes keeps landmarks off small disconnected pieces.
+    private static int[] selectLandmarks(Graph graph, int count) {
+        if (graph.getNodeCount() == 0 || count <= 0) {
+            return new int[0];
+        }
+        double latitudeSum = 0;
+        double longitudeSum = 0;
+        for (int node = 0; node < graph.getNodeCount(); node++) {
+            latitudeSum += graph.getLatitude(node);
+            longitudeSum += graph.getLongitude(node);
+        }
+        int center = graph.findClosestNode(latitudeSum / graph.getNodeCount(), longitudeSum / graph.getNodeCount());
+        float[] reached = new float[graph.getNodeCount()];
+        search(center, graph.getOffsets(), graph.getTargets(), graph.getLengths(), reached);
+
+        // Squared equirectangular distances, which rank nodes the same as the haversine at city scale
+        double longitudeScale = Math.cos(Math.toRadians(graph.getLatitude(center)));
+        double[] nearestLandmark = new double[graph.getNodeCount()];
+        for (int node = 0; node < graph.getNodeCount(); node++) {
+            nearestLandmark[node] = reached[node] == Float.POSITIVE_INFINITY ? -1 : getSquaredDistance(graph, center, node, longitudeScale);
+        }
+        int[] landmarkNodes = new int[Math.min(count, graph.getNodeCount())];
+        int landmarkCount = 0;
+        while (landmarkCount < landmarkNodes.length) {
+            int farthest = 0;
+            for (int node = 1; node < graph.getNodeCount(); node++) {
+                if (nearestLandmark[node] > nearestLandmark[farthest]) {
+                    farthest = node;
+                }
+            }
+            if (nearestLandmark[farthest] <= 0) {
+                break;
+            }
+            landmarkNodes[landmarkCount++] = farthest;
+            for (int node = 0; node < graph.getNodeCount(); node++) {
+                nearestLandmark[node] = Math.min(nearestLandmark[node], getSquaredDistance(graph, farthest, node, longitudeScale));
+            }
+        }
+        return Arrays.copyOf(landmarkNodes, landmarkCount);
+    }
+
+    private static double getSquaredDistance(Graph graph, int from, int to, double longitudeScale) {
+        double latitude = graph.getLatitude(to) - graph.getLatitude(from);
+        double longitude = (graph.getLongitude(to) - graph.getLongitude(from)) * longitudeScale;
+        return latitude * latitude + longitude * longitude;
+    }
+
+    // The edges of the graph turned around, as CSR arrays indexed by their original target
+    private static void reverseEdges(Graph graph, int[] reverseOffsets, int[] reverseSources, float[] reverseLengths) {
+        for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+            reverseOffsets[graph.getTarget(edge) + 1]++;
+        }
+        for (int node = 0; node < graph.getNodeCount(); node++) {
+            reverseOffsets[node + 1] += reverseOffsets[node];
+        }
+        int[] next = Arrays.copyOf(reverseOffsets, graph.getNodeCount());
+        for (int node = 0; node < graph.getNodeCount(); node++) {
+            for (int edge = graph.getFirstEdge(node); edge < graph.getLastEdge(node); edge++) {
+                int position = next[graph.getTarget(edge)]++;
+                reverseSources[position] = node;
+                reverseLengths[position] = graph.getLength(edge);
+            }
+        }
+    }
+
+    // Plain one-to-all Dijkstra over CSR arrays, writing the distances from the start node into distances
+    private static void search(int startNode, int[] offsets, int[] targets, float[] lengths, float[] distances) {
+        double[] exact = new double[distances.length];
+        Arrays.fill(exact, Double.MAX_VALUE);
+        IndexedPriorityQueue priorityQueue = QueueType.DARY_HEAP.create(distances.length, 1.0);
+        exact[startNode] = 0.0;
+        priorityQueue.insertOrDecrease(startNode, 0.0);
+        while (!priorityQueue.isEmpty()) {
+            int current = priorityQueue.poll();
+            for (int edge = offsets[current]; edge < offsets[current + 1]; edge++) {
+                int adjacent = targets[edge];
+                double newDist = exact[current] + lengths[edge];
+                if (newDist < exact[adjacent]) {
+                    exact[adjacent] = newDist;
+                    priorityQueue.insertOrDecrease(adjacent, newDist);
+                }
+            }
+        }
+        for (int node = 0; node < distances.length; node++) {
+            distances[node] = exact[node] == Double.MAX_VALUE ? Float.POSITIVE_INFINITY : (float) exact[node];
+        }
+    }
+
+    // Splits the searches in halves until one is left: search i < landmarks is the forward search of landmark i,
+    // the others the backward searches
+    private static class SearchRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] landmarkNodes;
+        private final int[] forwardOffsets;
+        private final int[] forwardTargets;
+        private final float[] forwardLengths;
+        private final float[][] fromLandmark;
+        private final int[] reverseOffsets;
+        private final int[] reverseSources;
+        private final float[] reverseLengths;
+        private final float[][] toLandmark;
+        private final int from;
+        private final int to;
+
+        SearchRange(int[] landmarkNodes, int[] forwardOffsets, int[] forwardTargets, float[] forwardLengths, float[][] fromLandmark,
+                    int[] reverseOffsets, int[] reverseSources, float[] reverseLengths, float[][] toLandmark, int from, int to) {
+            this.landmarkNodes = landmarkNodes;
+            this.forwardOffsets = forwardOffsets;
+            this.forwardTargets = forwardTargets;
+            this.forwardLengths = forwardLengths;
+            this.fromLandmark = fromLandmark;
+            this.reverseOffsets = reverseOffsets;
+            this.reverseSources = reverseSources;
+            this.reverseLengths = reverseLengths;
+            this.toLandmark = toLandmark;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SearchRange(landmarkNodes, forwardOffsets, forwardTargets, forwardLengths, fromLandmark,
+                                reverseOffsets, reverseSources, reverseLengths, toLandmark, from, mid),
+                        new SearchRange(landmarkNodes, forwardOffsets, forwardTargets, forwardLengths, fromLandmark,
+                                reverseOffsets, reverseSources, reverseLengths, toLandmark, mid, to));
+            } else if (to - from == 1) {
+                int landmarkCount = landmarkNodes.length;
+                int nodeCount = forwardOffsets.length - 1;
+                if (from < landmarkCount) {
+                    fromLandmark[from] = new float[nodeCount];
+                    search(landmarkNodes[from], forwardOffsets, forwardTargets, forwardLengths, fromLandmark[from]);
+                } else {
+                    toLandmark[from - landmarkCount] = new float[nodeCount];
+                    search(landmarkNodes[from - landmarkCount], reverseOffsets, reverseSources, reverseLengths, toLandmark[from - landmarkCount]);
+                }
+            }
+        }
+    }
+
+    // Lower bound on the street distance from node to target in meters, Double.MAX_VALUE if some landmark proves
+    // that target cannot be reached from node
+    public double getLowerBound(int node, int target) {
+        double bound = 0.0;
+        for (int landmark = 0; landmark < landmarkNodes.length; landmark++) {
+            // d(node, target) >= d(L, target) - d(L, node); L reaching node but not target means node cannot either
+            float fromToTarget = fromLandmark[landmark][target];
+            float fromToNode = fromLandmark[landmark][node];
+            if (fromToTarget != Float.POSITIVE_INFINITY) {
+                if (fromToNode != Float.POSITIVE_INFINITY) {
+                    bound = Math.max(bound, fromToTarget - fromToNode);
+                }
+            } else if (fromToNode != Float.POSITIVE_INFINITY) {
+                return Double.MAX_VALUE;
+            }
+            // d(node, target) >= d(node, L) - d(target, L); target reaching L but not node means node cannot reach target
+            float nodeToLandmark = toLandmark[landmark][node];
+            float targetToLandmark = toLandmark[landmark][target];
+            if (nodeToLandmark != Float.POSITIVE_INFINITY) {
+                if (targetToLandmark != Float.POSITIVE_INFINITY) {
+                    bound = Math.max(bound, nodeToLandmark - targetToLandmark);
+                }
+            } else if (targetToLandmark != Float.POSITIVE_INFINITY) {
+                return Double.MAX_VALUE;
+            }
+        }
+        return Math.max(0.0, bound - SLACK_METERS);
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getLandmarkCount() {
+        return landmarkNodes.length;
+    }
+
+    public int getLandmarkNode(int landmark) {
+        return landmarkNodes[landmark];
+    }
+
+    // Raw arrays, read by LandmarkSnapshot
+    int[] getLandmarkNodes() {
+        return landmarkNodes;
+    }
+
+    float[] getFromLandmark(int landmark) {
+        return fromLandmark[landmark];
+    }
+
+    float[] getToLandmark(int landmark) {
+        return toLandmark[landmark];
+    }
+}
@@ -0,0 +1,131 @@
+package Algorithm.OSM;
+
+import Algorithm.Distance.WalkingDistanceOracle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+// Process-wide OSM walking graph. It is loaded once, on a background thread, from the binary snapshot next to the
+// GraphHopper working directory, and only imported from the OSM extract when that snapshot is missing or stale.
+// Every caller gets the same immutable Graph, and the contraction hierarchy over it is built once on first use.
+public class OsmGraphService {
+    public static final Path SNAPSHOT_FILE = Paths.get("src", "osm_walking_graph.bin");
+    public static final Path LANDMARK_FILE = Paths.get("src", "osm_landmarks.bin");
+    public static final long UNKNOWN_CHECKSUM = 0;
+
+    private static CompletableFuture<Graph> graphFuture;
+    private static ContractionHierarchy contractionHierarchy;
+    private static WalkingDistanceOracle walkingDistanceOracle;
+    private static Landmarks landmarks;
+
+    // Start loading the graph if no load has been started yet; returns without waiting for it
+    public static synchronized CompletableFuture<Graph> preload() {
+        if (graphFuture == null) {
+            long sourceChecksum = getSourceChecksum();
+            graphFuture = CompletableFuture.supplyAsync(() -> loadGraph(SNAPSHOT_FILE, sourceChecksum, OsmParser::importGraph), task -> {
+                Thread loader = new Thread(task, "osm-graph-loader");
+                loader.setDaemon(true);
+                loader.start();
+            });
+        }
+        return graphFuture;
+    }
+
+    // The shared graph, waiting for the load to finish if necessary. A failed load is retried by the next call.
+    public static Graph getGraph() {
+        CompletableFuture<Graph> future = preload();
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            synchronized (OsmGraphService.class) {
+                if (graphFuture == future) {
+                    graphFuture = null;
+                }
+            }
+            throw e;
+        }
+    }
+
+    public static synchronized ContractionHierarchy getContractionHierarchy() {
+        if (contractionHierarchy == null) {
+            contractionHierarchy = ContractionHierarchy.build(getGraph());
+        }
+        return contractionHierarchy;
+    }
+
+    // One oracle for the whole process, so every calculator shares the cached node distances
+    public static synchronized WalkingDistanceOracle getWalkingDistanceOracle() {
+        if (walkingDistanceOracle == null) {
+            walkingDistanceOracle = new WalkingDistanceOracle(getContractionHierarchy());
+        }
+        return walkingDistanceOracle;
+    }
+
+    // Landmarks for ALT queries on the shared graph, read from their snapshot or computed and written once
+    public static synchronized Landmarks getLandmarks() {
+        if (landmarks == null) {
+            Graph graph = getGraph();
+            landmarks = loadLandmarks(LANDMARK_FILE, getSourceChecksum(), graph, () -> Landmarks.build(graph));
+        }
+        return landmarks;
+    }
+
+    public static synchronized void clearCache() {
+        graphFuture = null;
+        contractionHierarchy = null;
+        walkingDistanceOracle = null;
+        landmarks = null;
+    }
+
+    // Read the snapshot if it was extracted from the same source, otherwise import the graph and write a new
+    // snapshot. Nothing is read or written when the source checksum is unknown.
+    public static Graph loadGraph(Path snapshotFile, long sourceChecksum, Supplier<Graph> importer) {
+        if (sourceChecksum != UNKNOWN_CHECKSUM) {
+            Graph graph = OsmGraphSnapshot.read(snapshotFile, sourceChecksum);
+            if (graph != null) {
+                return graph;
+            }
+        }
+        Graph graph = importer.get();
+        if (sourceChecksum != UNKNOWN_CHECKSUM) {
+            OsmGraphSnapshot.write(graph, snapshotFile, sourceChecksum);
+        }
+        return graph;
+    }
+
+    // Checksum of the OSM extract the shared graph is imported from
+    public static long getSourceChecksum() {
+        return getSourceChecksum(Paths.get(OsmParser.PATH_TO_OSM_FILE));
+    }
+
+    // Read the landmarks if they were computed for the same source and graph, otherwise compute them and write a new
+    // snapshot. Nothing is read or written when the source checksum is unknown.
+    public static Landmarks loadLandmarks(Path snapshotFile, long sourceChecksum, Graph graph, Supplier<Landmarks> builder) {
+        if (sourceChecksum != UNKNOWN_CHECKSUM) {
+            Landmarks landmarks = LandmarkSnapshot.read(snapshotFile, sourceChecksum, graph.getNodeCount());
+            if (landmarks != null) {
+                return landmarks;
+            }
+        }
+        Landmarks landmarks = builder.get();
+        if (sourceChecksum != UNKNOWN_CHECKSUM) {
+            LandmarkSnapshot.write(landmarks, snapshotFile, sourceChecksum);
+        }
+        return landmarks;
+    }
+
+    // Size and modification time of the OSM extract, UNKNOWN_CHECKSUM if it cannot be read
+    public static long getSourceChecksum(Path osmFile) {
+        try {
+            long checksum = 31 * Files.size(osmFile) + Files.getLastModifiedTime(osmFile).toMillis();
+            return checksum == UNKNOWN_CHECKSUM ? 1 : checksum;
+        } catch (IOException e) {
+            return UNKNOWN_CHECKSUM;
+        }
+    }
+}
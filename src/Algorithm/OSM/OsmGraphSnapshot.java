@@ -0,0 +1,49 @@
+package Algorithm.OSM;
+
+import Algorithm.Snapshot.SnapshotFormat;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static Algorithm.Snapshot.SnapshotFormat.*;
+
+// Binary on-disk copy of the OSM walking graph, so later runs read the extracted network instead of importing the
+// OSM extract through GraphHopper again. The checksum in the header covers the extract. Payload: the counts, node
+// ids, coordinates, then the CSR offsets, targets and lengths.
+public class OsmGraphSnapshot {
+    // Bump the version whenever the payload layout changes
+    private static final SnapshotFormat FORMAT = new SnapshotFormat(0x4F534D47, 1, "OSM graph");
+
+    // Returns false if the snapshot could not be written; the graph itself stays usable
+    public static boolean write(Graph graph, Path file, long sourceChecksum) {
+        ByteBuffer buffer = FORMAT.allocate(2 * 4 + 4L * graph.getNodeCount() + 16L * graph.getNodeCount()
+                + 4L * (graph.getNodeCount() + 1) + 8L * graph.getEdgeCount(), sourceChecksum);
+        if (buffer == null) {
+            return false;
+        }
+        buffer.putInt(graph.getNodeCount());
+        buffer.putInt(graph.getEdgeCount());
+        putInts(buffer, graph.getNodeIds());
+        putDoubles(buffer, graph.getLatitudes());
+        putDoubles(buffer, graph.getLongitudes());
+        putInts(buffer, graph.getOffsets());
+        putInts(buffer, graph.getTargets());
+        putFloats(buffer, graph.getLengths());
+        return FORMAT.write(buffer, file);
+    }
+
+    // Returns null if the snapshot is missing, was extracted from another OSM file or is corrupt
+    public static Graph read(Path file, long sourceChecksum) {
+        return FORMAT.read(file, sourceChecksum, buffer -> {
+            int nodeCount = buffer.getInt();
+            int edgeCount = buffer.getInt();
+            int[] nodeIds = getInts(buffer, nodeCount);
+            double[] latitudes = getDoubles(buffer, nodeCount);
+            double[] longitudes = getDoubles(buffer, nodeCount);
+            int[] offsets = getInts(buffer, nodeCount + 1);
+            int[] targets = getInts(buffer, edgeCount);
+            float[] lengths = getFloats(buffer, edgeCount);
+            return new Graph(nodeIds, latitudes, longitudes, offsets, targets, lengths);
+        });
+    }
+}
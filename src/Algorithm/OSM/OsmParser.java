@@ -1,51 +1,54 @@
 package Algorithm.OSM;
 
+import Algorithm.Distance.WalkingDistanceOracle;
+
 import com.graphhopper.GraphHopper;
 import com.graphhopper.reader.osm.GraphHopperOSM;
 import com.graphhopper.routing.util.AllEdgesIterator;
 import com.graphhopper.routing.util.EncodingManager;
 import com.graphhopper.storage.GraphHopperStorage;
 import com.graphhopper.storage.NodeAccess;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 public class OsmParser {
 
-    private static final String PATH_TO_OSM_FILE = "src/resources/Maastricht.osm.pbf";
+    static final String PATH_TO_OSM_FILE = "src/resources/Maastricht.osm.pbf";
     private static final String PATH_TO_GRAPHHOPPER_WORKINGDIR = "src/graphhopper_working_directory";
 
-    private GraphHopper hopper;
-    private Graph graph;
-
+    // Cheap to construct: the graph comes from OsmGraphService, which loads it at most once per process
     public OsmParser() {
-        hopper = getHopper();
-        graph = createGraph();
     }
 
-    private GraphHopper getHopper() {
-        if (hopper == null) {
-            hopper = new GraphHopperOSM().forServer();
-            hopper.setDataReaderFile(PATH_TO_OSM_FILE);
-            hopper.setGraphHopperLocation(PATH_TO_GRAPHHOPPER_WORKINGDIR);
-            hopper.setEncodingManager(EncodingManager.create(null,"car,bike,foot"));
-            //hopper.setEncodingManager(new EncodingManager("car, bike"));
-            hopper.importOrLoad();
-            
-        }
-        return hopper;
+    public Graph createGraph() {
+        return OsmGraphService.getGraph();
     }
 
-    public Graph createGraph() {
-        if (graph != null) {
-            return graph;
-        }
+    public ContractionHierarchy getContractionHierarchy() {
+        return OsmGraphService.getContractionHierarchy();
+    }
+
+    public WalkingDistanceOracle getWalkingDistanceOracle() {
+        return OsmGraphService.getWalkingDistanceOracle();
+    }
+
+    public Landmarks getLandmarks() {
+        return OsmGraphService.getLandmarks();
+    }
 
-        hopper = getHopper();
+    private static GraphHopper getHopper() {
+        GraphHopper hopper = new GraphHopperOSM().forServer();
+        hopper.setDataReaderFile(PATH_TO_OSM_FILE);
+        hopper.setGraphHopperLocation(PATH_TO_GRAPHHOPPER_WORKINGDIR);
+        hopper.setEncodingManager(EncodingManager.create(null,"car,bike,foot"));
+        //hopper.setEncodingManager(new EncodingManager("car, bike"));
+        hopper.importOrLoad();
+        return hopper;
+    }
 
-        Map<Integer, Coordinate> coordinates = new HashMap<>();
-        Map<Integer, List<Edge>> adjacencyList = new HashMap<>();
+    // Import the walking network from the OSM extract; only OsmGraphService calls this, when it has no valid snapshot
+    static Graph importGraph() {
+        GraphHopper hopper = getHopper();
+
+        GraphBuilder builder = new GraphBuilder();
         try {
             GraphHopperStorage graphHopperStorage = hopper.getGraphHopperStorage();
             NodeAccess nodeAccess = graphHopperStorage.getNodeAccess();
@@ -55,28 +58,19 @@ public class OsmParser {
                 int sourceNodeId = edgeIterator.getBaseNode();
                 int targetNodeId = edgeIterator.getAdjNode();
 
-                double sourceLat = nodeAccess.getLat(sourceNodeId);
-                double sourceLon = nodeAccess.getLon(sourceNodeId);
-                Coordinate source = new Coordinate(sourceNodeId, sourceLat, sourceLon);
-
-                double targetLat = nodeAccess.getLat(targetNodeId);
-                double targetLon = nodeAccess.getLon(targetNodeId);
-                Coordinate target = new Coordinate(targetNodeId, targetLat, targetLon);
-
-                Edge edge = new Edge(targetNodeId, target, edgeIterator.getDistance());
-                adjacencyList.computeIfAbsent(sourceNodeId, k -> new ArrayList<>()).add(edge);
-
-                Edge reverseEdge = new Edge(sourceNodeId, source, edgeIterator.getDistance());
-                adjacencyList.computeIfAbsent(targetNodeId, k -> new ArrayList<>()).add(reverseEdge);
+                int source = builder.addNode(sourceNodeId, nodeAccess.getLat(sourceNodeId), nodeAccess.getLon(sourceNodeId));
+                int target = builder.addNode(targetNodeId, nodeAccess.getLat(targetNodeId), nodeAccess.getLon(targetNodeId));
 
-                coordinates.putIfAbsent(sourceNodeId, source);
-                coordinates.putIfAbsent(targetNodeId, target);
+                // Walking ignores one-way streets, so every segment is added in both directions
+                float length = (float) edgeIterator.getDistance();
+                builder.addEdge(source, target, length);
+                builder.addEdge(target, source, length);
             }
         } finally {
             hopper.close();
         }
 
-        return new Graph(coordinates, adjacencyList);
+        return builder.build();
     }
 
 }
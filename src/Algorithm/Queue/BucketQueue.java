@@ -0,0 +1,165 @@
+package Algorithm.Queue;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+// Monotone bucket queue (Dial's algorithm) for small integer keys such as minutes. Every bucket covers bucketWidth
+// key units and is an intrusive doubly linked list, so insert and decrease-key are O(1) and poll only moves forward.
+// Keys may never fall below the bucket of the last polled element until the queue is cleared. Elements that share a bucket come out in
+// no particular order, so with bucketWidth > 1 a search must re-relax vertices that are improved after being polled.
+public class BucketQueue implements IndexedPriorityQueue {
+    private static final int NONE = -1;
+
+    private final double bucketWidth;
+    private final int[] next;
+    private final int[] previous;
+    private final int[] elementBuckets;
+    private final double[] keys;
+    private int[] heads = new int[64];
+    private int firstBucket;
+    private int currentBucket;
+    private int lastBucket;
+    private int polledBucket = Integer.MIN_VALUE;
+    private int size;
+
+    // Constructor
+    public BucketQueue(int capacity, double bucketWidth) {
+        if (bucketWidth <= 0) {
+            throw new IllegalArgumentException("Bucket width must be positive: " + bucketWidth);
+        }
+        this.bucketWidth = bucketWidth;
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.elementBuckets = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(elementBuckets, NONE);
+        Arrays.fill(heads, NONE);
+    }
+
+    @Override
+    public void insertOrDecrease(int element, double key) {
+        int bucket = (int) Math.floor(key / bucketWidth);
+        if (bucket < polledBucket) {
+            throw new IllegalArgumentException("Key " + key + " is below the last polled bucket of a monotone queue");
+        }
+        if (size == 0) {
+            firstBucket = bucket;
+            currentBucket = bucket;
+            lastBucket = bucket;
+        } else if (bucket < firstBucket) {
+            rebase(bucket);
+        }
+        currentBucket = Math.min(currentBucket, bucket);
+
+        if (elementBuckets[element] != NONE) {
+            if (key >= keys[element]) {
+                return;
+            }
+            unlink(element);
+            size--;
+        }
+        keys[element] = key;
+        link(element, bucket);
+        size++;
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("Bucket queue is empty");
+        }
+        advance();
+        int element = heads[currentBucket - firstBucket];
+        unlink(element);
+        size--;
+        polledBucket = currentBucket;
+        return element;
+    }
+
+    @Override
+    public double peekKey() {
+        if (size == 0) {
+            throw new NoSuchElementException("Bucket queue is empty");
+        }
+        advance();
+        return keys[heads[currentBucket - firstBucket]];
+    }
+
+    @Override
+    public boolean contains(int element) {
+        return elementBuckets[element] != NONE;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        polledBucket = Integer.MIN_VALUE;
+        if (size == 0) {
+            return;
+        }
+        for (int bucket = currentBucket; bucket <= lastBucket; bucket++) {
+            for (int element = heads[bucket - firstBucket]; element != NONE; element = next[element]) {
+                elementBuckets[element] = NONE;
+            }
+            heads[bucket - firstBucket] = NONE;
+        }
+        size = 0;
+    }
+
+    // Move the cursor to the first non-empty bucket
+    private void advance() {
+        while (heads[currentBucket - firstBucket] == NONE) {
+            currentBucket++;
+        }
+    }
+
+    // Shift the bucket array so it starts at a lower bucket; only happens before the first poll
+    private void rebase(int bucket) {
+        int shift = firstBucket - bucket;
+        int[] shifted = new int[Math.max(heads.length, lastBucket - bucket + 1)];
+        Arrays.fill(shifted, NONE);
+        System.arraycopy(heads, 0, shifted, shift, Math.min(heads.length, shifted.length - shift));
+        heads = shifted;
+        firstBucket = bucket;
+    }
+
+    private void link(int element, int bucket) {
+        int slot = bucket - firstBucket;
+        if (slot >= heads.length) {
+            int length = heads.length;
+            heads = Arrays.copyOf(heads, Math.max(length * 2, slot + 1));
+            Arrays.fill(heads, length, heads.length, NONE);
+        }
+        int head = heads[slot];
+        next[element] = head;
+        previous[element] = NONE;
+        if (head != NONE) {
+            previous[head] = element;
+        }
+        heads[slot] = element;
+        elementBuckets[element] = bucket;
+        lastBucket = Math.max(lastBucket, bucket);
+    }
+
+    private void unlink(int element) {
+        int slot = elementBuckets[element] - firstBucket;
+        if (previous[element] != NONE) {
+            next[previous[element]] = next[element];
+        } else {
+            heads[slot] = next[element];
+        }
+        if (next[element] != NONE) {
+            previous[next[element]] = previous[element];
+        }
+        elementBuckets[element] = NONE;
+    }
+}
@@ -0,0 +1,131 @@
+package Algorithm.Queue;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+// Indexed d-ary min-heap backed by primitive arrays. positions maps every element to its heap slot (-1 if absent),
+// so decrease-key sifts the existing entry up instead of adding a duplicate.
+public class DaryHeap implements IndexedPriorityQueue {
+    public static final int DEFAULT_ARITY = 4;
+
+    private final int arity;
+    private final int[] heap;
+    private final int[] positions;
+    private final double[] keys;
+    private int size;
+
+    // Constructor
+    public DaryHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2: " + arity);
+        }
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    @Override
+    public void insertOrDecrease(int element, double key) {
+        int position = positions[element];
+        if (position == -1) {
+            keys[element] = key;
+            heap[size] = element;
+            positions[element] = size;
+            siftUp(size++);
+        } else if (key < keys[element]) {
+            keys[element] = key;
+            siftUp(position);
+        }
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    @Override
+    public double peekKey() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return keys[heap[0]];
+    }
+
+    @Override
+    public boolean contains(int element) {
+        return positions[element] != -1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        int element = heap[position];
+        double key = keys[element];
+        while (position > 0) {
+            int parent = (position - 1) / arity;
+            if (keys[heap[parent]] <= key) {
+                break;
+            }
+            heap[position] = heap[parent];
+            positions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = element;
+        positions[element] = position;
+    }
+
+    private void siftDown(int position) {
+        int element = heap[position];
+        double key = keys[element];
+        while (true) {
+            int firstChild = position * arity + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            int lastChild = Math.min(firstChild + arity, size);
+            int smallest = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (keys[heap[child]] < keys[heap[smallest]]) {
+                    smallest = child;
+                }
+            }
+            if (keys[heap[smallest]] >= key) {
+                break;
+            }
+            heap[position] = heap[smallest];
+            positions[heap[position]] = position;
+            position = smallest;
+        }
+        heap[position] = element;
+        positions[element] = position;
+    }
+}
@@ -0,0 +1,23 @@
+package Algorithm.Queue;
+
+// Min-priority queue over the elements 0 .. capacity - 1 where every element is stored at most once
+// and its key can be lowered in place instead of pushing a duplicate entry.
+public interface IndexedPriorityQueue {
+    // Insert the element, or lower its key if it is already queued; a higher key is ignored
+    void insertOrDecrease(int element, double key);
+
+    // Remove and return the element with the smallest key
+    int poll();
+
+    // Key of the element poll() would return next
+    double peekKey();
+
+    boolean contains(int element);
+
+    boolean isEmpty();
+
+    int size();
+
+    // Remove all elements so the queue can be reused for the next search
+    void clear();
+}
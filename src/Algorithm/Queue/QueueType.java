@@ -0,0 +1,18 @@
+package Algorithm.Queue;
+
+// Priority queue implementations the search engines can choose from
+public enum QueueType {
+    DARY_HEAP,
+    BUCKET_QUEUE;
+
+    // Create a queue for elements 0 .. capacity - 1; bucketWidth is only used by the bucket queue
+    public IndexedPriorityQueue create(int capacity, double bucketWidth) {
+        switch (this) {
+            case BUCKET_QUEUE:
+                return new BucketQueue(capacity, bucketWidth);
+            case DARY_HEAP:
+            default:
+                return new DaryHeap(capacity, DaryHeap.DEFAULT_ARITY);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package Algorithm.Raptor;
+
+import Algorithm.Dijkstra.DijkstraResult;
+
+// One Pareto-optimal journey of a multi-criteria search: no other journey arrives earlier, uses fewer trips
+// and walks less at the same time. Times are minutes since midnight.
+public class Journey {
+    private final int departureTime;
+    private final int arrivalTime;
+    private final int trips;
+    private final int walkingMinutes;
+    private final DijkstraResult itinerary;
+
+    public Journey(int departureTime, int arrivalTime, int trips, int walkingMinutes, DijkstraResult itinerary) {
+        this.departureTime = departureTime;
+        this.arrivalTime = arrivalTime;
+        this.trips = trips;
+        this.walkingMinutes = walkingMinutes;
+        this.itinerary = itinerary;
+    }
+
+    public int getDepartureTime() {
+        return departureTime;
+    }
+
+    public int getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public int getTravelTime() {
+        return arrivalTime - departureTime;
+    }
+
+    public int getTrips() {
+        return trips;
+    }
+
+    // Changes between trips; a journey walking all the way or using one trip has none
+    public int getTransfers() {
+        return Math.max(0, trips - 1);
+    }
+
+    public int getWalkingMinutes() {
+        return walkingMinutes;
+    }
+
+    // Stop-by-stop path and trips, in the form the other routing engines report
+    public DijkstraResult getItinerary() {
+        return itinerary;
+    }
+
+    @Override
+    public String toString() {
+        return getTravelTime() + " min, " + getTransfers() + (getTransfers() == 1 ? " transfer, " : " transfers, ")
+                + walkingMinutes + " min walking";
+    }
+}
@@ -0,0 +1,391 @@
+package Algorithm.Raptor;
+
+import Algorithm.Dijkstra.DijkstraResult;
+import Algorithm.Transit.Timetable;
+import Algorithm.Transit.TimetableLoader;
+import Data.DataGetter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+// Multi-criteria RAPTOR. Instead of one arrival per stop and round, every stop keeps a bag of labels that are
+// Pareto-optimal in arrival time and walking minutes; the round a label is created in is its number of trips.
+// One search returns every journey trading off arrival, transfers and walking. Bags hold at most maxBagSize labels;
+// when one overflows the latest arrival is dropped, so the fastest journey is always found.
+public class McRaptor {
+    public static final int UNREACHED = Integer.MAX_VALUE;
+    private static final int DEFAULT_MAX_ROUNDS = 8;
+    private static final int DEFAULT_MAX_BAG_SIZE = 8;
+
+    private static final int LABEL_ACCESS = 0;
+    private static final int LABEL_TRANSIT = 1;
+    private static final int LABEL_WALK = 2;
+
+    private final Timetable timetable;
+    private final int maxRounds;
+    private final int maxBagSize;
+
+    // Label pool, reset on every search. Transit labels remember the trip and positions, walk labels their source stop.
+    private int[] labelArrivals = new int[1024];
+    private int[] labelWalking = new int[1024];
+    private int[] labelKinds = new int[1024];
+    private int[] labelParents = new int[1024];
+    private int[] labelStops = new int[1024];
+    private int[] labelTrips = new int[1024];
+    private int[] labelBoardPositions = new int[1024];
+    private int[] labelAlightPositions = new int[1024];
+    private int labelCount;
+
+    // Bag of stop s in round k: bagLabels[k][s * maxBagSize .. s * maxBagSize + bagSizes[k][s])
+    private final int[][] bagLabels;
+    private final int[][] bagSizes;
+    private final boolean[] marked;
+    private final int[] routeEarliestPosition;
+
+    // Route bag while scanning one route: the trip each label rides, where it boarded and its walking so far
+    private final int[] routeTrips;
+    private final int[] routeBoardPositions;
+    private final int[] routeWalking;
+    private final int[] routeParents;
+
+    // Pareto set at the target over arrival, trips and walking
+    private final List<int[]> targetLabels = new ArrayList<>();
+
+    private int departureTime;
+    private int[] egressMinutes;
+
+    // Constructor
+    public McRaptor(Timetable timetable) {
+        this(timetable, DEFAULT_MAX_ROUNDS, DEFAULT_MAX_BAG_SIZE);
+    }
+
+    public McRaptor(Timetable timetable, int maxRounds, int maxBagSize) {
+        int stopCount = timetable.getStopCount();
+        this.timetable = timetable;
+        this.maxRounds = maxRounds;
+        this.maxBagSize = maxBagSize;
+        this.bagLabels = new int[maxRounds][stopCount * maxBagSize];
+        this.bagSizes = new int[maxRounds][stopCount];
+        this.marked = new boolean[stopCount];
+        this.routeEarliestPosition = new int[timetable.getRouteCount()];
+        this.routeTrips = new int[maxBagSize];
+        this.routeBoardPositions = new int[maxBagSize];
+        this.routeWalking = new int[maxBagSize];
+        this.routeParents = new int[maxBagSize];
+    }
+
+    // Main multi-criteria method: every Pareto-optimal journey, fastest first
+    public static List<Journey> mainMcRaptor(String originPostcode, String destinationPostcode, double radius, String time) {
+        Instant startTime = Instant.now();
+
+        DataGetter dataGetter = new DataGetter();
+        double[] originCoordinates = dataGetter.getLocationFromApiReader(originPostcode);
+        double[] destinationCoordinates = dataGetter.getLocationFromApiReader(destinationPostcode);
+        if (originCoordinates == null || destinationCoordinates == null) {
+            throw new IllegalArgumentException("Invalid postal code: " + (originCoordinates == null ? originPostcode : destinationPostcode));
+        }
+
+        Timetable timetable = TimetableLoader.getTimetable(dataGetter);
+        int[] accessMinutes = timetable.computeWalkingMinutes(originCoordinates[0], originCoordinates[1]);
+        int[] egressMinutes = timetable.computeWalkingMinutes(destinationCoordinates[0], destinationCoordinates[1]);
+
+        McRaptor mcRaptor = new McRaptor(timetable);
+        mcRaptor.execute(accessMinutes, egressMinutes, Timetable.convertTimeToMinutes(time));
+        List<Journey> journeys = mcRaptor.getJourneys(originPostcode, destinationPostcode);
+
+        Duration timeElapsed = Duration.between(startTime, Instant.now());
+        System.out.println("McRAPTOR journeys from " + originPostcode + " to " + destinationPostcode + ":");
+        for (Journey journey : journeys) {
+            System.out.println(journey + ": " + journey.getItinerary().getPath());
+        }
+        System.out.println("Time taken for execution: " + timeElapsed.toMillis() + " milliseconds");
+
+        return journeys;
+    }
+
+    // Run the search from the access stops towards the egress stops
+    public void execute(int[] accessMinutes, int[] egressMinutes, int departureTime) {
+        this.departureTime = departureTime;
+        this.egressMinutes = egressMinutes;
+        this.labelCount = 0;
+        this.targetLabels.clear();
+        for (int round = 0; round < maxRounds; round++) {
+            Arrays.fill(bagSizes[round], 0);
+        }
+        Arrays.fill(marked, false);
+        Arrays.fill(routeEarliestPosition, -1);
+
+        int stopCount = timetable.getStopCount();
+        for (int stop = 0; stop < stopCount; stop++) {
+            if (accessMinutes[stop] != UNREACHED) {
+                if (addToBag(0, stop, LABEL_ACCESS, departureTime + accessMinutes[stop], accessMinutes[stop], -1) != -1) {
+                    marked[stop] = true;
+                }
+            }
+        }
+        updateTarget(0);
+
+        List<Integer> queuedRoutes = new ArrayList<>();
+        List<Integer> transitStops = new ArrayList<>();
+        for (int round = 1; round < maxRounds; round++) {
+            queuedRoutes.clear();
+            for (int stop = 0; stop < stopCount; stop++) {
+                if (!marked[stop]) {
+                    continue;
+                }
+                marked[stop] = false;
+                for (int i = timetable.getStopRouteStart(stop); i < timetable.getStopRouteEnd(stop); i++) {
+                    int route = timetable.getStopRoute(i);
+                    int position = timetable.getStopRoutePosition(i);
+                    if (routeEarliestPosition[route] == -1) {
+                        queuedRoutes.add(route);
+                        routeEarliestPosition[route] = position;
+                    } else if (position < routeEarliestPosition[route]) {
+                        routeEarliestPosition[route] = position;
+                    }
+                }
+            }
+            if (queuedRoutes.isEmpty()) {
+                break;
+            }
+
+            transitStops.clear();
+            for (int route : queuedRoutes) {
+                scanRoute(round, route, transitStops);
+                routeEarliestPosition[route] = -1;
+            }
+            relaxFootpaths(round, transitStops);
+            updateTarget(round);
+        }
+    }
+
+    // Carry the route bag along the route: alight every label at each stop, then board the labels of the previous round
+    private void scanRoute(int round, int route, List<Integer> transitStops) {
+        int routeBagSize = 0;
+        int stopCount = timetable.getRouteStopCount(route);
+        for (int position = routeEarliestPosition[route]; position < stopCount; position++) {
+            int stop = timetable.getRouteStop(route, position);
+
+            for (int i = 0; i < routeBagSize; i++) {
+                int label = addToBag(round, stop, LABEL_TRANSIT, timetable.getArrival(routeTrips[i], position), routeWalking[i], routeParents[i]);
+                if (label != -1) {
+                    labelTrips[label] = routeTrips[i];
+                    labelBoardPositions[label] = routeBoardPositions[i];
+                    labelAlightPositions[label] = position;
+                    if (!marked[stop]) {
+                        transitStops.add(stop);
+                    }
+                    marked[stop] = true;
+                }
+            }
+
+            int offset = stop * maxBagSize;
+            for (int i = 0; i < bagSizes[round - 1][stop]; i++) {
+                int previous = bagLabels[round - 1][offset + i];
+                int trip = timetable.findEarliestTrip(route, position, labelArrivals[previous]);
+                if (trip != -1) {
+                    routeBagSize = addToRouteBag(routeBagSize, trip, position, labelWalking[previous], previous);
+                }
+            }
+        }
+    }
+
+    // Walk from every stop reached by transit in this round
+    private void relaxFootpaths(int round, List<Integer> transitStops) {
+        for (int stop : transitStops) {
+            int offset = stop * maxBagSize;
+            int[] transitLabels = Arrays.copyOfRange(bagLabels[round], offset, offset + bagSizes[round][stop]);
+            for (int transitLabel : transitLabels) {
+                if (labelKinds[transitLabel] != LABEL_TRANSIT) {
+                    continue;
+                }
+                for (int i = timetable.getFootpathStart(stop); i < timetable.getFootpathEnd(stop); i++) {
+                    int target = timetable.getFootpathTarget(i);
+                    int minutes = timetable.getFootpathMinutes(i);
+                    if (addToBag(round, target, LABEL_WALK, labelArrivals[transitLabel] + minutes, labelWalking[transitLabel] + minutes, transitLabel) != -1) {
+                        marked[target] = true;
+                    }
+                }
+            }
+        }
+    }
+
+    // Add a label to the bag of a stop unless a label of this or an earlier round, or a journey already at the target,
+    // is at least as good in both arrival and walking. Dominance is checked on the candidate values, so the label is
+    // only allocated in the pool once it is kept. Returns the new label, or -1 if the candidate was dominated.
+    private int addToBag(int round, int stop, int kind, int arrival, int walking, int parent) {
+        for (int[] target : targetLabels) {
+            if (target[0] <= arrival && target[2] <= walking) {
+                return -1;
+            }
+        }
+        int offset = stop * maxBagSize;
+        for (int k = 0; k <= round; k++) {
+            for (int i = 0; i < bagSizes[k][stop]; i++) {
+                int other = bagLabels[k][offset + i];
+                if (labelArrivals[other] <= arrival && labelWalking[other] <= walking) {
+                    return -1;
+                }
+            }
+        }
+
+        int[] bag = bagLabels[round];
+        int size = 0;
+        int latest = -1;
+        for (int i = 0; i < bagSizes[round][stop]; i++) {
+            int other = bag[offset + i];
+            if (labelArrivals[other] >= arrival && labelWalking[other] >= walking) {
+                continue;
+            }
+            bag[offset + size] = other;
+            if (latest == -1 || labelArrivals[other] > labelArrivals[bag[offset + latest]]) {
+                latest = size;
+            }
+            size++;
+        }
+        if (size == maxBagSize) {
+            if (labelArrivals[bag[offset + latest]] <= arrival) {
+                bagSizes[round][stop] = size;
+                return -1;
+            }
+            bag[offset + latest] = createLabel(kind, stop, arrival, walking, parent);
+            bagSizes[round][stop] = size;
+            return bag[offset + latest];
+        }
+        bag[offset + size] = createLabel(kind, stop, arrival, walking, parent);
+        bagSizes[round][stop] = size + 1;
+        return bag[offset + size];
+    }
+
+    // Route bag labels ride a trip; an earlier trip arrives earlier everywhere along the route, so the trip index
+    // stands in for the arrival time
+    private int addToRouteBag(int size, int trip, int boardPosition, int walking, int parent) {
+        for (int i = 0; i < size; i++) {
+            if (routeTrips[i] <= trip && routeWalking[i] <= walking) {
+                return size;
+            }
+        }
+        int kept = 0;
+        int latest = -1;
+        for (int i = 0; i < size; i++) {
+            if (routeTrips[i] >= trip && routeWalking[i] >= walking) {
+                continue;
+            }
+            routeTrips[kept] = routeTrips[i];
+            routeBoardPositions[kept] = routeBoardPositions[i];
+            routeWalking[kept] = routeWalking[i];
+            routeParents[kept] = routeParents[i];
+            if (latest == -1 || routeTrips[kept] > routeTrips[latest]) {
+                latest = kept;
+            }
+            kept++;
+        }
+        int slot = kept;
+        if (kept == maxBagSize) {
+            if (routeTrips[latest] <= trip) {
+                return kept;
+            }
+            slot = latest;
+        } else {
+            kept++;
+        }
+        routeTrips[slot] = trip;
+        routeBoardPositions[slot] = boardPosition;
+        routeWalking[slot] = walking;
+        routeParents[slot] = parent;
+        return kept;
+    }
+
+    private void updateTarget(int round) {
+        for (int stop = 0; stop < timetable.getStopCount(); stop++) {
+            if (egressMinutes[stop] == UNREACHED) {
+                continue;
+            }
+            int offset = stop * maxBagSize;
+            for (int i = 0; i < bagSizes[round][stop]; i++) {
+                int label = bagLabels[round][offset + i];
+                addTargetLabel(labelArrivals[label] + egressMinutes[stop], round, labelWalking[label] + egressMinutes[stop], label);
+            }
+        }
+    }
+
+    private void addTargetLabel(int arrival, int trips, int walking, int label) {
+        for (int[] target : targetLabels) {
+            if (target[0] <= arrival && target[1] <= trips && target[2] <= walking) {
+                return;
+            }
+        }
+        targetLabels.removeIf(target -> target[0] >= arrival && target[1] >= trips && target[2] >= walking);
+        targetLabels.add(new int[]{arrival, trips, walking, label});
+    }
+
+    private int createLabel(int kind, int stop, int arrival, int walking, int parent) {
+        if (labelCount == labelArrivals.length) {
+            int capacity = labelCount * 2;
+            labelArrivals = Arrays.copyOf(labelArrivals, capacity);
+            labelWalking = Arrays.copyOf(labelWalking, capacity);
+            labelKinds = Arrays.copyOf(labelKinds, capacity);
+            labelParents = Arrays.copyOf(labelParents, capacity);
+            labelStops = Arrays.copyOf(labelStops, capacity);
+            labelTrips = Arrays.copyOf(labelTrips, capacity);
+            labelBoardPositions = Arrays.copyOf(labelBoardPositions, capacity);
+            labelAlightPositions = Arrays.copyOf(labelAlightPositions, capacity);
+        }
+        labelKinds[labelCount] = kind;
+        labelStops[labelCount] = stop;
+        labelArrivals[labelCount] = arrival;
+        labelWalking[labelCount] = walking;
+        labelParents[labelCount] = parent;
+        return labelCount++;
+    }
+
+    // Earliest arrival at the target over all journeys, including the egress walk
+    public int getTargetArrival() {
+        int arrival = UNREACHED;
+        for (int[] target : targetLabels) {
+            arrival = Math.min(arrival, target[0]);
+        }
+        return arrival;
+    }
+
+    // Every Pareto-optimal journey with its itinerary, ordered by arrival and then by trips
+    public List<Journey> getJourneys(String originLabel, String destinationLabel) {
+        List<int[]> sorted = new ArrayList<>(targetLabels);
+        sorted.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+        List<Journey> journeys = new ArrayList<>();
+        for (int[] target : sorted) {
+            journeys.add(new Journey(departureTime, target[0], target[1], target[2], getItinerary(target[3], target[0], originLabel, destinationLabel)));
+        }
+        return journeys;
+    }
+
+    // Follow the parent labels back to the origin, as Raptor.getResult does for its single journey
+    private DijkstraResult getItinerary(int label, int arrival, String originLabel, String destinationLabel) {
+        LinkedList<String> path = new LinkedList<>();
+        LinkedList<Integer> legTripIds = new LinkedList<>();
+        path.addFirst(destinationLabel);
+        legTripIds.addFirst(DijkstraResult.WALKING_LEG);
+        path.addFirst(timetable.getStopId(labelStops[label]));
+
+        while (labelKinds[label] != LABEL_ACCESS) {
+            int parent = labelParents[label];
+            if (labelKinds[label] == LABEL_WALK) {
+                legTripIds.addFirst(DijkstraResult.WALKING_LEG);
+                path.addFirst(timetable.getStopId(labelStops[parent]));
+            } else {
+                int trip = labelTrips[label];
+                int route = timetable.getTripRoute(trip);
+                for (int position = labelAlightPositions[label] - 1; position >= labelBoardPositions[label]; position--) {
+                    legTripIds.addFirst(timetable.getTripId(trip));
+                    path.addFirst(timetable.getStopId(timetable.getRouteStop(route, position)));
+                }
+            }
+            label = parent;
+        }
+        legTripIds.addFirst(DijkstraResult.WALKING_LEG);
+        path.addFirst(originLabel);
+
+        return new DijkstraResult(new ArrayList<>(path), new ArrayList<>(legTripIds), arrival - departureTime);
+    }
+}
@@ -0,0 +1,275 @@
+package Algorithm.Raptor;
+
+import Algorithm.Dijkstra.DijkstraResult;
+import Algorithm.Transit.Timetable;
+import Algorithm.Transit.TimetableLoader;
+import Data.DataGetter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+// Round-based public transit routing (RAPTOR). Round k computes the earliest arrival at every stop
+// using at most k trips, scanning each route pattern once per round instead of relaxing a graph.
+public class Raptor {
+    public static final int UNREACHED = Integer.MAX_VALUE;
+    private static final int DEFAULT_MAX_ROUNDS = 8;
+
+    private static final int SOURCE_NONE = 0;
+    private static final int SOURCE_ACCESS = 1;
+    private static final int SOURCE_TRANSIT = 2;
+    private static final int SOURCE_WALK = 3;
+
+    private final Timetable timetable;
+    private final int maxRounds;
+
+    // Per round and stop: best arrival with at most that many trips, and how it was reached
+    private final int[][] arrivals;
+    private final int[][] sources;
+    private final int[][] transitTrips;
+    private final int[][] boardPositions;
+    private final int[][] alightPositions;
+    private final int[][] walkSources;
+
+    private final int[] bestArrivals;
+    private final boolean[] marked;
+    private final int[] routeEarliestPosition;
+
+    private int departureTime;
+    private int bestTargetArrival;
+    private int bestTargetRound;
+    private int bestTargetStop;
+    private int[] egressMinutes;
+
+    // Constructor
+    public Raptor(Timetable timetable) {
+        this(timetable, DEFAULT_MAX_ROUNDS);
+    }
+
+    public Raptor(Timetable timetable, int maxRounds) {
+        int stopCount = timetable.getStopCount();
+        this.timetable = timetable;
+        this.maxRounds = maxRounds;
+        this.arrivals = new int[maxRounds][stopCount];
+        this.sources = new int[maxRounds][stopCount];
+        this.transitTrips = new int[maxRounds][stopCount];
+        this.boardPositions = new int[maxRounds][stopCount];
+        this.alightPositions = new int[maxRounds][stopCount];
+        this.walkSources = new int[maxRounds][stopCount];
+        this.bestArrivals = new int[stopCount];
+        this.marked = new boolean[stopCount];
+        this.routeEarliestPosition = new int[timetable.getRouteCount()];
+    }
+
+    // Main RAPTOR method
+    public static DijkstraResult mainRaptor(String originPostcode, String destinationPostcode, double radius, String time) {
+        Instant startTime = Instant.now();
+
+        DataGetter dataGetter = new DataGetter();
+        double[] originCoordinates = dataGetter.getLocationFromApiReader(originPostcode);
+        double[] destinationCoordinates = dataGetter.getLocationFromApiReader(destinationPostcode);
+        if (originCoordinates == null || destinationCoordinates == null) {
+            throw new IllegalArgumentException("Invalid postal code: " + (originCoordinates == null ? originPostcode : destinationPostcode));
+        }
+
+        Timetable timetable = TimetableLoader.getTimetable(dataGetter);
+        int[] accessMinutes = timetable.computeWalkingMinutes(originCoordinates[0], originCoordinates[1]);
+        int[] egressMinutes = timetable.computeWalkingMinutes(destinationCoordinates[0], destinationCoordinates[1]);
+
+        Raptor raptor = new Raptor(timetable);
+        raptor.execute(accessMinutes, egressMinutes, Timetable.convertTimeToMinutes(time));
+        DijkstraResult result = raptor.getResult(originPostcode, destinationPostcode);
+
+        Duration timeElapsed = Duration.between(startTime, Instant.now());
+        System.out.println("RAPTOR route from " + originPostcode + " to " + destinationPostcode + ": " + result.getPath());
+        System.out.println("Total travel time: " + result.getTotalTravelTime() + " minutes");
+        System.out.println("Time taken for execution: " + timeElapsed.toMillis() + " milliseconds");
+
+        return result;
+    }
+
+    // Run RAPTOR from the access stops; egressMinutes may be null to compute arrivals at every stop without a target
+    public void execute(int[] accessMinutes, int[] egressMinutes, int departureTime) {
+        this.departureTime = departureTime;
+        this.egressMinutes = egressMinutes;
+        this.bestTargetArrival = UNREACHED;
+        this.bestTargetRound = -1;
+        this.bestTargetStop = -1;
+        Arrays.fill(bestArrivals, UNREACHED);
+        Arrays.fill(marked, false);
+        Arrays.fill(routeEarliestPosition, -1);
+
+        int stopCount = timetable.getStopCount();
+        Arrays.fill(arrivals[0], UNREACHED);
+        Arrays.fill(sources[0], SOURCE_NONE);
+        for (int stop = 0; stop < stopCount; stop++) {
+            if (accessMinutes[stop] != UNREACHED) {
+                arrivals[0][stop] = departureTime + accessMinutes[stop];
+                sources[0][stop] = SOURCE_ACCESS;
+                bestArrivals[stop] = arrivals[0][stop];
+                marked[stop] = true;
+            }
+        }
+        updateTarget(0);
+
+        List<Integer> queuedRoutes = new ArrayList<>();
+        List<Integer> transitStops = new ArrayList<>();
+        for (int round = 1; round < maxRounds; round++) {
+            System.arraycopy(arrivals[round - 1], 0, arrivals[round], 0, stopCount);
+            Arrays.fill(sources[round], SOURCE_NONE);
+
+            queuedRoutes.clear();
+            for (int stop = 0; stop < stopCount; stop++) {
+                if (!marked[stop]) {
+                    continue;
+                }
+                marked[stop] = false;
+                for (int i = timetable.getStopRouteStart(stop); i < timetable.getStopRouteEnd(stop); i++) {
+                    int route = timetable.getStopRoute(i);
+                    int position = timetable.getStopRoutePosition(i);
+                    if (routeEarliestPosition[route] == -1) {
+                        queuedRoutes.add(route);
+                        routeEarliestPosition[route] = position;
+                    } else if (position < routeEarliestPosition[route]) {
+                        routeEarliestPosition[route] = position;
+                    }
+                }
+            }
+            if (queuedRoutes.isEmpty()) {
+                break;
+            }
+
+            transitStops.clear();
+            for (int route : queuedRoutes) {
+                scanRoute(round, route, transitStops);
+                routeEarliestPosition[route] = -1;
+            }
+            relaxFootpaths(round, transitStops);
+            updateTarget(round);
+        }
+    }
+
+    // Ride the earliest catchable trip along the route, boarding again whenever an earlier trip can be caught
+    private void scanRoute(int round, int route, List<Integer> transitStops) {
+        int trip = -1;
+        int boardPosition = -1;
+        int stopCount = timetable.getRouteStopCount(route);
+        for (int position = routeEarliestPosition[route]; position < stopCount; position++) {
+            int stop = timetable.getRouteStop(route, position);
+
+            if (trip != -1) {
+                int arrival = timetable.getArrival(trip, position);
+                if (arrival < bestArrivals[stop] && arrival < bestTargetArrival) {
+                    arrivals[round][stop] = arrival;
+                    bestArrivals[stop] = arrival;
+                    if (sources[round][stop] != SOURCE_TRANSIT) {
+                        transitStops.add(stop);
+                    }
+                    sources[round][stop] = SOURCE_TRANSIT;
+                    transitTrips[round][stop] = trip;
+                    boardPositions[round][stop] = boardPosition;
+                    alightPositions[round][stop] = position;
+                    marked[stop] = true;
+                }
+            }
+
+            int previousArrival = arrivals[round - 1][stop];
+            if (previousArrival != UNREACHED && (trip == -1 || previousArrival <= timetable.getDeparture(trip, position))) {
+                int earliestTrip = timetable.findEarliestTrip(route, position, previousArrival);
+                if (earliestTrip != -1 && (trip == -1 || earliestTrip < trip)) {
+                    trip = earliestTrip;
+                    boardPosition = position;
+                }
+            }
+        }
+    }
+
+    // Walk from every stop reached by transit in this round
+    private void relaxFootpaths(int round, List<Integer> transitStops) {
+        for (int stop : transitStops) {
+            int transitArrival = timetable.getArrival(transitTrips[round][stop], alightPositions[round][stop]);
+            for (int i = timetable.getFootpathStart(stop); i < timetable.getFootpathEnd(stop); i++) {
+                int target = timetable.getFootpathTarget(i);
+                int arrival = transitArrival + timetable.getFootpathMinutes(i);
+                if (arrival < bestArrivals[target] && arrival < bestTargetArrival) {
+                    arrivals[round][target] = arrival;
+                    bestArrivals[target] = arrival;
+                    sources[round][target] = SOURCE_WALK;
+                    walkSources[round][target] = stop;
+                    marked[target] = true;
+                }
+            }
+        }
+    }
+
+    private void updateTarget(int round) {
+        if (egressMinutes == null) {
+            return;
+        }
+        for (int stop = 0; stop < timetable.getStopCount(); stop++) {
+            if (sources[round][stop] == SOURCE_NONE || egressMinutes[stop] == UNREACHED) {
+                continue;
+            }
+            int arrival = arrivals[round][stop] + egressMinutes[stop];
+            if (arrival < bestTargetArrival) {
+                bestTargetArrival = arrival;
+                bestTargetRound = round;
+                bestTargetStop = stop;
+            }
+        }
+    }
+
+    // Earliest arrival at the target, including the egress walk
+    public int getTargetArrival() {
+        return bestTargetArrival;
+    }
+
+    // Earliest arrival at a stop over all rounds
+    public int getArrival(int stop) {
+        return bestArrivals[stop];
+    }
+
+    // Build a stop-by-stop itinerary for the best target arrival, as the Dijkstra engine would report it
+    public DijkstraResult getResult(String originLabel, String destinationLabel) {
+        if (bestTargetStop == -1) {
+            return new DijkstraResult(new ArrayList<>(Collections.singletonList(destinationLabel)), new ArrayList<>(), Double.MAX_VALUE);
+        }
+
+        LinkedList<String> path = new LinkedList<>();
+        LinkedList<Integer> legTripIds = new LinkedList<>();
+        path.addFirst(destinationLabel);
+        legTripIds.addFirst(DijkstraResult.WALKING_LEG);
+        path.addFirst(timetable.getStopId(bestTargetStop));
+
+        int round = bestTargetRound;
+        int stop = bestTargetStop;
+        boolean afterWalk = false;
+        while (round >= 0) {
+            int source = afterWalk ? SOURCE_TRANSIT : sources[round][stop];
+            afterWalk = false;
+            if (source == SOURCE_NONE) {
+                round--;
+            } else if (source == SOURCE_ACCESS) {
+                break;
+            } else if (source == SOURCE_WALK) {
+                stop = walkSources[round][stop];
+                legTripIds.addFirst(DijkstraResult.WALKING_LEG);
+                path.addFirst(timetable.getStopId(stop));
+                afterWalk = true;
+            } else {
+                int trip = transitTrips[round][stop];
+                int route = timetable.getTripRoute(trip);
+                for (int position = alightPositions[round][stop] - 1; position >= boardPositions[round][stop]; position--) {
+                    legTripIds.addFirst(timetable.getTripId(trip));
+                    path.addFirst(timetable.getStopId(timetable.getRouteStop(route, position)));
+                }
+                stop = timetable.getRouteStop(route, boardPositions[round][stop]);
+                round--;
+            }
+        }
+        legTripIds.addFirst(DijkstraResult.WALKING_LEG);
+        path.addFirst(originLabel);
+
+        return new DijkstraResult(new ArrayList<>(path), new ArrayList<>(legTripIds), bestTargetArrival - departureTime);
+    }
+}
@@ -0,0 +1,132 @@
+package Algorithm.Snapshot;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+
+// Header and file handling shared by the binary snapshots. Every snapshot starts with a magic number, a format
+// version and the checksum of the data it was built from; a file whose header does not match is stale and ignored.
+// The payload after the header is laid out by the snapshot class itself, big-endian.
+public class SnapshotFormat {
+    public static final int HEADER_BYTES = 2 * 4 + 8;
+
+    private final int magic;
+    private final int formatVersion;
+    private final String name;
+
+    // name describes the snapshot in log messages, such as "OSM graph"
+    public SnapshotFormat(int magic, int formatVersion, String name) {
+        this.magic = magic;
+        this.formatVersion = formatVersion;
+        this.name = name;
+    }
+
+    // Buffer for a snapshot with payloadBytes after the header, positioned after the written header. Returns null if
+    // the snapshot would be too large to map as one buffer.
+    public ByteBuffer allocate(long payloadBytes, long sourceChecksum) {
+        long size = HEADER_BYTES + payloadBytes;
+        if (size > Integer.MAX_VALUE) {
+            System.out.println("Too large for a " + name + " snapshot: " + size + " bytes");
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.putInt(magic);
+        buffer.putInt(formatVersion);
+        buffer.putLong(sourceChecksum);
+        return buffer;
+    }
+
+    // Write a filled buffer from allocate to a temporary file and move it into place, so readers never see a partial
+    // snapshot. Returns false if the snapshot could not be written.
+    public boolean write(ByteBuffer buffer, Path file) {
+        buffer.flip();
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, file.getFileName() + "-", ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Map a snapshot and hand the buffer, positioned after the header, to payloadReader, which returns null for a
+    // stale payload. Returns null if the file is missing, has another magic number or format version, was built from
+    // other source data, is stale, or is truncated or has bytes left over.
+    public <T> T read(Path file, long sourceChecksum, Function<ByteBuffer, T> payloadReader) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != magic || buffer.getInt() != formatVersion || buffer.getLong() != sourceChecksum) {
+                return null;
+            }
+            T payload = payloadReader.apply(buffer);
+            if (payload == null || buffer.hasRemaining()) {
+                return null;
+            }
+            return payload;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            System.out.println("Ignoring corrupt " + name + " snapshot " + file);
+            return null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public static void putInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + 4 * values.length);
+    }
+
+    public static void putFloats(ByteBuffer buffer, float[] values) {
+        buffer.asFloatBuffer().put(values);
+        buffer.position(buffer.position() + 4 * values.length);
+    }
+
+    public static void putDoubles(ByteBuffer buffer, double[] values) {
+        buffer.asDoubleBuffer().put(values);
+        buffer.position(buffer.position() + 8 * values.length);
+    }
+
+    public static int[] getInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * count);
+        return values;
+    }
+
+    public static float[] getFloats(ByteBuffer buffer, int count) {
+        float[] values = new float[count];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + 4 * count);
+        return values;
+    }
+
+    public static double[] getDoubles(ByteBuffer buffer, int count) {
+        double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + 8 * count);
+        return values;
+    }
+}
@@ -0,0 +1,229 @@
+package Algorithm.Transit;
+
+import Algorithm.Distance.DistanceCalculator;
+
+import java.util.Map;
+
+// Immutable in-memory timetable. Trips are grouped into route patterns (same stop sequence,
+// no overtaking) and every array is primitive so the routing engines never box or hash in their loops.
+// All times are minutes since midnight.
+public class Timetable {
+    public static final int CONNECTION_STRIDE = 6;
+    public static final int CONNECTION_DEPARTURE_STOP = 0;
+    public static final int CONNECTION_ARRIVAL_STOP = 1;
+    public static final int CONNECTION_DEPARTURE = 2;
+    public static final int CONNECTION_ARRIVAL = 3;
+    public static final int CONNECTION_TRIP = 4;
+    public static final int CONNECTION_POSITION = 5;
+
+    private final String[] stopIds;
+    private final double[] stopLatitudes;
+    private final double[] stopLongitudes;
+    private final Map<String, Integer> stopIndexById;
+
+    // Route patterns: stops of route r are routeStops[routeStopOffsets[r] .. routeStopOffsets[r + 1])
+    private final int[] routeStopOffsets;
+    private final int[] routeStops;
+
+    // Trips of route r are [routeTripOffsets[r], routeTripOffsets[r + 1]), sorted by departure
+    private final int[] routeTripOffsets;
+    private final int[] tripRoutes;
+    private final int[] tripIds;
+
+    // Stop times of trip t at route position i are at tripTimeOffsets[t] + i
+    private final int[] tripTimeOffsets;
+    private final int[] arrivals;
+    private final int[] departures;
+
+    // Routes serving stop s are stopRoutes[stopRouteOffsets[s] .. stopRouteOffsets[s + 1]), at stopRoutePositions
+    private final int[] stopRouteOffsets;
+    private final int[] stopRoutes;
+    private final int[] stopRoutePositions;
+
+    // Walking transfers leaving stop s are footpathTargets[footpathOffsets[s] .. footpathOffsets[s + 1])
+    private final int[] footpathOffsets;
+    private final int[] footpathTargets;
+    private final int[] footpathMinutes;
+
+    // Every consecutive stop pair of every trip, sorted by departure and packed CONNECTION_STRIDE ints per connection
+    private final int[] connections;
+
+    Timetable(String[] stopIds, double[] stopLatitudes, double[] stopLongitudes, Map<String, Integer> stopIndexById,
+              int[] routeStopOffsets, int[] routeStops, int[] routeTripOffsets, int[] tripRoutes, int[] tripIds,
+              int[] tripTimeOffsets, int[] arrivals, int[] departures,
+              int[] stopRouteOffsets, int[] stopRoutes, int[] stopRoutePositions,
+              int[] footpathOffsets, int[] footpathTargets, int[] footpathMinutes, int[] connections) {
+        this.stopIds = stopIds;
+        this.stopLatitudes = stopLatitudes;
+        this.stopLongitudes = stopLongitudes;
+        this.stopIndexById = stopIndexById;
+        this.routeStopOffsets = routeStopOffsets;
+        this.routeStops = routeStops;
+        this.routeTripOffsets = routeTripOffsets;
+        this.tripRoutes = tripRoutes;
+        this.tripIds = tripIds;
+        this.tripTimeOffsets = tripTimeOffsets;
+        this.arrivals = arrivals;
+        this.departures = departures;
+        this.stopRouteOffsets = stopRouteOffsets;
+        this.stopRoutes = stopRoutes;
+        this.stopRoutePositions = stopRoutePositions;
+        this.footpathOffsets = footpathOffsets;
+        this.footpathTargets = footpathTargets;
+        this.footpathMinutes = footpathMinutes;
+        this.connections = connections;
+    }
+
+    public int getStopCount() {
+        return stopIds.length;
+    }
+
+    public int getRouteCount() {
+        return routeStopOffsets.length - 1;
+    }
+
+    public int getTripCount() {
+        return tripIds.length;
+    }
+
+    public String getStopId(int stop) {
+        return stopIds[stop];
+    }
+
+    // Returns the dense index of a stop id, or -1 if the stop is unknown
+    public int getStopIndex(String stopId) {
+        Integer index = stopIndexById.get(stopId);
+        return index == null ? -1 : index;
+    }
+
+    public double getStopLatitude(int stop) {
+        return stopLatitudes[stop];
+    }
+
+    public double getStopLongitude(int stop) {
+        return stopLongitudes[stop];
+    }
+
+    public int getRouteStopCount(int route) {
+        return routeStopOffsets[route + 1] - routeStopOffsets[route];
+    }
+
+    public int getRouteStop(int route, int position) {
+        return routeStops[routeStopOffsets[route] + position];
+    }
+
+    public int getFirstTrip(int route) {
+        return routeTripOffsets[route];
+    }
+
+    public int getLastTrip(int route) {
+        return routeTripOffsets[route + 1];
+    }
+
+    public int getTripRoute(int trip) {
+        return tripRoutes[trip];
+    }
+
+    // GTFS trip_id of a timetable trip
+    public int getTripId(int trip) {
+        return tripIds[trip];
+    }
+
+    public int getArrival(int trip, int position) {
+        return arrivals[tripTimeOffsets[trip] + position];
+    }
+
+    public int getDeparture(int trip, int position) {
+        return departures[tripTimeOffsets[trip] + position];
+    }
+
+    // Earliest trip of the route leaving the given position at or after time, or -1 if there is none
+    public int findEarliestTrip(int route, int position, int time) {
+        int low = routeTripOffsets[route];
+        int high = routeTripOffsets[route + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getDeparture(mid, position) < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < routeTripOffsets[route + 1] ? low : -1;
+    }
+
+    public int getStopRouteStart(int stop) {
+        return stopRouteOffsets[stop];
+    }
+
+    public int getStopRouteEnd(int stop) {
+        return stopRouteOffsets[stop + 1];
+    }
+
+    public int getStopRoute(int index) {
+        return stopRoutes[index];
+    }
+
+    public int getStopRoutePosition(int index) {
+        return stopRoutePositions[index];
+    }
+
+    public int getFootpathStart(int stop) {
+        return footpathOffsets[stop];
+    }
+
+    public int getFootpathEnd(int stop) {
+        return footpathOffsets[stop + 1];
+    }
+
+    public int getFootpathTarget(int index) {
+        return footpathTargets[index];
+    }
+
+    public int getFootpathMinutes(int index) {
+        return footpathMinutes[index];
+    }
+
+    public int getConnectionCount() {
+        return connections.length / CONNECTION_STRIDE;
+    }
+
+    // Packed connection array, read with the CONNECTION_* field offsets; callers must not modify it
+    public int[] getConnections() {
+        return connections;
+    }
+
+    // Index of the first connection departing at or after time
+    public int findFirstConnection(int time) {
+        int low = 0;
+        int high = getConnectionCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (connections[mid * CONNECTION_STRIDE + CONNECTION_DEPARTURE] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Walking time in minutes from the given location to every stop, used as access and egress legs
+    public int[] computeWalkingMinutes(double latitude, double longitude) {
+        DistanceCalculator distanceCalculator = new DistanceCalculator();
+        int[] walkingMinutes = new int[stopIds.length];
+        for (int s = 0; s < stopIds.length; s++) {
+            double distance = distanceCalculator.calculateDistance(latitude, longitude, stopLatitudes[s], stopLongitudes[s]);
+            walkingMinutes[s] = distanceCalculator.calculateWalkingTime(distance);
+        }
+        return walkingMinutes;
+    }
+
+    // Helper method to convert time string to minutes since midnight
+    public static int convertTimeToMinutes(String time) {
+        String[] parts = time.split(":");
+        int hours = Integer.parseInt(parts[0]);
+        int minutes = Integer.parseInt(parts[1]);
+        return hours * 60 + minutes;
+    }
+}
@@ -0,0 +1,248 @@
+package Algorithm.Transit;
+
+import Algorithm.Distance.DistanceCalculator;
+import Algorithm.Distance.GridIndex;
+
+import java.util.*;
+
+// Collects stops, trips and footpaths and packs them into an immutable Timetable
+public class TimetableBuilder {
+    private final List<String> stopIds = new ArrayList<>();
+    private final List<double[]> stopCoordinates = new ArrayList<>();
+    private final Map<String, Integer> stopIndexById = new HashMap<>();
+    private final List<TripRecord> trips = new ArrayList<>();
+    private final List<int[]> footpaths = new ArrayList<>();
+
+    // Add a stop and return its dense index; adding a known stop id returns the existing index
+    public int addStop(String stopId, double latitude, double longitude) {
+        Integer existing = stopIndexById.get(stopId);
+        if (existing != null) {
+            return existing;
+        }
+        int index = stopIds.size();
+        stopIds.add(stopId);
+        stopCoordinates.add(new double[]{latitude, longitude});
+        stopIndexById.put(stopId, index);
+        return index;
+    }
+
+    public int getStopIndex(String stopId) {
+        Integer index = stopIndexById.get(stopId);
+        return index == null ? -1 : index;
+    }
+
+    // Add a trip visiting the given stop indices with arrival and departure times in minutes
+    public void addTrip(int tripId, int[] stops, int[] arrivals, int[] departures) {
+        if (stops.length != arrivals.length || stops.length != departures.length) {
+            throw new IllegalArgumentException("Trip " + tripId + " has mismatched stop and time arrays");
+        }
+        if (stops.length < 2) {
+            return;
+        }
+        trips.add(new TripRecord(tripId, stops.clone(), arrivals.clone(), departures.clone()));
+    }
+
+    public void addFootpath(int fromStop, int toStop, int minutes) {
+        footpaths.add(new int[]{fromStop, toStop, minutes});
+    }
+
+    // Add walking transfers between all stops within maxDistanceKm of each other
+    public void addWalkingFootpaths(double maxDistanceKm) {
+        DistanceCalculator distanceCalculator = new DistanceCalculator();
+        double[] latitudes = new double[stopIds.size()];
+        double[] longitudes = new double[stopIds.size()];
+        for (int stop = 0; stop < stopIds.size(); stop++) {
+            latitudes[stop] = stopCoordinates.get(stop)[0];
+            longitudes[stop] = stopCoordinates.get(stop)[1];
+        }
+        GridIndex gridIndex = new GridIndex(latitudes, longitudes, maxDistanceKm);
+        for (int from = 0; from < stopIds.size(); from++) {
+            int fromStop = from;
+            gridIndex.forEachWithin(latitudes[from], longitudes[from], maxDistanceKm, (to, walkingDistance) -> {
+                if (to != fromStop) {
+                    addFootpath(fromStop, to, distanceCalculator.calculateWalkingTime(walkingDistance));
+                }
+            });
+        }
+    }
+
+    public Timetable build() {
+        int stopCount = stopIds.size();
+
+        // Group trips by stop sequence, then split every group into chains without overtaking
+        Map<String, List<TripRecord>> tripsBySequence = new LinkedHashMap<>();
+        for (TripRecord trip : trips) {
+            tripsBySequence.computeIfAbsent(Arrays.toString(trip.stops), k -> new ArrayList<>()).add(trip);
+        }
+        List<List<TripRecord>> routes = new ArrayList<>();
+        for (List<TripRecord> group : tripsBySequence.values()) {
+            group.sort(Comparator.comparingInt((TripRecord trip) -> trip.departures[0]).thenComparingInt(trip -> trip.tripId));
+            List<List<TripRecord>> chains = new ArrayList<>();
+            for (TripRecord trip : group) {
+                List<TripRecord> target = null;
+                for (List<TripRecord> chain : chains) {
+                    if (neverOvertakes(chain.get(chain.size() - 1), trip)) {
+                        target = chain;
+                        break;
+                    }
+                }
+                if (target == null) {
+                    target = new ArrayList<>();
+                    chains.add(target);
+                }
+                target.add(trip);
+            }
+            routes.addAll(chains);
+        }
+
+        int routeCount = routes.size();
+        int[] routeStopOffsets = new int[routeCount + 1];
+        int[] routeTripOffsets = new int[routeCount + 1];
+        int timeCount = 0;
+        for (int r = 0; r < routeCount; r++) {
+            List<TripRecord> route = routes.get(r);
+            int length = route.get(0).stops.length;
+            routeStopOffsets[r + 1] = routeStopOffsets[r] + length;
+            routeTripOffsets[r + 1] = routeTripOffsets[r] + route.size();
+            timeCount += length * route.size();
+        }
+
+        int tripCount = routeTripOffsets[routeCount];
+        int[] routeStops = new int[routeStopOffsets[routeCount]];
+        int[] tripRoutes = new int[tripCount];
+        int[] tripIds = new int[tripCount];
+        int[] tripTimeOffsets = new int[tripCount];
+        int[] arrivals = new int[timeCount];
+        int[] departures = new int[timeCount];
+        int[] stopRouteCounts = new int[stopCount];
+
+        int trip = 0;
+        int timeOffset = 0;
+        for (int r = 0; r < routeCount; r++) {
+            List<TripRecord> route = routes.get(r);
+            int[] stops = route.get(0).stops;
+            System.arraycopy(stops, 0, routeStops, routeStopOffsets[r], stops.length);
+            for (int stop : stops) {
+                stopRouteCounts[stop]++;
+            }
+            for (TripRecord record : route) {
+                tripRoutes[trip] = r;
+                tripIds[trip] = record.tripId;
+                tripTimeOffsets[trip] = timeOffset;
+                System.arraycopy(record.arrivals, 0, arrivals, timeOffset, stops.length);
+                System.arraycopy(record.departures, 0, departures, timeOffset, stops.length);
+                timeOffset += stops.length;
+                trip++;
+            }
+        }
+
+        int[] stopRouteOffsets = new int[stopCount + 1];
+        for (int s = 0; s < stopCount; s++) {
+            stopRouteOffsets[s + 1] = stopRouteOffsets[s] + stopRouteCounts[s];
+        }
+        int[] stopRoutes = new int[stopRouteOffsets[stopCount]];
+        int[] stopRoutePositions = new int[stopRouteOffsets[stopCount]];
+        int[] stopRouteFill = Arrays.copyOf(stopRouteOffsets, stopCount);
+        for (int r = 0; r < routeCount; r++) {
+            for (int position = 0; position < routeStopOffsets[r + 1] - routeStopOffsets[r]; position++) {
+                int stop = routeStops[routeStopOffsets[r] + position];
+                stopRoutes[stopRouteFill[stop]] = r;
+                stopRoutePositions[stopRouteFill[stop]++] = position;
+            }
+        }
+
+        int[] footpathOffsets = new int[stopCount + 1];
+        for (int[] footpath : footpaths) {
+            footpathOffsets[footpath[0] + 1]++;
+        }
+        for (int s = 0; s < stopCount; s++) {
+            footpathOffsets[s + 1] += footpathOffsets[s];
+        }
+        int[] footpathTargets = new int[footpaths.size()];
+        int[] footpathMinutes = new int[footpaths.size()];
+        int[] footpathFill = Arrays.copyOf(footpathOffsets, stopCount);
+        for (int[] footpath : footpaths) {
+            int index = footpathFill[footpath[0]]++;
+            footpathTargets[index] = footpath[1];
+            footpathMinutes[index] = footpath[2];
+        }
+
+        int[] connections = buildConnections(routeStopOffsets, routeTripOffsets, tripTimeOffsets, arrivals, departures, routeStops);
+
+        double[] stopLatitudes = new double[stopCount];
+        double[] stopLongitudes = new double[stopCount];
+        for (int s = 0; s < stopCount; s++) {
+            stopLatitudes[s] = stopCoordinates.get(s)[0];
+            stopLongitudes[s] = stopCoordinates.get(s)[1];
+        }
+
+        return new Timetable(stopIds.toArray(new String[0]), stopLatitudes, stopLongitudes, new HashMap<>(stopIndexById),
+                routeStopOffsets, routeStops, routeTripOffsets, tripRoutes, tripIds, tripTimeOffsets, arrivals, departures,
+                stopRouteOffsets, stopRoutes, stopRoutePositions, footpathOffsets, footpathTargets, footpathMinutes, connections);
+    }
+
+    // Flatten every consecutive stop pair of every trip into one array sorted by departure, then arrival.
+    // Ties keep trip order so a zero-minute hop is always scanned before the hop that continues from it.
+    private static int[] buildConnections(int[] routeStopOffsets, int[] routeTripOffsets, int[] tripTimeOffsets,
+                                          int[] arrivals, int[] departures, int[] routeStops) {
+        int routeCount = routeStopOffsets.length - 1;
+        int connectionCount = 0;
+        for (int r = 0; r < routeCount; r++) {
+            connectionCount += (routeStopOffsets[r + 1] - routeStopOffsets[r] - 1) * (routeTripOffsets[r + 1] - routeTripOffsets[r]);
+        }
+
+        int[] unsorted = new int[connectionCount * Timetable.CONNECTION_STRIDE];
+        long[] sortKeys = new long[connectionCount];
+        int c = 0;
+        for (int r = 0; r < routeCount; r++) {
+            int length = routeStopOffsets[r + 1] - routeStopOffsets[r];
+            for (int trip = routeTripOffsets[r]; trip < routeTripOffsets[r + 1]; trip++) {
+                for (int position = 0; position < length - 1; position++) {
+                    int base = c * Timetable.CONNECTION_STRIDE;
+                    int departure = departures[tripTimeOffsets[trip] + position];
+                    int arrival = arrivals[tripTimeOffsets[trip] + position + 1];
+                    unsorted[base + Timetable.CONNECTION_DEPARTURE_STOP] = routeStops[routeStopOffsets[r] + position];
+                    unsorted[base + Timetable.CONNECTION_ARRIVAL_STOP] = routeStops[routeStopOffsets[r] + position + 1];
+                    unsorted[base + Timetable.CONNECTION_DEPARTURE] = departure;
+                    unsorted[base + Timetable.CONNECTION_ARRIVAL] = arrival;
+                    unsorted[base + Timetable.CONNECTION_TRIP] = trip;
+                    unsorted[base + Timetable.CONNECTION_POSITION] = position;
+                    sortKeys[c] = ((long) departure << 44) | ((long) arrival << 32) | c;
+                    c++;
+                }
+            }
+        }
+
+        Arrays.sort(sortKeys);
+        int[] connections = new int[unsorted.length];
+        for (int i = 0; i < connectionCount; i++) {
+            int source = (int) (sortKeys[i] & 0xFFFFFFFFL);
+            System.arraycopy(unsorted, source * Timetable.CONNECTION_STRIDE, connections, i * Timetable.CONNECTION_STRIDE, Timetable.CONNECTION_STRIDE);
+        }
+        return connections;
+    }
+
+    // True if the later trip never arrives or departs before the earlier trip at any stop
+    private static boolean neverOvertakes(TripRecord earlier, TripRecord later) {
+        for (int i = 0; i < earlier.stops.length; i++) {
+            if (later.arrivals[i] < earlier.arrivals[i] || later.departures[i] < earlier.departures[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class TripRecord {
+        private final int tripId;
+        private final int[] stops;
+        private final int[] arrivals;
+        private final int[] departures;
+
+        private TripRecord(int tripId, int[] stops, int[] arrivals, int[] departures) {
+            this.tripId = tripId;
+            this.stops = stops;
+            this.arrivals = arrivals;
+            this.departures = departures;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package Algorithm.Transit;
+
+import Data.DataGetter;
+import Data.DatabaseSingleton;
+
+import java.sql.*;
+import java.util.*;
+
+// Loads the complete stop_times table into an in-memory Timetable, cached for the lifetime of the process
+public class TimetableLoader {
+    // Only add walking transfers if they're within a reasonable walking distance, e.g., 1 km
+    private static final double MAX_FOOTPATH_DISTANCE_KM = 1.0;
+    // Makes Connector/J stream stop_times row by row instead of buffering the whole table
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private static Timetable cachedTimetable;
+
+    public static synchronized Timetable getTimetable(DataGetter dataGetter) {
+        if (cachedTimetable == null) {
+            cachedTimetable = loadTimetable(dataGetter);
+        }
+        return cachedTimetable;
+    }
+
+    public static synchronized void clearCache() {
+        cachedTimetable = null;
+    }
+
+    // Throws if the stops or stop_times could not be read, so a partial timetable is never cached
+    private static Timetable loadTimetable(DataGetter dataGetter) {
+        TimetableBuilder builder = new TimetableBuilder();
+        Map<String, String[]> busStops = dataGetter.getBusStopCoordinates();
+        if (busStops.isEmpty()) {
+            throw new IllegalStateException("Could not load the bus stops");
+        }
+        for (Map.Entry<String, String[]> busStop : busStops.entrySet()) {
+            String[] latLon = busStop.getValue();
+            if (latLon == null || latLon[0] == null || latLon[1] == null) {
+                System.err.println("Missing data for bus stop: " + busStop.getKey());
+                continue;
+            }
+            double lat = Double.parseDouble(latLon[0].replace(',', '.'));
+            double lon = Double.parseDouble(latLon[1].replace(',', '.'));
+            builder.addStop(busStop.getKey(), lat, lon);
+        }
+
+        Connection connection = DatabaseSingleton.getConnection();
+        String query = "SELECT trip_id, stop_id, arrival_time, departure_time " +
+                       "FROM stop_times " +
+                       "ORDER BY trip_id, stop_sequence";
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            preparedStatement.setFetchSize(STREAMING_FETCH_SIZE);
+            try (ResultSet rs = preparedStatement.executeQuery()) {
+                int currentTripId = -1;
+                List<int[]> currentStopTimes = new ArrayList<>();
+                while (rs.next()) {
+                    int tripId = rs.getInt("trip_id");
+                    if (tripId != currentTripId) {
+                        addTrip(builder, currentTripId, currentStopTimes);
+                        currentStopTimes.clear();
+                        currentTripId = tripId;
+                    }
+                    int stop = builder.getStopIndex(rs.getString("stop_id"));
+                    if (stop >= 0) {
+                        currentStopTimes.add(new int[]{stop,
+                                Timetable.convertTimeToMinutes(rs.getString("arrival_time")),
+                                Timetable.convertTimeToMinutes(rs.getString("departure_time"))});
+                    }
+                }
+                addTrip(builder, currentTripId, currentStopTimes);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not load the stop times", e);
+        }
+
+        builder.addWalkingFootpaths(MAX_FOOTPATH_DISTANCE_KM);
+        return builder.build();
+    }
+
+    private static void addTrip(TimetableBuilder builder, int tripId, List<int[]> stopTimes) {
+        if (tripId < 0 || stopTimes.size() < 2) {
+            return;
+        }
+        int[] stops = new int[stopTimes.size()];
+        int[] arrivals = new int[stopTimes.size()];
+        int[] departures = new int[stopTimes.size()];
+        for (int i = 0; i < stopTimes.size(); i++) {
+            stops[i] = stopTimes.get(i)[0];
+            arrivals[i] = stopTimes.get(i)[1];
+            departures[i] = stopTimes.get(i)[2];
+        }
+        builder.addTrip(tripId, stops, arrivals, departures);
+    }
+}
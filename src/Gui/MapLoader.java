@@ -1,5 +1,6 @@
 package Gui;
 
+import Algorithm.Dijkstra.Isochrone;
 import javafx.scene.layout.Pane;
 import javafx.scene.web.WebEngine;
 import javafx.scene.web.WebView;
@@ -83,7 +84,36 @@ public class MapLoader extends Pane {
     }
 
     /**
-     * Clears all markers and lines from the map.
+     * Draws an isochrone as rings of grid cells, one ring per threshold: the first ring holds the cells reached within
+     * the first threshold, every next ring the cells added by the next threshold.
+     * @param isochrone the rasterized isochrone.
+     * @param thresholds the ring limits in minutes, increasing.
+     * @param colors the color of every ring.
+     */
+    public void drawIsochrone(Isochrone isochrone, int[] thresholds, String[] colors) {
+        int previousThreshold = -1;
+        for (int i = 0; i < thresholds.length; i++) {
+            double[] corners = isochrone.getCells(previousThreshold, thresholds[i]);
+            previousThreshold = thresholds[i];
+            StringBuilder cells = new StringBuilder("[");
+            for (int j = 0; j < corners.length; j++) {
+                if (j > 0) {
+                    cells.append(',');
+                }
+                cells.append(String.format("%.6f", corners[j]).replace(',', '.'));
+            }
+            cells.append(']');
+            String formattedHeight = String.format("%.8f", isochrone.getCellHeightDegrees()).replace(',', '.');
+            String formattedWidth = String.format("%.8f", isochrone.getCellWidthDegrees()).replace(',', '.');
+            String script = String.format(
+                    "if (window.drawCells) { window.drawCells(%s, %s, %s, '%s'); } else { console.log('drawCells function not defined yet.'); }",
+                    cells, formattedHeight, formattedWidth, colors[i]);
+            webEngine.executeScript(script);
+        }
+    }
+
+    /**
+     * Clears all markers, lines and isochrone cells from the map.
      */
     public void clearMap() {
         webEngine.executeScript("if (window.clearMap) { window.clearMap(); } else { console.log('clearMap function not defined yet.'); }");
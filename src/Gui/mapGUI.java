@@ -1,11 +1,15 @@
 package Gui;
 
+import Algorithm.CSA.ConnectionScan;
 import Algorithm.Dijkstra.CustomDijkstra;
-import Algorithm.Dijkstra.CustomEdge;
 import Algorithm.Dijkstra.DijkstraResult;
+import Algorithm.Dijkstra.Isochrone;
+import Algorithm.Dijkstra.TravelTimeTree;
+import Algorithm.OSM.OsmGraphService;
+import Algorithm.Raptor.Journey;
+import Algorithm.Raptor.McRaptor;
+import Algorithm.Raptor.Raptor;
 import Data.DataGetter;
-import Data.TripCoordinates;
-import Data.TransferTripCoordinates;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -21,9 +25,7 @@ import javafx.stage.Stage;
 import org.jetbrains.annotations.NotNull;
 import Algorithm.Distance.DistanceCalculator;
 import Data.AccessibilityScoreCalculator;
-import org.jgrapht.Graph;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -35,10 +37,16 @@ public class mapGUI extends Application implements PostcodeInputListener {
     private final AccessibilityScoreCalculator accessibilityScoreCalculator = new AccessibilityScoreCalculator();
     private double radius = 0.6;
     private static final DataGetter dataGetter = new DataGetter();
-    private String methodChosen = "";
+    private String methodChosen = "Multi-criteria Algorithm";
+    private static final int[] ISOCHRONE_MINUTES = {10, 20, 30};
+    private static final String[] ISOCHRONE_COLORS = {"#1a9850", "#fee08b", "#d73027"};
+    private static final double ISOCHRONE_CELL_KM = 0.1;
 
     @Override
     public void start(Stage primaryStage) throws Exception {
+        // Load the OSM walking graph in the background while the window opens, so the first query does not wait for it
+        OsmGraphService.preload();
+
         BorderPane borderPane = new BorderPane();
         borderPane.setCenter(mapLoader);
         VBox leftContainer = new VBox(10);
@@ -57,17 +65,27 @@ public class mapGUI extends Application implements PostcodeInputListener {
         radiusSlider.setSnapToTicks(true);
 
         ChoiceBox<String> choiceBox = new ChoiceBox<>();
-        choiceBox.getItems().add("Greedy Algorithm");
+        choiceBox.getItems().add("Multi-criteria Algorithm");
         choiceBox.getItems().add("Dijkstras Algorithm");
+        choiceBox.getItems().add("RAPTOR Algorithm");
+        choiceBox.getItems().add("Connection Scan Algorithm");
+        choiceBox.getItems().add("Isochrone");
         leftContainer.getChildren().add(choiceBox);
 
         choiceBox.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> {
-            if (newValue.equals("Greedy Algorithm")) {
-                methodChosen = "Greedy Algorithm";
+            if (newValue.equals("Multi-criteria Algorithm")) {
+                methodChosen = "Multi-criteria Algorithm";
             } else if (newValue.equals("Dijkstras Algorithm")) {
                 methodChosen = "Dijkstras Algorithm";
+            } else if (newValue.equals("RAPTOR Algorithm")) {
+                methodChosen = "RAPTOR Algorithm";
+            } else if (newValue.equals("Connection Scan Algorithm")) {
+                methodChosen = "Connection Scan Algorithm";
+            } else if (newValue.equals("Isochrone")) {
+                methodChosen = "Isochrone";
             }
         });
+        choiceBox.getSelectionModel().selectFirst();
 
         radiusSlider.valueProperty().addListener((observable, oldValue, newValue) -> {
             radius = newValue.doubleValue();
@@ -97,11 +115,20 @@ public class mapGUI extends Application implements PostcodeInputListener {
             String originPostcode = locationInput.getOriginPostcodes();
             String destinationPostcode = locationInput.getDestinationPostcodes();
             String selectedTime = locationInput.getSelectedTime();
-            if (methodChosen.equals("Greedy Algorithm")) {
+            if (methodChosen.equals("Multi-criteria Algorithm")) {
                 onPostcodesEntered(originPostcode, destinationPostcode, radius, selectedTime);
             } else if (methodChosen.equals("Dijkstras Algorithm")) {
                DijkstraResult dijkstraResult = CustomDijkstra.mainCustomDijkstra(originPostcode, destinationPostcode, radius, selectedTime);
                drawDijkstraRouteBasic(dijkstraResult, originPostcode, destinationPostcode);
+            } else if (methodChosen.equals("RAPTOR Algorithm")) {
+               DijkstraResult raptorResult = Raptor.mainRaptor(originPostcode, destinationPostcode, radius, selectedTime);
+               drawDijkstraRouteBasic(raptorResult, originPostcode, destinationPostcode);
+            } else if (methodChosen.equals("Connection Scan Algorithm")) {
+               DijkstraResult connectionScanResult = ConnectionScan.mainConnectionScan(originPostcode, destinationPostcode, radius, selectedTime);
+               drawDijkstraRouteBasic(connectionScanResult, originPostcode, destinationPostcode);
+            } else if (methodChosen.equals("Isochrone")) {
+                drawIsochrone(originPostcode, selectedTime);
+                return;
             }
             double originAccessibilityScore = accessibilityScoreCalculator.calculateAccessibility(originPostcode, radius);
             double destinationAccessibilityScore = accessibilityScoreCalculator.calculateAccessibility(destinationPostcode, radius);
@@ -111,31 +138,78 @@ public class mapGUI extends Application implements PostcodeInputListener {
         return calculateButton;
     }
 
+    // One multi-criteria search replaces the separate direct-trip and one-transfer lookups: the fastest journey is
+    // drawn and the other Pareto-optimal journeys are listed below its route details. Without any journey the
+    // straight line between the postcodes is drawn with its walking and cycling times.
     @Override
     public void onPostcodesEntered(String originPostcode, String destinationPostcode, double radius, String time) {
         this.radius = radius;
         new Thread(() -> {
             try {
-                double[] originCoordinates = dataGetter.getLocationFromApiReader(originPostcode);
-                double[] destinationCoordinates = dataGetter.getLocationFromApiReader(destinationPostcode);
+                List<Journey> journeys = McRaptor.mainMcRaptor(originPostcode, destinationPostcode, radius, time);
+                if (journeys.isEmpty()) {
+                    drawNoTripFound(originPostcode, destinationPostcode);
+                    return;
+                }
+                StringBuilder alternatives = new StringBuilder();
+                for (Journey journey : journeys.subList(1, journeys.size())) {
+                    alternatives.append("Alternative: ").append(journey).append("\n");
+                }
+                Platform.runLater(locationInput::clearError);
+                drawDijkstraRouteBasic(journeys.get(0).getItinerary(), originPostcode, destinationPostcode, alternatives.toString());
+            } catch (IllegalArgumentException e) {
+                Platform.runLater(() -> locationInput.displayError("Invalid postcodes. Please try again"));
+            } catch (Exception e) {
+                e.printStackTrace();
+                logger.severe("Error computing journeys: " + e.getMessage());
+                Platform.runLater(() -> locationInput.displayError("Error computing journeys. Please try again"));
+            }
+        }).start();
+    }
 
-                if (originCoordinates != null && destinationCoordinates != null) {
-                    Platform.runLater(() -> {
-                        locationInput.clearError();
-                        logger.info(String.format("Origin Coordinates: (%.6f, %.6f)", originCoordinates[0], originCoordinates[1]));
-                        logger.info(String.format("Destination Coordinates: (%.6f, %.6f)", destinationCoordinates[0], destinationCoordinates[1]));
-                        logger.info("Radius used in onPostcodesEntered: " + radius + " km");
-                        addMarkersAndPathToMap(originCoordinates[0], originCoordinates[1], destinationCoordinates[0], destinationCoordinates[1], radius, time);
-                    });
+    private void drawNoTripFound(String originPostcode, String destinationPostcode) {
+        double[] originCoordinates = dataGetter.getLocationFromApiReader(originPostcode);
+        double[] destinationCoordinates = dataGetter.getLocationFromApiReader(destinationPostcode);
+        double originLat = originCoordinates[0];
+        double originLong = originCoordinates[1];
+        double destinationLat = destinationCoordinates[0];
+        double destinationLong = destinationCoordinates[1];
+        double distance = distanceCalculator.calculateDistance(originLat, originLong, destinationLat, destinationLong);
+        int walkingTime = distanceCalculator.calculateWalkingTime(distance);
+        int cyclingTime = distanceCalculator.calculateCyclingTime(distance);
 
+        Platform.runLater(() -> {
+            mapLoader.clearMap();
+            locationInput.displayError("No trip found for the given postcodes.");
+            mapLoader.addMapMarker(originLat, originLong, "Origin Postcode", "green");
+            mapLoader.addMapMarker(destinationLat, destinationLong, "Destination Postcode", "orange");
+            mapLoader.drawLine(originLat, originLong, destinationLat, destinationLong, "black", false);
+            locationInput.setDistanceLabel(String.valueOf(Math.round(distance * 100.0) / 100.0));
+            locationInput.setWalkingTimeLabel("Walking Time: " + walkingTime + " minutes");
+            locationInput.setCyclingTimeLabel("Cycling Time: " + cyclingTime + " minutes");
+            locationInput.setBusTripTimeLabel("No bus trip found");
+            mapLoader.setCenter((originLat + destinationLat) / 2, (originLong + destinationLong) / 2, 13);
+        });
+    }
 
-                } else {
-                    Platform.runLater(() -> locationInput.displayError("Invalid postcodes. Please try again"));
-                }
+    // One one-to-all search from the origin gives the 10, 20 and 30 minute areas; no destination is needed
+    private void drawIsochrone(String originPostcode, String time) {
+        new Thread(() -> {
+            try {
+                TravelTimeTree tree = CustomDijkstra.mainTravelTimeTree(originPostcode, time);
+                Isochrone isochrone = Isochrone.build(tree, ISOCHRONE_MINUTES[ISOCHRONE_MINUTES.length - 1], ISOCHRONE_CELL_KM);
+                Platform.runLater(() -> {
+                    locationInput.clearError();
+                    mapLoader.clearMap();
+                    mapLoader.drawIsochrone(isochrone, ISOCHRONE_MINUTES, ISOCHRONE_COLORS);
+                    mapLoader.addMapMarker(tree.getOriginLatitude(), tree.getOriginLongitude(), originPostcode, "black");
+                });
+            } catch (IllegalArgumentException e) {
+                Platform.runLater(() -> locationInput.displayError("Invalid postcode. Please try again"));
             } catch (Exception e) {
                 e.printStackTrace();
-                logger.severe("Error retrieving coordinates: " + e.getMessage());
-                Platform.runLater(() -> locationInput.displayError("Error retrieving coordinates. Please try again"));
+                logger.severe("Error computing isochrone: " + e.getMessage());
+                Platform.runLater(() -> locationInput.displayError("Error computing isochrone. Please try again"));
             }
         }).start();
     }
@@ -190,100 +264,14 @@ public class mapGUI extends Application implements PostcodeInputListener {
         }
     }
 
-    private void addMarkersAndPathToMap(double originLat, double originLong, double destinationLat, double destinationLong, double radius, String time) {
-        double distance = distanceCalculator.calculateDistance(originLat, originLong, destinationLat, destinationLong);
-        int walkingTime = distanceCalculator.calculateWalkingTime(distance);
-        int cyclingTime = distanceCalculator.calculateCyclingTime(distance);
-
-        new Thread(() -> {
-            try {
-                TripCoordinates tripCoordinates = dataGetter.findFastestDirectRouteInfo(originLat, originLong, destinationLat, destinationLong, radius, time);
-
-                if (tripCoordinates != null) {
-                    drawDirectRoute(tripCoordinates, originLat, originLong, destinationLat, destinationLong);
-                    return;
-                }
-                TransferTripCoordinates transferTripCoordinates = dataGetter.getTransferTripIDs(originLat, originLong, destinationLat, destinationLong, radius, time);
-                if (transferTripCoordinates != null){
-                    drawTransferRoute(transferTripCoordinates, originLat, originLong, destinationLat, destinationLong);
-                }
-                else{
-                    Platform.runLater(() -> {
-                        mapLoader.clearMap();
-                        locationInput.displayError("No trip found for the given coordinates.");
-                        mapLoader.addMapMarker(originLat, originLong, "Origin Postcode", "green");
-                        mapLoader.addMapMarker(destinationLat, destinationLong, "Destination Postcode", "orange");
-                        mapLoader.drawLine(originLat, originLong, destinationLat, destinationLong, "black", false);
-                        locationInput.setDistanceLabel(String.valueOf(Math.round(distance * 100.0) / 100.0));
-                        locationInput.setWalkingTimeLabel("Walking Time: " + walkingTime + " minutes");
-                        locationInput.setCyclingTimeLabel("Cycling Time: " + cyclingTime + " minutes");
-                        locationInput.setBusTripTimeLabel("No bus trip found");
-                        mapLoader.setCenter((originLat + destinationLat) / 2, (originLong + destinationLong) / 2, 13);
-                    });
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-                Platform.runLater(() -> locationInput.displayError("Database error occurred. Please try again."));
-            }
-        }).start();
-    }
-
-    private void drawDirectRoute(TripCoordinates tripCoordinates, double originLat, double originLong, double destinationLat, double destinationLong) {
-        int busTripTime = tripCoordinates.getBusTripTime() / 60;
-        double distance = distanceCalculator.calculateDistance(originLat, originLong, destinationLat, destinationLong);
-        int walkingTime = distanceCalculator.calculateWalkingTime(distance);
-        int cyclingTime = distanceCalculator.calculateCyclingTime(distance);
-
-        Platform.runLater(() -> {
-            mapLoader.clearMap();
-            locationInput.displayInfo("Your bus leaves the start stop at: " + tripCoordinates.getDepartureTime());
-            List<double[]> routeCoordinates = new ArrayList<>();
-
-            mapLoader.addMapMarker(originLat, originLong, "Origin Postcode", "green");
-            routeCoordinates.add(new double[]{originLat, originLong});
-
-            mapLoader.addMapMarker(destinationLat, destinationLong, "Destination Postcode", "orange");
-            routeCoordinates.add(new double[]{destinationLat, destinationLong});
-
-            mapLoader.addMapMarker(tripCoordinates.getStartStopLat(), tripCoordinates.getStartStopLon(), tripCoordinates.getStartStopName(), "red");
-            routeCoordinates.add(new double[]{tripCoordinates.getStartStopLat(), tripCoordinates.getStartStopLon()});
-
-            mapLoader.drawLine(originLat, originLong, tripCoordinates.getStartStopLat(), tripCoordinates.getStartStopLon(), "green", true);
-
-            mapLoader.addMapMarker(tripCoordinates.getEndStopLat(), tripCoordinates.getEndStopLon(), tripCoordinates.getEndStopName(), "red");
-            routeCoordinates.add(new double[]{tripCoordinates.getEndStopLat(), tripCoordinates.getEndStopLon()});
-
-            mapLoader.drawLine(destinationLat, destinationLong, tripCoordinates.getEndStopLat(), tripCoordinates.getEndStopLon(), "orange", true);
-
-            StringBuilder intermediateStops = new StringBuilder("Stops:\n");
-            try {
-                List<double[]> shapePoints = dataGetter.getShapePoints(tripCoordinates.getTripId());
-                drawRelevantShapePoints(tripCoordinates.getStartStopLat(), tripCoordinates.getStartStopLon(), tripCoordinates.getEndStopLat(), tripCoordinates.getEndStopLon(), shapePoints, "grey");
-
-                for (String[] stopDetails : tripCoordinates.getIntermediateStopDetails()) {
-                    double lat = Double.parseDouble(stopDetails[1]);
-                    double lon = Double.parseDouble(stopDetails[2]);
-                    String stopName = stopDetails[0];
-                    mapLoader.addMapMarker(lat, lon, stopName, "black");
-                    intermediateStops.append(stopName).append("\n");
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-                locationInput.displayError("Error fetching shape points.");
-            }
-
-            setMapCenter(routeCoordinates);
-
-            locationInput.setWalkingTimeLabel("Walking Time: " + walkingTime + " minutes");
-            locationInput.setCyclingTimeLabel("Cycling Time: " + cyclingTime + " minutes");
-            locationInput.setBusTripTimeLabel("Bus Trip Time: " + busTripTime + " minutes");
-            locationInput.updateRouteDetails("Bus number: " + dataGetter.getBusNumber(tripCoordinates.getRouteID()) + "\n" + intermediateStops);
-        });
+    public void drawDijkstraRouteBasic(DijkstraResult dijkstraResult, String originPostcode, String destinationPostcode) {
+        drawDijkstraRouteBasic(dijkstraResult, originPostcode, destinationPostcode, "");
     }
 
-    public void drawDijkstraRouteBasic(DijkstraResult dijkstraResult, String originPostcode, String destinationPostcode) {
+    // Draw a route and show its details, followed by extraDetails
+    public void drawDijkstraRouteBasic(DijkstraResult dijkstraResult, String originPostcode, String destinationPostcode, String extraDetails) {
         List<String> path = dijkstraResult.getPath();
-        Graph<String, CustomEdge> graph = dijkstraResult.getGraph();
+        List<Integer> legTripIds = dijkstraResult.getLegTripIds();
         double[] originCoordinates = dataGetter.getLocationFromApiReader(originPostcode);
         double[] destinationCoordinates = dataGetter.getLocationFromApiReader(destinationPostcode);
         double distance = distanceCalculator.calculateDistance(originCoordinates[0], originCoordinates[1], destinationCoordinates[0], destinationCoordinates[1]);
@@ -328,7 +316,10 @@ public class mapGUI extends Application implements PostcodeInputListener {
                     return;
                 }
 
-                int currentTripID = graph.getEdge(currentStop, nextStop).getIdWeightMap().keySet().iterator().next();
+                int currentTripID = legTripIds.get(i);
+                if (currentTripID == DijkstraResult.WALKING_LEG) {
+                    isWalkingSegment = true;
+                }
 
                 mapLoader.addMapMarker(pointCoords[0], pointCoords[1], getStopName(nextStop), "black");
                 mapLoader.drawLine(previousLat, previousLon, pointCoords[0], pointCoords[1], "black", isWalkingSegment);
@@ -363,7 +354,7 @@ public class mapGUI extends Application implements PostcodeInputListener {
             locationInput.setCyclingTimeLabel("Cycling Time: " + cyclingTime + " minutes");
             locationInput.setBusTripTimeLabel("Bus Trip Time: " + totalTravelTime + " minutes");
 
-            locationInput.updateRouteDetails(routeDetailsBuilder.toString());
+            locationInput.updateRouteDetails(routeDetailsBuilder.toString() + extraDetails);
         });
     }
 
@@ -381,101 +372,6 @@ public class mapGUI extends Application implements PostcodeInputListener {
         }
     }
 
-    private void drawTransferRoute(TransferTripCoordinates transferTripCoordinates, double originLat, double originLong, double destinationLat, double destinationLong) {
-        int totalBusTripTime = transferTripCoordinates.getTimeTaken() / 60;
-        double distance = distanceCalculator.calculateDistance(originLat, originLong, destinationLat, destinationLong);
-        int walkingTime = distanceCalculator.calculateWalkingTime(distance);
-        int cyclingTime = distanceCalculator.calculateCyclingTime(distance);
-
-        Platform.runLater(() -> {
-            mapLoader.clearMap();
-            List<double[]> routeCoordinates = new ArrayList<>();
-
-            mapLoader.addMapMarker(originLat, originLong, "Origin Postcode", "green");
-            routeCoordinates.add(new double[]{originLat, originLong});
-
-            mapLoader.addMapMarker(destinationLat, destinationLong, "Destination Postcode", "orange");
-            routeCoordinates.add(new double[]{destinationLat, destinationLong});
-
-            StringBuilder intermediateStops = new StringBuilder();
-            for (TripCoordinates leg : transferTripCoordinates.getLegs()) {
-                mapLoader.addMapMarker(leg.getStartStopLat(), leg.getStartStopLon(), leg.getStartStopName(), "red");
-                routeCoordinates.add(new double[]{leg.getStartStopLat(), leg.getStartStopLon()});
-
-                intermediateStops.append("Stops for Trip:\n");
-
-                try {
-                    List<double[]> shapePoints = dataGetter.getShapePoints(leg.getTripId());
-                    drawRelevantShapePoints(leg.getStartStopLat(), leg.getStartStopLon(), leg.getEndStopLat(), leg.getEndStopLon(), shapePoints, "grey");
-
-                    for (String[] stopDetails : leg.getIntermediateStopDetails()) {
-                        double lat = Double.parseDouble(stopDetails[1]);
-                        double lon = Double.parseDouble(stopDetails[2]);
-                        String stopName = stopDetails[0];
-                        mapLoader.addMapMarker(lat, lon, stopName, "black");
-                        intermediateStops.append(stopName).append("\n");
-                    }
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                    locationInput.displayError("Error fetching shape points.");
-                }
-
-                mapLoader.addMapMarker(leg.getEndStopLat(), leg.getEndStopLon(), leg.getEndStopName(), "red");
-                routeCoordinates.add(new double[]{leg.getEndStopLat(), leg.getEndStopLon()});
-
-                mapLoader.drawLine(originLat, originLong, leg.getStartStopLat(), leg.getStartStopLon(), "blue", true);
-                mapLoader.drawLine(leg.getEndStopLat(), leg.getEndStopLon(), destinationLat, destinationLong, "blue", true);
-            }
-
-            setMapCenter(routeCoordinates);
-
-            locationInput.setWalkingTimeLabel("Walking Time: " + walkingTime + " minutes");
-            locationInput.setCyclingTimeLabel("Cycling Time: " + cyclingTime + " minutes");
-            locationInput.setBusTripTimeLabel("Bus Trip Time: " + totalBusTripTime + " minutes");
-            locationInput.updateRouteDetails(intermediateStops.toString() + "Total bus time: " + totalBusTripTime + " minutes");
-        });
-    }
-
-    private void setMapCenter(List<double[]> coordinates) {
-        if (coordinates.isEmpty()) {
-            return;
-        }
-
-        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
-        double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
-
-        for (double[] coordinate : coordinates) {
-            minLat = Math.min(minLat, coordinate[0]);
-            maxLat = Math.max(maxLat, coordinate[0]);
-            minLon = Math.min(minLon, coordinate[1]);
-            maxLon = Math.max(maxLon, coordinate[1]);
-        }
-
-        double centerLat = (minLat + maxLat) / 2;
-        double centerLon = (minLon + maxLon) / 2;
-
-        double latDiff = maxLat - minLat;
-        int finalZoomLevel = getFinalZoomLevel(maxLon, minLon, latDiff);
-        Platform.runLater(() -> mapLoader.setCenter(centerLat, centerLon, finalZoomLevel));
-    }
-
-    private static int getFinalZoomLevel(double maxLon, double minLon, double latDiff) {
-        double lonDiff = maxLon - minLon;
-
-        // Calculate the zoom level based on the maximum extent
-        double maxDiff = Math.max(latDiff, lonDiff);
-        int zoomLevel = 14;  // Default zoom level
-        if (maxDiff > 0.05) zoomLevel = 13;
-        if (maxDiff > 0.1) zoomLevel = 12;
-        if (maxDiff > 0.2) zoomLevel = 11;
-        if (maxDiff > 0.5) zoomLevel = 10;
-        if (maxDiff > 1.0) zoomLevel = 9;
-        if (maxDiff > 2.0) zoomLevel = 8;
-
-        int finalZoomLevel = zoomLevel;
-        return finalZoomLevel;
-    }
-
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,123 @@
+package Test;
+
+import static org.junit.Assert.*;
+import static Test.TimetableFixtures.unreachedExcept;
+import org.junit.Test;
+
+import Algorithm.Dijkstra.DijkstraResult;
+import Algorithm.CSA.ConnectionScan;
+import Algorithm.Raptor.Raptor;
+import Algorithm.Transit.Timetable;
+import Algorithm.Transit.TimetableBuilder;
+
+import java.util.Arrays;
+
+import static Algorithm.Transit.Timetable.*;
+
+public class ConnectionScanTest {
+
+    @Test
+    public void testConnectionsSortedByDeparture() {
+        Timetable timetable = TimetableFixtures.createLineTimetable();
+        int[] connections = timetable.getConnections();
+        assertEquals(5, timetable.getConnectionCount());
+        for (int base = CONNECTION_STRIDE; base < connections.length; base += CONNECTION_STRIDE) {
+            int previous = base - CONNECTION_STRIDE;
+            assertTrue(connections[previous + CONNECTION_DEPARTURE] < connections[base + CONNECTION_DEPARTURE]
+                    || connections[previous + CONNECTION_DEPARTURE] == connections[base + CONNECTION_DEPARTURE]
+                    && connections[previous + CONNECTION_ARRIVAL] <= connections[base + CONNECTION_ARRIVAL]);
+        }
+        assertEquals(0, timetable.findFirstConnection(480));
+        assertEquals(2, timetable.findFirstConnection(486));
+        assertEquals(5, timetable.findFirstConnection(506));
+
+        // Leaving B at 08:06 misses the first trip, so the scan starts at the third connection: line 2 and the
+        // second trip's first hop are passed over, its second hop reaches C
+        int stops = timetable.getStopCount();
+        ConnectionScan connectionScan = new ConnectionScan(timetable);
+        connectionScan.execute(unreachedExcept(stops, timetable.getStopIndex("B"), 0), unreachedExcept(stops, timetable.getStopIndex("C"), 0), 486);
+        assertEquals(510, connectionScan.getTargetArrival());
+        assertEquals(3, connectionScan.getScannedConnections());
+    }
+
+    @Test
+    public void testStaysSeatedThroughStopReachedEarlier() {
+        TimetableBuilder builder = new TimetableBuilder();
+        int a = builder.addStop("A", 50.85, 5.69);
+        int b = builder.addStop("B", 50.86, 5.69);
+        int c = builder.addStop("C", 50.87, 5.69);
+        builder.addTrip(100, new int[]{a, b, c}, new int[]{480, 490, 500}, new int[]{480, 490, 500});
+        builder.addTrip(300, new int[]{a, b}, new int[]{481, 484}, new int[]{481, 484});
+        Timetable timetable = builder.build();
+        int stops = timetable.getStopCount();
+        ConnectionScan connectionScan = new ConnectionScan(timetable);
+        connectionScan.execute(unreachedExcept(stops, a, 0), unreachedExcept(stops, c, 0), 475);
+
+        // Line 3 reaches B first, but trip 100 was boarded at A and the itinerary rides it through
+        assertEquals(484, connectionScan.getArrival(b));
+        assertEquals(500, connectionScan.getTargetArrival());
+        DijkstraResult result = connectionScan.getResult("origin", "destination");
+        assertEquals(Arrays.asList("origin", "A", "B", "C", "destination"), result.getPath());
+        assertEquals(Arrays.asList(-1, 100, 100, -1), result.getLegTripIds());
+    }
+
+    @Test
+    public void testTripBoardedMidRoute() {
+        Timetable timetable = TimetableFixtures.createLineTimetable();
+        int stops = timetable.getStopCount();
+        ConnectionScan connectionScan = new ConnectionScan(timetable);
+        connectionScan.execute(unreachedExcept(stops, timetable.getStopIndex("B"), 3), unreachedExcept(stops, timetable.getStopIndex("C"), 0), 480);
+
+        // The hop from A is skipped because A is never reached; the trip is reached at B
+        assertEquals(490, connectionScan.getTargetArrival());
+        DijkstraResult result = connectionScan.getResult("origin", "destination");
+        assertEquals(Arrays.asList("origin", "B", "C", "destination"), result.getPath());
+        assertEquals(Arrays.asList(-1, 100, -1), result.getLegTripIds());
+    }
+
+    @Test
+    public void testScanStopsAtTarget() {
+        Timetable timetable = TimetableFixtures.createLineTimetable();
+        int stops = timetable.getStopCount();
+        ConnectionScan connectionScan = new ConnectionScan(timetable);
+        connectionScan.execute(unreachedExcept(stops, timetable.getStopIndex("A"), 0), unreachedExcept(stops, timetable.getStopIndex("B"), 0), 475);
+
+        assertEquals(485, connectionScan.getTargetArrival());
+        assertEquals(1, connectionScan.getScannedConnections());
+    }
+
+    @Test
+    public void testScanWithoutTargetReachesEveryStop() {
+        Timetable timetable = TimetableFixtures.createLineTimetable();
+        int stops = timetable.getStopCount();
+        ConnectionScan connectionScan = new ConnectionScan(timetable);
+        connectionScan.execute(unreachedExcept(stops, timetable.getStopIndex("A"), 0), null, 475);
+
+        assertEquals(timetable.getConnectionCount(), connectionScan.getScannedConnections());
+        assertEquals(ConnectionScan.UNREACHED, connectionScan.getTargetArrival());
+        assertEquals(475, connectionScan.getArrival(timetable.getStopIndex("A")));
+        assertEquals(485, connectionScan.getArrival(timetable.getStopIndex("B")));
+        assertEquals(490, connectionScan.getArrival(timetable.getStopIndex("C")));
+        assertEquals(500, connectionScan.getArrival(timetable.getStopIndex("D")));
+        assertEquals(490, connectionScan.getArrival(timetable.getStopIndex("E")));
+    }
+
+    @Test
+    public void testMatchesRaptorBetweenAllStops() {
+        Timetable timetable = TimetableFixtures.createLineTimetable();
+        int stops = timetable.getStopCount();
+        ConnectionScan connectionScan = new ConnectionScan(timetable);
+        Raptor raptor = new Raptor(timetable);
+        for (int origin = 0; origin < stops; origin++) {
+            for (int destination = 0; destination < stops; destination++) {
+                for (int time = 470; time <= 510; time += 5) {
+                    int[] access = unreachedExcept(stops, origin, 0);
+                    int[] egress = unreachedExcept(stops, destination, 0);
+                    connectionScan.execute(access, egress, time);
+                    raptor.execute(access, egress, time);
+                    assertEquals(raptor.getTargetArrival(), connectionScan.getTargetArrival());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package Test;
+
+import static org.junit.Assert.*;
+import static Test.OsmGridFixtures.getCoordinate;
+import org.junit.Test;
+
+import Algorithm.OSM.ContractionHierarchy;
+import Algorithm.OSM.Coordinate;
+import Algorithm.OSM.Dijkstra;
+import Algorithm.OSM.Graph;
+import Algorithm.OSM.GraphBuilder;
+
+import java.util.Random;
+
+public class ContractionHierarchyTest {
+
+    // Some one-way streets and a few missing blocks, so shortcuts, detours and unreachable pairs all occur
+    private Graph createGridGraph(Random random, int size) {
+        return OsmGridFixtures.createGridGraph(random, size, 80, 60, 10, 8);
+    }
+
+    @Test
+    public void testMatchesDijkstraOnRandomGrid() {
+        Random random = new Random(17);
+        Graph graph = createGridGraph(random, 20);
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+        ContractionHierarchy.Query query = hierarchy.createQuery();
+        Dijkstra dijkstra = new Dijkstra(graph);
+
+        assertEquals(400, hierarchy.getNodeCount());
+        for (int i = 0; i < 200; i++) {
+            Coordinate source = getCoordinate(graph, random.nextInt(graph.getNodeCount()));
+            Coordinate target = getCoordinate(graph, random.nextInt(graph.getNodeCount()));
+            assertEquals(dijkstra.findShortestDistance(source, target), query.findShortestDistance(source, target), 1e-9);
+        }
+    }
+
+    @Test
+    public void testQuerySettlesFewerNodesThanGraph() {
+        Random random = new Random(23);
+        Graph graph = createGridGraph(random, 30);
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+        ContractionHierarchy.Query query = hierarchy.createQuery();
+
+        long settled = 0;
+        for (int i = 0; i < 100; i++) {
+            query.getDistance(random.nextInt(hierarchy.getNodeCount()), random.nextInt(hierarchy.getNodeCount()));
+            settled += query.getSettledCount();
+        }
+        assertTrue(settled / 100 < hierarchy.getNodeCount() / 2);
+    }
+
+    @Test
+    public void testSameNodeAndEmptyGraph() {
+        Graph graph = createGridGraph(new Random(1), 3);
+        ContractionHierarchy.Query query = ContractionHierarchy.build(graph).createQuery();
+        Coordinate corner = getCoordinate(graph, graph.getNodeIndex(1000));
+        assertEquals(0.0, query.findShortestDistance(corner, corner), 0.0);
+
+        ContractionHierarchy empty = ContractionHierarchy.build(new GraphBuilder().build());
+        assertEquals(Double.MAX_VALUE, empty.createQuery().findShortestDistance(corner, corner), 0.0);
+    }
+}
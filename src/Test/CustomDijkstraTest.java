@@ -0,0 +1,429 @@
+package Test;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import Algorithm.Dijkstra.CustomDijkstra;
+import Algorithm.Dijkstra.DijkstraResult;
+import Algorithm.Dijkstra.EdgeBuffer;
+import Algorithm.Dijkstra.QueryOverlay;
+import Algorithm.Dijkstra.SearchMode;
+import Algorithm.Dijkstra.TransitGraph;
+import Algorithm.Dijkstra.TransitGraphBuilder;
+import Algorithm.Distance.DistanceCalculator;
+import Algorithm.Queue.QueueType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class CustomDijkstraTest {
+
+    // A -> B by bus at 08:00 and 08:30 (10 minutes), B -> C by bus at 08:15 and 08:45, or a 60 minute walk A -> C
+    private TransitGraph createGraph() {
+        TransitGraphBuilder builder = new TransitGraphBuilder();
+        int a = builder.addStop("A", 50.0, 5.0);
+        int b = builder.addStop("B", 50.0, 5.01);
+        int c = builder.addStop("C", 50.0, 5.02);
+        builder.addConnection(a, b, 510, 520, 2);
+        builder.addConnection(a, b, 480, 490, 1);
+        builder.addConnection(b, c, 495, 500, 3);
+        builder.addConnection(b, c, 525, 530, 4);
+        builder.addWalkingEdge(a, c, 60);
+        return builder.build();
+    }
+
+    private List<String> getStopPath(CustomDijkstra dijkstra, TransitGraph graph, String endStop) {
+        return dijkstra.getPathLabels(dijkstra.getPath(graph.getStopIndex(endStop)), "origin", "destination");
+    }
+
+    @Test
+    public void testUsesNextDeparture() {
+        TransitGraph graph = createGraph();
+        CustomDijkstra dijkstra = new CustomDijkstra(graph);
+        dijkstra.execute(graph.getStopIndex("A"), "07:50");
+
+        assertEquals(Arrays.asList("A", "B", "C"), getStopPath(dijkstra, graph, "C"));
+        assertEquals(Arrays.asList(1, 3), dijkstra.getLegTripIds(dijkstra.getPath(graph.getStopIndex("C"))));
+        assertEquals(30.0, dijkstra.getTotalTravelTime(graph.getStopIndex("C")), 0.0);
+    }
+
+    @Test
+    public void testSameGraphServesLaterDepartureTime() {
+        TransitGraph graph = createGraph();
+        CustomDijkstra dijkstra = new CustomDijkstra(graph);
+        dijkstra.execute(graph.getStopIndex("A"), "07:50");
+
+        dijkstra.execute(graph.getStopIndex("A"), "08:20");
+        assertEquals(Arrays.asList(2, 4), dijkstra.getLegTripIds(dijkstra.getPath(graph.getStopIndex("C"))));
+        assertEquals(10.0 + 20.0, dijkstra.getTotalTravelTime(graph.getStopIndex("C")), 0.0);
+    }
+
+    @Test
+    public void testWalksAfterLastDeparture() {
+        TransitGraph graph = createGraph();
+        CustomDijkstra dijkstra = new CustomDijkstra(graph);
+        dijkstra.execute(graph.getStopIndex("A"), "09:00");
+
+        List<Integer> path = dijkstra.getPath(graph.getStopIndex("C"));
+        assertEquals(Arrays.asList("A", "C"), getStopPath(dijkstra, graph, "C"));
+        assertEquals(Arrays.asList(DijkstraResult.WALKING_LEG), dijkstra.getLegTripIds(path));
+        assertEquals(60.0, dijkstra.getTotalTravelTime(graph.getStopIndex("C")), 0.0);
+    }
+
+    @Test
+    public void testFasterLaterTripIsFound() {
+        TransitGraphBuilder builder = new TransitGraphBuilder();
+        int a = builder.addStop("A", 50.0, 5.0);
+        int b = builder.addStop("B", 50.0, 5.01);
+        builder.addConnection(a, b, 480, 510, 1);
+        builder.addConnection(a, b, 485, 495, 2);
+        TransitGraph graph = builder.build();
+
+        int edge = graph.findEdge(a, b);
+        assertEquals(2, graph.getDepartureCount(edge));
+        assertEquals(495, graph.getArrivalTime(edge, 470));
+        assertEquals(2, graph.getTripId(edge, 470));
+        assertEquals(TransitGraph.NO_CONNECTION, graph.getArrivalTime(edge, 490));
+    }
+
+    @Test
+    public void testSuperNodesComeFromOverlay() {
+        TransitGraph graph = createGraph();
+        float[] access = {5, TransitGraph.NO_WALK, TransitGraph.NO_WALK};
+        float[] egress = {TransitGraph.NO_WALK, TransitGraph.NO_WALK, 3};
+        QueryOverlay overlay = new QueryOverlay(access, egress, 50.0, 5.02);
+
+        for (SearchMode searchMode : SearchMode.values()) {
+            CustomDijkstra dijkstra = new CustomDijkstra(graph, overlay);
+            dijkstra.execute(graph.getOriginVertex(), graph.getDestinationVertex(), "07:50", searchMode);
+            List<Integer> path = dijkstra.getPath(graph.getDestinationVertex());
+            assertEquals(Arrays.asList("from", "A", "B", "C", "to"), dijkstra.getPathLabels(path, "from", "to"));
+            assertEquals(Arrays.asList(DijkstraResult.WALKING_LEG, 1, 3, DijkstraResult.WALKING_LEG), dijkstra.getLegTripIds(path));
+            assertEquals(33.0, dijkstra.getTotalTravelTime(graph.getDestinationVertex()), 0.0);
+        }
+    }
+
+    @Test
+    public void testComputeArrivalTimesLabelsEveryStop() {
+        TransitGraph graph = createGraph();
+        CustomDijkstra dijkstra = new CustomDijkstra(graph);
+        // A target query first, so the one-to-all search cannot rely on labels left from a full search
+        dijkstra.execute(graph.getStopIndex("A"), graph.getStopIndex("B"), "07:50", SearchMode.TARGET);
+
+        int[] arrivalTimes = dijkstra.computeArrivalTimes(graph.getStopIndex("A"), "07:50");
+        assertEquals(graph.getStopCount(), arrivalTimes.length);
+        assertEquals(470, arrivalTimes[graph.getStopIndex("A")]);
+        assertEquals(490, arrivalTimes[graph.getStopIndex("B")]);
+        assertEquals(500, arrivalTimes[graph.getStopIndex("C")]);
+
+        arrivalTimes = dijkstra.computeArrivalTimes(graph.getStopIndex("C"), "07:50");
+        assertEquals(TransitGraph.NO_CONNECTION, arrivalTimes[graph.getStopIndex("A")]);
+        assertEquals(TransitGraph.NO_CONNECTION, arrivalTimes[graph.getStopIndex("B")]);
+    }
+
+    @Test
+    public void testOverlaysDoNotAffectEachOther() {
+        TransitGraph graph = createGraph();
+        QueryOverlay toC = new QueryOverlay(new float[]{0, TransitGraph.NO_WALK, TransitGraph.NO_WALK},
+                new float[]{TransitGraph.NO_WALK, TransitGraph.NO_WALK, 0}, Double.NaN, Double.NaN);
+        QueryOverlay toB = new QueryOverlay(new float[]{0, TransitGraph.NO_WALK, TransitGraph.NO_WALK},
+                new float[]{TransitGraph.NO_WALK, 0, TransitGraph.NO_WALK}, Double.NaN, Double.NaN);
+
+        CustomDijkstra first = new CustomDijkstra(graph, toC);
+        CustomDijkstra second = new CustomDijkstra(graph, toB);
+        first.execute(graph.getOriginVertex(), "07:50");
+        second.execute(graph.getOriginVertex(), "07:50");
+        assertEquals(30.0, first.getTotalTravelTime(graph.getDestinationVertex()), 0.0);
+        assertEquals(20.0, second.getTotalTravelTime(graph.getDestinationVertex()), 0.0);
+
+        CustomDijkstra withoutOverlay = new CustomDijkstra(graph);
+        withoutOverlay.execute(graph.getOriginVertex(), "07:50");
+        assertEquals(Double.MAX_VALUE, withoutOverlay.getTotalTravelTime(graph.getDestinationVertex()), 0.0);
+    }
+
+    @Test
+    public void testTargetModeStopsAtTarget() {
+        TransitGraph graph = createGraph();
+        CustomDijkstra dijkstra = new CustomDijkstra(graph);
+        dijkstra.execute(graph.getStopIndex("A"), graph.getStopIndex("B"), "07:50", SearchMode.TARGET);
+
+        assertEquals(20.0, dijkstra.getTotalTravelTime(graph.getStopIndex("B")), 0.0);
+        assertEquals(Double.MAX_VALUE, dijkstra.getTotalTravelTime(graph.getDestinationVertex()), 0.0);
+    }
+
+    @Test
+    public void testSearchModesAgreeOnRandomNetwork() {
+        Random random = new Random(3);
+        TransitGraphBuilder builder = new TransitGraphBuilder();
+        int stops = 60;
+        for (int stop = 0; stop < stops; stop++) {
+            builder.addStop("S" + stop, Double.NaN, Double.NaN);
+        }
+        for (int trip = 0; trip < 80; trip++) {
+            int stop = random.nextInt(stops);
+            int time = 420 + random.nextInt(240);
+            for (int hop = 0; hop < 6; hop++) {
+                int next = random.nextInt(stops);
+                int arrival = time + 1 + random.nextInt(8);
+                if (next != stop) {
+                    builder.addConnection(stop, next, time, arrival, trip);
+                    stop = next;
+                }
+                time = arrival + random.nextInt(3);
+            }
+        }
+        for (int walk = 0; walk < 120; walk++) {
+            builder.addWalkingEdge(random.nextInt(stops), random.nextInt(stops), 5 + random.nextInt(40));
+        }
+        TransitGraph graph = builder.build();
+
+        CustomDijkstra full = new CustomDijkstra(graph);
+        CustomDijkstra target = new CustomDijkstra(graph);
+        CustomDijkstra bidirectional = new CustomDijkstra(graph);
+        CustomDijkstra bucketBidirectional = new CustomDijkstra(graph, QueueType.BUCKET_QUEUE);
+        for (int query = 0; query < 200; query++) {
+            int start = random.nextInt(stops);
+            int end = random.nextInt(stops);
+            String time = (7 + random.nextInt(3)) + ":" + random.nextInt(60);
+            full.execute(start, time);
+            target.execute(start, end, time, SearchMode.TARGET);
+            bidirectional.execute(start, end, time, SearchMode.BIDIRECTIONAL);
+            bucketBidirectional.execute(start, end, time, SearchMode.BIDIRECTIONAL);
+
+            assertEquals(full.getTotalTravelTime(end), target.getTotalTravelTime(end), 0.0);
+            assertEquals(full.getTotalTravelTime(end), bidirectional.getTotalTravelTime(end), 0.0);
+            assertEquals(full.getTotalTravelTime(end), bucketBidirectional.getTotalTravelTime(end), 0.0);
+        }
+
+        for (int query = 0; query < 50; query++) {
+            float[] access = new float[stops];
+            float[] egress = new float[stops];
+            for (int stop = 0; stop < stops; stop++) {
+                access[stop] = random.nextInt(4) == 0 ? random.nextInt(30) : TransitGraph.NO_WALK;
+                egress[stop] = random.nextInt(4) == 0 ? random.nextInt(30) : TransitGraph.NO_WALK;
+            }
+            QueryOverlay overlay = new QueryOverlay(access, egress, Double.NaN, Double.NaN);
+            CustomDijkstra expected = new CustomDijkstra(graph, overlay);
+            expected.execute(graph.getOriginVertex(), "08:00");
+            for (SearchMode searchMode : SearchMode.values()) {
+                CustomDijkstra actual = new CustomDijkstra(graph, overlay);
+                actual.execute(graph.getOriginVertex(), graph.getDestinationVertex(), "08:00", searchMode);
+                assertEquals(expected.getTotalTravelTime(graph.getDestinationVertex()), actual.getTotalTravelTime(graph.getDestinationVertex()), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testAStarMatchesDijkstraWithFewerSettledNodes() {
+        Random random = new Random(11);
+        DistanceCalculator distanceCalculator = new DistanceCalculator();
+        TransitGraphBuilder builder = new TransitGraphBuilder();
+        int stops = 150;
+        double[][] coordinates = new double[stops][];
+        for (int stop = 0; stop < stops; stop++) {
+            coordinates[stop] = new double[]{50.80 + random.nextDouble() * 0.1, 5.65 + random.nextDouble() * 0.1};
+            builder.addStop("S" + stop, coordinates[stop][0], coordinates[stop][1]);
+        }
+        for (int trip = 0; trip < 150; trip++) {
+            int stop = random.nextInt(stops);
+            int time = 420 + random.nextInt(240);
+            for (int hop = 0; hop < 8; hop++) {
+                int next = random.nextInt(stops);
+                if (next == stop) {
+                    continue;
+                }
+                // Buses run at 30 km/h at most
+                double distance = distanceCalculator.calculateDistance(coordinates[stop][0], coordinates[stop][1], coordinates[next][0], coordinates[next][1]);
+                int arrival = time + (int) Math.ceil(distance * 2) + 1 + random.nextInt(3);
+                builder.addConnection(stop, next, time, arrival, trip);
+                stop = next;
+                time = arrival + random.nextInt(3);
+            }
+        }
+        for (int from = 0; from < stops; from++) {
+            for (int to = 0; to < stops; to++) {
+                double distance = distanceCalculator.calculateDistance(coordinates[from][0], coordinates[from][1], coordinates[to][0], coordinates[to][1]);
+                if (from != to && distance <= 1.0) {
+                    builder.addWalkingEdge(from, to, Math.max(1, distanceCalculator.calculateWalkingTime(distance)));
+                }
+            }
+        }
+        TransitGraph graph = builder.build();
+
+        CustomDijkstra dijkstra = new CustomDijkstra(graph);
+        CustomDijkstra aStar = new CustomDijkstra(graph, QueueType.BUCKET_QUEUE);
+        long dijkstraSettled = 0;
+        long aStarSettled = 0;
+        for (int query = 0; query < 100; query++) {
+            int start = random.nextInt(stops);
+            int end = random.nextInt(stops);
+            dijkstra.execute(start, end, "08:00", SearchMode.TARGET);
+            aStar.execute(start, end, "08:00", SearchMode.ASTAR);
+
+            assertEquals(dijkstra.getTotalTravelTime(end), aStar.getTotalTravelTime(end), 0.0);
+            dijkstraSettled += dijkstra.getSettledCount();
+            aStarSettled += aStar.getSettledCount();
+        }
+        assertTrue(aStarSettled < dijkstraSettled);
+    }
+
+    @Test
+    public void testConnectionOrderDoesNotChangeGraph() {
+        TransitGraphBuilder direct = new TransitGraphBuilder();
+        TransitGraphBuilder merged = new TransitGraphBuilder();
+        for (TransitGraphBuilder builder : new TransitGraphBuilder[]{direct, merged}) {
+            builder.addStop("A", 50.0, 5.0);
+            builder.addStop("B", 50.0, 5.01);
+            builder.addStop("C", 50.0, 5.02);
+        }
+        EdgeBuffer first = new EdgeBuffer(1);
+        EdgeBuffer second = new EdgeBuffer(1);
+        int[][] connections = {{0, 1, 480, 490, 1}, {0, 1, 480, 489, 4}, {0, 1, 480, 489, 2}, {1, 2, 495, 500, 1}, {0, 2, 470, 520, 3}};
+        for (int i = 0; i < connections.length; i++) {
+            int[] c = connections[i];
+            direct.addConnection(c[0], c[1], c[2], c[3], c[4]);
+            (i < 2 ? first : second).add(c[0], c[1], c[2], c[3], c[4]);
+        }
+        merged.addConnections(second);
+        merged.addConnections(first);
+
+        TransitGraph expected = direct.build();
+        TransitGraph actual = merged.build();
+        assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+        for (int edge = 0; edge < expected.getEdgeCount(); edge++) {
+            assertEquals(expected.getTarget(edge), actual.getTarget(edge));
+            assertEquals(expected.getDepartureCount(edge), actual.getDepartureCount(edge));
+            assertEquals(expected.getArrivalTime(edge, 460), actual.getArrivalTime(edge, 460));
+            assertEquals(expected.getTripId(edge, 460), actual.getTripId(edge, 460));
+        }
+        assertEquals(489, actual.getArrivalTime(actual.findEdge(0, 1), 475));
+        assertEquals(2, actual.getTripId(actual.findEdge(0, 1), 475));
+    }
+
+    @Test
+    public void testParallelBuildMatchesSequentialBuild() {
+        // Enough stops that the pool splits them over several packing tasks
+        Random random = new Random(7);
+        TransitGraphBuilder builder = new TransitGraphBuilder();
+        int stops = 500;
+        for (int stop = 0; stop < stops; stop++) {
+            builder.addStop("S" + stop, 50.0 + stop * 0.001, 5.0);
+        }
+        for (int i = 0; i < 5000; i++) {
+            int departure = 360 + random.nextInt(600);
+            builder.addConnection(random.nextInt(stops), random.nextInt(stops), departure, departure + 1 + random.nextInt(30), random.nextInt(200));
+        }
+        for (int i = 0; i < 2000; i++) {
+            builder.addWalkingEdge(random.nextInt(stops), random.nextInt(stops), 1 + random.nextInt(20));
+        }
+
+        TransitGraph expected = builder.build();
+        TransitGraph actual = builder.build(new ForkJoinPool(4));
+        assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+        for (int stop = 0; stop < stops; stop++) {
+            assertEquals(expected.getFirstEdge(stop), actual.getFirstEdge(stop));
+        }
+        for (int edge = 0; edge < expected.getEdgeCount(); edge++) {
+            assertEquals(expected.getTarget(edge), actual.getTarget(edge));
+            assertEquals(expected.getWeight(edge), actual.getWeight(edge), 0.0f);
+            assertEquals(expected.getDepartureCount(edge), actual.getDepartureCount(edge));
+            for (int time = 360; time < 960; time += 15) {
+                assertEquals(expected.getArrivalTime(edge, time), actual.getArrivalTime(edge, time));
+                assertEquals(expected.getTripId(edge, time), actual.getTripId(edge, time));
+            }
+        }
+    }
+
+    @Test
+    public void testSlidingWindowMatchesRebuild() {
+        Random random = new Random(17);
+        int stops = 50;
+        EdgeBuffer connections = new EdgeBuffer(1);
+        for (int trip = 0; trip < 120; trip++) {
+            int stop = random.nextInt(stops);
+            int time = 420 + random.nextInt(360);
+            for (int hop = 0; hop < 6; hop++) {
+                int next = random.nextInt(stops);
+                int arrival = time + 1 + random.nextInt(8);
+                if (next != stop) {
+                    connections.add(stop, next, time, arrival, trip);
+                    stop = next;
+                }
+                time = arrival + random.nextInt(3);
+            }
+        }
+        int[][] walks = new int[80][];
+        for (int walk = 0; walk < walks.length; walk++) {
+            walks[walk] = new int[]{random.nextInt(stops), random.nextInt(stops), 5 + random.nextInt(40)};
+        }
+
+        TransitGraph earlier = buildWindow(connections, walks, stops, 420, 720);
+        for (int[] window : new int[][]{{480, 780}, {360, 660}}) {
+            TransitGraphBuilder builder = new TransitGraphBuilder();
+            builder.addGraph(earlier, Math.max(window[0], 420), Math.min(window[1], 720));
+            for (int i = 0; i < connections.size(); i++) {
+                int departure = connections.getDeparture(i);
+                if (departure >= window[0] && departure < window[1] && (departure < 420 || departure >= 720)) {
+                    builder.addConnection(connections.getSource(i), connections.getTarget(i), departure, connections.getArrival(i), connections.getTripId(i));
+                }
+            }
+            TransitGraph slid = builder.build();
+            TransitGraph rebuilt = buildWindow(connections, walks, stops, window[0], window[1]);
+            assertEquals(rebuilt.getEdgeCount(), slid.getEdgeCount());
+
+            CustomDijkstra expected = new CustomDijkstra(rebuilt);
+            CustomDijkstra actual = new CustomDijkstra(slid);
+            for (int query = 0; query < 50; query++) {
+                int start = random.nextInt(stops);
+                String time = (window[0] / 60) + ":" + random.nextInt(60);
+                expected.execute(start, time);
+                actual.execute(start, time);
+                for (int stop = 0; stop < stops; stop++) {
+                    assertEquals(expected.getTotalTravelTime(stop), actual.getTotalTravelTime(stop), 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBackwardSlideDropsOvertakingDeparture() {
+        // Trip 2 departs later but arrives first, so in the window [420, 720) it is the best ride from 640 on
+        EdgeBuffer connections = new EdgeBuffer(1);
+        connections.add(0, 1, 650, 700, 1);
+        connections.add(0, 1, 670, 680, 2);
+        TransitGraph earlier = buildWindow(connections, new int[0][], 2, 420, 720);
+        int earlierEdge = earlier.findEdge(0, 1);
+        assertEquals(680, earlier.getArrivalTime(earlierEdge, 640));
+        assertEquals(2, earlier.getTripId(earlierEdge, 640));
+
+        // Sliding back to [360, 660) drops trip 2, so trip 1 must be the best ride again, as in a fresh build
+        TransitGraphBuilder builder = new TransitGraphBuilder();
+        builder.addGraph(earlier, 420, 660);
+        TransitGraph slid = builder.build();
+        TransitGraph rebuilt = buildWindow(connections, new int[0][], 2, 360, 660);
+        int edge = slid.findEdge(0, 1);
+        assertEquals(700, slid.getArrivalTime(edge, 640));
+        assertEquals(1, slid.getTripId(edge, 640));
+        assertEquals(rebuilt.getArrivalTime(rebuilt.findEdge(0, 1), 640), slid.getArrivalTime(edge, 640));
+        assertEquals(TransitGraph.NO_CONNECTION, slid.getArrivalTime(edge, 651));
+    }
+
+    private static TransitGraph buildWindow(EdgeBuffer connections, int[][] walks, int stops, int fromMinutes, int toMinutes) {
+        TransitGraphBuilder builder = new TransitGraphBuilder();
+        for (int stop = 0; stop < stops; stop++) {
+            builder.addStop("S" + stop, Double.NaN, Double.NaN);
+        }
+        for (int i = 0; i < connections.size(); i++) {
+            int departure = connections.getDeparture(i);
+            if (departure >= fromMinutes && departure < toMinutes) {
+                builder.addConnection(connections.getSource(i), connections.getTarget(i), departure, connections.getArrival(i), connections.getTripId(i));
+            }
+        }
+        for (int[] walk : walks) {
+            builder.addWalkingEdge(walk[0], walk[1], walk[2]);
+        }
+        return builder.build();
+    }
+}
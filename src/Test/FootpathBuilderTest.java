@@ -0,0 +1,110 @@
+package Test;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import Algorithm.Distance.DistanceCalculator;
+import Algorithm.Distance.StopDistanceTable;
+import Algorithm.OSM.Coordinate;
+import Algorithm.OSM.Dijkstra;
+import Algorithm.OSM.FootpathBuilder;
+import Algorithm.OSM.Graph;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class FootpathBuilderTest {
+
+    // Two-way streets with detours: some are longer than the straight line, and a few blocks are missing
+    private Graph createGridGraph(Random random, int size) {
+        return OsmGridFixtures.createGridGraph(random, size, 100, 80, 8, 0);
+    }
+
+    // Walking kilometers the slow way: a full Dijkstra between the snapped nodes plus the straight snapping walks
+    private double getExpectedKm(Graph graph, Dijkstra dijkstra, double lat1, double lon1, double lat2, double lon2) {
+        double meters = dijkstra.findShortestDistance(new Coordinate(lat1, lon1), new Coordinate(lat2, lon2));
+        if (meters == Double.MAX_VALUE) {
+            return Double.MAX_VALUE;
+        }
+        DistanceCalculator distanceCalculator = new DistanceCalculator();
+        int source = graph.findClosestNode(lat1, lon1);
+        int target = graph.findClosestNode(lat2, lon2);
+        return distanceCalculator.calculateDistance(lat1, lon1, graph.getLatitude(source), graph.getLongitude(source))
+                + meters / 1000.0
+                + distanceCalculator.calculateDistance(graph.getLatitude(target), graph.getLongitude(target), lat2, lon2);
+    }
+
+    @Test
+    public void testStopDistancesMatchDijkstra() {
+        Random random = new Random(11);
+        Graph graph = createGridGraph(random, 12);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        double[] latitudes = new double[40];
+        double[] longitudes = new double[40];
+        for (int stop = 0; stop < latitudes.length; stop++) {
+            latitudes[stop] = 50.85 + random.nextDouble() * 0.01;
+            longitudes[stop] = 5.69 + random.nextDouble() * 0.015;
+        }
+        // A stop without coordinates gets no footpaths at all
+        latitudes[7] = Double.NaN;
+        longitudes[7] = Double.NaN;
+
+        double maxKm = 0.6;
+        FootpathBuilder builder = new FootpathBuilder(graph, latitudes, longitudes);
+        assertFalse(builder.isSnapped(7));
+        StopDistanceTable table = builder.computeStopDistances(maxKm, new ForkJoinPool(4));
+        assertEquals(latitudes.length, table.getStopCount());
+
+        int pairs = 0;
+        for (int from = 0; from < latitudes.length; from++) {
+            for (int to = 0; to < latitudes.length; to++) {
+                double expectedKm = from == 7 || to == 7 || from == to ? Double.MAX_VALUE
+                        : getExpectedKm(graph, dijkstra, latitudes[from], longitudes[from], latitudes[to], longitudes[to]);
+                if (expectedKm <= maxKm) {
+                    assertEquals(expectedKm, table.getDistanceKm(from, to), 1e-5);
+                    pairs++;
+                } else {
+                    assertEquals(Double.MAX_VALUE, table.getDistanceKm(from, to), 0.0);
+                }
+            }
+        }
+        assertEquals(pairs, table.getPairCount());
+        assertTrue(pairs > 0);
+    }
+
+    @Test
+    public void testDistancesFromPoint() {
+        Random random = new Random(3);
+        Graph graph = createGridGraph(random, 10);
+        Dijkstra dijkstra = new Dijkstra(graph);
+        double[] latitudes = new double[25];
+        double[] longitudes = new double[25];
+        for (int stop = 0; stop < latitudes.length; stop++) {
+            latitudes[stop] = 50.85 + random.nextDouble() * 0.008;
+            longitudes[stop] = 5.69 + random.nextDouble() * 0.012;
+        }
+        FootpathBuilder builder = new FootpathBuilder(graph, latitudes, longitudes);
+
+        // Unbounded, every stop on the same component as the point is reached
+        float[] distancesKm = builder.computeDistancesKm(50.853, 5.695, Double.POSITIVE_INFINITY);
+        for (int stop = 0; stop < latitudes.length; stop++) {
+            double expectedKm = getExpectedKm(graph, dijkstra, 50.853, 5.695, latitudes[stop], longitudes[stop]);
+            if (expectedKm == Double.MAX_VALUE) {
+                assertEquals(Float.POSITIVE_INFINITY, distancesKm[stop], 0.0f);
+            } else {
+                assertEquals(expectedKm, distancesKm[stop], 1e-5);
+            }
+        }
+
+        // Bounded, stops further away are left out, and a repeated search gives the same answer
+        float[] boundedKm = builder.computeDistancesKm(50.853, 5.695, 0.5);
+        assertArrayEquals(boundedKm, builder.computeDistancesKm(50.853, 5.695, 0.5), 0.0f);
+        for (int stop = 0; stop < latitudes.length; stop++) {
+            if (distancesKm[stop] <= 0.5) {
+                assertEquals(distancesKm[stop], boundedKm[stop], 0.0f);
+            } else {
+                assertEquals(Float.POSITIVE_INFINITY, boundedKm[stop], 0.0f);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package Test;
+
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Test;
+
+import Algorithm.Dijkstra.GraphCache;
+import Algorithm.Dijkstra.TransitGraph;
+import Algorithm.Dijkstra.TransitGraphBuilder;
+
+public class GraphCacheTest {
+
+    @After
+    public void resetCache() {
+        GraphCache.configure(GraphCache.DEFAULT_BAND_MINUTES, GraphCache.DEFAULT_HORIZON_MINUTES,
+                GraphCache.DEFAULT_MAX_SNAPSHOTS, GraphCache.DEFAULT_MEMORY_CEILING_BYTES);
+    }
+
+    private static TransitGraph buildGraph(int connections) {
+        TransitGraphBuilder builder = new TransitGraphBuilder();
+        int a = builder.addStop("A", 50.85, 5.69);
+        int b = builder.addStop("B", 50.86, 5.70);
+        for (int i = 0; i < connections; i++) {
+            builder.addConnection(a, b, 480 + i, 490 + i, i);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testNearbyTimesShareSnapshot() {
+        GraphCache.configure(60, 240, 4, Long.MAX_VALUE);
+        assertNull(GraphCache.getCachedGraph(8 * 60 + 5));
+        TransitGraph graph = buildGraph(1);
+        GraphCache.cacheGraph(GraphCache.getBandStart(8 * 60 + 5), graph);
+
+        assertSame(graph, GraphCache.getCachedGraph(8 * 60 + 6));
+        assertSame(graph, GraphCache.getCachedGraph(8 * 60 + 59));
+        assertNull(GraphCache.getCachedGraph(9 * 60));
+        assertEquals(2, GraphCache.getHitCount());
+        assertEquals(2, GraphCache.getMissCount());
+        assertEquals(8 * 60 + 60 + 240, GraphCache.getBandEnd(8 * 60));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        GraphCache.configure(60, 0, 2, Long.MAX_VALUE);
+        GraphCache.cacheGraph(0, buildGraph(1));
+        GraphCache.cacheGraph(60, buildGraph(1));
+        assertNotNull(GraphCache.getCachedGraph(10));
+        GraphCache.cacheGraph(120, buildGraph(1));
+
+        assertTrue(GraphCache.isGraphCached(0));
+        assertFalse(GraphCache.isGraphCached(60));
+        assertTrue(GraphCache.isGraphCached(120));
+        assertEquals(2, GraphCache.getSnapshotCount());
+        assertEquals(1, GraphCache.getEvictionCount());
+    }
+
+    @Test
+    public void testMemoryCeiling() {
+        TransitGraph small = buildGraph(10);
+        TransitGraph large = buildGraph(1000);
+        GraphCache.configure(60, 0, 10, small.estimateMemoryBytes() * 2);
+        GraphCache.cacheGraph(0, small);
+        GraphCache.cacheGraph(60, buildGraph(10));
+        assertEquals(2, GraphCache.getSnapshotCount());
+        assertEquals(small.estimateMemoryBytes() * 2, GraphCache.getMemoryUsage());
+
+        // A snapshot larger than the ceiling evicts everything else but is kept itself
+        GraphCache.cacheGraph(120, large);
+        assertEquals(1, GraphCache.getSnapshotCount());
+        assertTrue(GraphCache.isGraphCached(120));
+        assertEquals(large.estimateMemoryBytes(), GraphCache.getMemoryUsage());
+    }
+
+    @Test
+    public void testFindsMostOverlappingBand() {
+        GraphCache.configure(60, 120, 4, Long.MAX_VALUE);
+        assertEquals(GraphCache.NO_BAND, GraphCache.findOverlappingBand(480));
+        GraphCache.cacheGraph(300, buildGraph(1));
+        GraphCache.cacheGraph(420, buildGraph(1));
+        GraphCache.cacheGraph(900, buildGraph(1));
+
+        assertEquals(420, GraphCache.findOverlappingBand(480));
+        assertEquals(300, GraphCache.findOverlappingBand(240));
+        assertEquals(GraphCache.NO_BAND, GraphCache.findOverlappingBand(600));
+        assertEquals(0, GraphCache.getHitCount() + GraphCache.getMissCount());
+    }
+}
@@ -0,0 +1,91 @@
+package Test;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import Algorithm.Distance.DistanceCalculator;
+import Algorithm.Distance.GridIndex;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class GridIndexTest {
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(5);
+        int points = 500;
+        double[] latitudes = new double[points];
+        double[] longitudes = new double[points];
+        for (int point = 0; point < points; point++) {
+            latitudes[point] = 50.80 + random.nextDouble() * 0.1;
+            longitudes[point] = 5.60 + random.nextDouble() * 0.15;
+        }
+        latitudes[7] = Double.NaN;
+        GridIndex gridIndex = new GridIndex(latitudes, longitudes, 1.0);
+        DistanceCalculator distanceCalculator = new DistanceCalculator();
+
+        for (double radius : new double[]{0.3, 1.0, 2.5}) {
+            for (int query = 0; query < 50; query++) {
+                double lat = 50.78 + random.nextDouble() * 0.14;
+                double lon = 5.58 + random.nextDouble() * 0.19;
+                Set<Integer> expected = new TreeSet<>();
+                for (int point = 0; point < points; point++) {
+                    if (distanceCalculator.calculateDistance(lat, lon, latitudes[point], longitudes[point]) <= radius) {
+                        expected.add(point);
+                    }
+                }
+                Set<Integer> actual = new TreeSet<>();
+                gridIndex.forEachWithin(lat, lon, radius, (point, distance) -> assertTrue(actual.add(point)));
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testNearestMatchesBruteForce() {
+        Random random = new Random(9);
+        int points = 400;
+        double[] latitudes = new double[points];
+        double[] longitudes = new double[points];
+        for (int point = 0; point < points; point++) {
+            latitudes[point] = 50.80 + random.nextDouble() * 0.1;
+            longitudes[point] = 5.60 + random.nextDouble() * 0.15;
+        }
+        latitudes[11] = Double.NaN;
+        GridIndex gridIndex = new GridIndex(latitudes, longitudes, 0.2);
+        DistanceCalculator distanceCalculator = new DistanceCalculator();
+
+        for (int query = 0; query < 200; query++) {
+            // Some queries fall well outside the indexed area
+            double lat = 50.70 + random.nextDouble() * 0.3;
+            double lon = 5.50 + random.nextDouble() * 0.35;
+            Integer[] expected = new Integer[points - 1];
+            for (int point = 0, i = 0; point < points; point++) {
+                if (point != 11) {
+                    expected[i++] = point;
+                }
+            }
+            Arrays.sort(expected, (a, b) -> Double.compare(
+                    distanceCalculator.calculateDistance(lat, lon, latitudes[a], longitudes[a]),
+                    distanceCalculator.calculateDistance(lat, lon, latitudes[b], longitudes[b])));
+
+            assertEquals((int) expected[0], gridIndex.findNearest(lat, lon));
+            int[] nearest = gridIndex.findNearest(lat, lon, 5);
+            assertEquals(5, nearest.length);
+            for (int i = 0; i < nearest.length; i++) {
+                assertEquals((int) expected[i], nearest[i]);
+            }
+        }
+        assertEquals(points - 1, gridIndex.findNearest(50.85, 5.65, 1000).length);
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        GridIndex gridIndex = new GridIndex(new double[]{Double.NaN}, new double[]{Double.NaN}, 1.0);
+        gridIndex.forEachWithin(50.85, 5.69, 10.0, (point, distance) -> fail());
+        assertEquals(-1, gridIndex.findNearest(50.85, 5.69));
+    }
+}
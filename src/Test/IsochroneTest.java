@@ -0,0 +1,55 @@
+package Test;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import Algorithm.Dijkstra.Isochrone;
+import Algorithm.Dijkstra.TransitGraph;
+import Algorithm.Dijkstra.TransitGraphBuilder;
+import Algorithm.Dijkstra.TravelTimeTree;
+
+public class IsochroneTest {
+
+    // Departing at 08:00 from next to stop A, reaching A after 2 minutes and stop B, about 7 km east, after 10
+    private TravelTimeTree createTree() {
+        TransitGraphBuilder builder = new TransitGraphBuilder();
+        builder.addStop("A", 50.0, 5.0);
+        builder.addStop("B", 50.0, 5.1);
+        builder.addStop("C", Double.NaN, Double.NaN);
+        TransitGraph graph = builder.build();
+        return new TravelTimeTree(graph, 50.0, 5.0, 480, new int[] {482, 490, TravelTimeTree.UNREACHED});
+    }
+
+    @Test
+    public void testCellsAroundReachedStops() {
+        Isochrone isochrone = Isochrone.build(createTree(), 30, 0.1);
+
+        assertTrue(isochrone.getMinutes(50.0, 5.0) <= 1);
+        int atB = isochrone.getMinutes(50.0, 5.1);
+        assertTrue(atB >= 10 && atB <= 11);
+        // One kilometre east of B: ten minutes of travel and twelve of walking
+        int pastB = isochrone.getMinutes(50.0, 5.114);
+        assertTrue(pastB >= 21 && pastB <= 23);
+        // Halfway between A and B is more than 30 minutes of walking from both
+        assertEquals(Isochrone.UNREACHED, isochrone.getMinutes(50.0, 5.05));
+        assertEquals(Isochrone.UNREACHED, isochrone.getMinutes(50.1, 5.0));
+    }
+
+    @Test
+    public void testRingsPartitionCells() {
+        Isochrone isochrone = Isochrone.build(createTree(), 30, 0.1);
+
+        int inner = isochrone.getCells(-1, 10).length;
+        int middle = isochrone.getCells(10, 20).length;
+        int outer = isochrone.getCells(20, 30).length;
+        assertTrue(inner > 0 && middle > 0 && outer > 0);
+        assertEquals(isochrone.getCells(-1, 30).length, inner + middle + outer);
+
+        double[] corners = isochrone.getCells(-1, 10);
+        for (int i = 0; i < corners.length; i += 2) {
+            double centerLatitude = corners[i] + isochrone.getCellHeightDegrees() / 2;
+            double centerLongitude = corners[i + 1] + isochrone.getCellWidthDegrees() / 2;
+            assertTrue(isochrone.getMinutes(centerLatitude, centerLongitude) <= 10);
+        }
+    }
+}
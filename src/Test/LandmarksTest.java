@@ -0,0 +1,115 @@
+package Test;
+
+import static org.junit.Assert.*;
+import static Test.OsmGridFixtures.getCoordinate;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import Algorithm.OSM.Coordinate;
+import Algorithm.OSM.Dijkstra;
+import Algorithm.OSM.Graph;
+import Algorithm.OSM.GraphBuilder;
+import Algorithm.OSM.LandmarkSnapshot;
+import Algorithm.OSM.Landmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class LandmarksTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // Some one-way streets and a few missing blocks, so detours and unreachable pairs both occur
+    private Graph createGridGraph(Random random, int size) {
+        return OsmGridFixtures.createGridGraph(random, size, 100, 40, 10, 8);
+    }
+
+    @Test
+    public void testMatchesDijkstraOnRandomGrid() {
+        Random random = new Random(29);
+        Graph graph = createGridGraph(random, 30);
+        Landmarks landmarks = Landmarks.build(graph, 8, new ForkJoinPool(4));
+        assertEquals(8, landmarks.getLandmarkCount());
+        int[] landmarkNodes = new int[landmarks.getLandmarkCount()];
+        for (int landmark = 0; landmark < landmarkNodes.length; landmark++) {
+            landmarkNodes[landmark] = landmarks.getLandmarkNode(landmark);
+        }
+        assertEquals(landmarkNodes.length, Arrays.stream(landmarkNodes).distinct().count());
+
+        Dijkstra plain = new Dijkstra(graph);
+        Dijkstra alt = new Dijkstra(graph, landmarks);
+        long plainSettled = 0;
+        long altSettled = 0;
+        for (int i = 0; i < 200; i++) {
+            Coordinate source = getCoordinate(graph, random.nextInt(graph.getNodeCount()));
+            Coordinate target = getCoordinate(graph, random.nextInt(graph.getNodeCount()));
+            double expected = plain.findShortestDistance(source, target);
+            plainSettled += plain.getSettledCount();
+            assertEquals(expected, alt.findShortestDistance(source, target), 1e-6);
+            altSettled += alt.getSettledCount();
+        }
+        // The bounds must prune: a full search settles everything reachable, the landmark search far less
+        assertTrue("ALT settled " + altSettled + " of " + plainSettled, altSettled * 3 < plainSettled);
+    }
+
+    @Test
+    public void testBoundsNeverOverestimate() {
+        Random random = new Random(8);
+        Graph graph = createGridGraph(random, 15);
+        Landmarks landmarks = Landmarks.build(graph, 4, new ForkJoinPool(2));
+        Dijkstra plain = new Dijkstra(graph);
+        for (int i = 0; i < 100; i++) {
+            int source = random.nextInt(graph.getNodeCount());
+            int target = random.nextInt(graph.getNodeCount());
+            double distance = plain.findShortestDistance(getCoordinate(graph, source), getCoordinate(graph, target));
+            double bound = landmarks.getLowerBound(source, target);
+            assertTrue(bound >= 0.0);
+            assertTrue(bound + " > " + distance, bound <= distance);
+        }
+        for (int landmark = 0; landmark < landmarks.getLandmarkCount(); landmark++) {
+            assertEquals(0.0, landmarks.getLowerBound(landmarks.getLandmarkNode(landmark), landmarks.getLandmarkNode(landmark)), 0.0);
+        }
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() throws IOException {
+        Random random = new Random(4);
+        Graph graph = createGridGraph(random, 10);
+        Landmarks landmarks = Landmarks.build(graph, 3, new ForkJoinPool(2));
+        Path file = folder.getRoot().toPath().resolve("landmarks.bin");
+        assertNull(LandmarkSnapshot.read(file, 42, graph.getNodeCount()));
+        assertTrue(LandmarkSnapshot.write(landmarks, file, 42));
+
+        Landmarks read = LandmarkSnapshot.read(file, 42, graph.getNodeCount());
+        assertNotNull(read);
+        assertEquals(landmarks.getLandmarkCount(), read.getLandmarkCount());
+        for (int landmark = 0; landmark < landmarks.getLandmarkCount(); landmark++) {
+            assertEquals(landmarks.getLandmarkNode(landmark), read.getLandmarkNode(landmark));
+        }
+        for (int source = 0; source < graph.getNodeCount(); source++) {
+            for (int target = 0; target < graph.getNodeCount(); target += 7) {
+                assertEquals(landmarks.getLowerBound(source, target), read.getLowerBound(source, target), 0.0);
+            }
+        }
+        // Another extract or another graph size makes the snapshot stale, and a truncated file is ignored
+        assertNull(LandmarkSnapshot.read(file, 43, graph.getNodeCount()));
+        assertNull(LandmarkSnapshot.read(file, 42, graph.getNodeCount() + 1));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+        assertNull(LandmarkSnapshot.read(file, 42, graph.getNodeCount()));
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        Graph graph = new GraphBuilder().build();
+        Landmarks landmarks = Landmarks.build(graph, 8, new ForkJoinPool(2));
+        assertEquals(0, landmarks.getLandmarkCount());
+        Coordinate corner = new Coordinate(50.85, 5.69);
+        assertEquals(Double.MAX_VALUE, new Dijkstra(graph, landmarks).findShortestDistance(corner, corner), 0.0);
+    }
+}
@@ -0,0 +1,136 @@
+package Test;
+
+import static org.junit.Assert.*;
+import static Test.TimetableFixtures.unreachedExcept;
+import org.junit.Test;
+
+import Algorithm.Dijkstra.DijkstraResult;
+import Algorithm.Raptor.Journey;
+import Algorithm.Raptor.McRaptor;
+import Algorithm.Raptor.Raptor;
+import Algorithm.Transit.Timetable;
+import Algorithm.Transit.TimetableBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class McRaptorTest {
+
+    // A -> B -> C on line 1, C -> D on line 2, a slower direct line 3 from A to D, plus a 5 minute walk from B to D
+    private Timetable createTimetable() {
+        TimetableBuilder builder = new TimetableBuilder();
+        int a = builder.addStop("A", 50.85, 5.69);
+        int b = builder.addStop("B", 50.86, 5.69);
+        int c = builder.addStop("C", 50.87, 5.69);
+        int d = builder.addStop("D", 50.88, 5.69);
+        builder.addTrip(100, new int[]{a, b, c}, new int[]{480, 485, 490}, new int[]{480, 485, 490});
+        builder.addTrip(200, new int[]{c, d}, new int[]{495, 500}, new int[]{495, 500});
+        builder.addTrip(300, new int[]{a, d}, new int[]{482, 510}, new int[]{482, 510});
+        builder.addFootpath(b, d, 25);
+        return builder.build();
+    }
+
+    @Test
+    public void testTradesArrivalAgainstTransfersAndWalking() {
+        Timetable timetable = createTimetable();
+        int stops = timetable.getStopCount();
+        McRaptor mcRaptor = new McRaptor(timetable);
+        mcRaptor.execute(unreachedExcept(stops, timetable.getStopIndex("A"), 0), unreachedExcept(stops, timetable.getStopIndex("D"), 0), 475);
+
+        List<Journey> journeys = mcRaptor.getJourneys("origin", "destination");
+        assertEquals(2, journeys.size());
+
+        Journey fastest = journeys.get(0);
+        assertEquals(500, fastest.getArrivalTime());
+        assertEquals(1, fastest.getTransfers());
+        assertEquals(0, fastest.getWalkingMinutes());
+        assertEquals(Arrays.asList("origin", "A", "B", "C", "D", "destination"), fastest.getItinerary().getPath());
+        assertEquals(Arrays.asList(-1, 100, 100, 200, -1), fastest.getItinerary().getLegTripIds());
+
+        // The direct line arrives later but without a transfer; walking from B arrives later still and is dominated
+        Journey direct = journeys.get(1);
+        assertEquals(510, direct.getArrivalTime());
+        assertEquals(0, direct.getTransfers());
+        assertEquals(Arrays.asList("origin", "A", "D", "destination"), direct.getItinerary().getPath());
+        assertEquals(35.0, direct.getItinerary().getTotalTravelTime(), 0.0);
+        assertEquals("35 min, 0 transfers, 0 min walking", direct.toString());
+    }
+
+    @Test
+    public void testUnreachableTarget() {
+        Timetable timetable = createTimetable();
+        int stops = timetable.getStopCount();
+        McRaptor mcRaptor = new McRaptor(timetable);
+        mcRaptor.execute(unreachedExcept(stops, timetable.getStopIndex("D"), 0), unreachedExcept(stops, timetable.getStopIndex("A"), 0), 470);
+
+        assertEquals(McRaptor.UNREACHED, mcRaptor.getTargetArrival());
+        assertTrue(mcRaptor.getJourneys("origin", "destination").isEmpty());
+    }
+
+    @Test
+    public void testFastestJourneyMatchesRaptor() {
+        Random random = new Random(29);
+        TimetableBuilder builder = new TimetableBuilder();
+        int stops = 40;
+        for (int stop = 0; stop < stops; stop++) {
+            builder.addStop("S" + stop, 50.80 + random.nextDouble() * 0.05, 5.65 + random.nextDouble() * 0.05);
+        }
+        int tripId = 0;
+        for (int route = 0; route < 15; route++) {
+            int length = 3 + random.nextInt(5);
+            int first = random.nextInt(stops);
+            int[] routeStops = new int[length];
+            int[] hopMinutes = new int[length];
+            for (int position = 0; position < length; position++) {
+                routeStops[position] = (first + position * 7) % stops;
+                hopMinutes[position] = 1 + random.nextInt(6);
+            }
+            for (int start = 420 + random.nextInt(30); start < 660; start += 10 + random.nextInt(30)) {
+                int[] times = new int[length];
+                times[0] = start;
+                for (int position = 1; position < length; position++) {
+                    times[position] = times[position - 1] + hopMinutes[position];
+                }
+                builder.addTrip(tripId++, routeStops, times, times);
+            }
+        }
+        // RAPTOR never walks on from a stop it reached on foot, so footpaths form clusters with metric walking times,
+        // and stop 0, the origin, has none
+        for (int from = 1; from < stops; from++) {
+            for (int to = 1; to < stops; to++) {
+                if (from != to && from % 8 == to % 8) {
+                    builder.addFootpath(from, to, 1 + Math.abs(from - to) / 4);
+                }
+            }
+        }
+        Timetable timetable = builder.build();
+
+        Raptor raptor = new Raptor(timetable);
+        McRaptor mcRaptor = new McRaptor(timetable);
+        for (int query = 0; query < 100; query++) {
+            int[] access = unreachedExcept(stops, 0, random.nextInt(5));
+            int[] egress = unreachedExcept(stops, 1 + random.nextInt(stops - 1), random.nextInt(5));
+            int time = 450 + random.nextInt(120);
+            raptor.execute(access, egress, time);
+            mcRaptor.execute(access, egress, time);
+            assertEquals(raptor.getTargetArrival(), mcRaptor.getTargetArrival());
+
+            List<Journey> journeys = mcRaptor.getJourneys("origin", "destination");
+            for (Journey journey : journeys) {
+                for (Journey other : journeys) {
+                    assertFalse(other != journey && other.getArrivalTime() <= journey.getArrivalTime()
+                            && other.getTrips() <= journey.getTrips() && other.getWalkingMinutes() <= journey.getWalkingMinutes());
+                }
+                List<Integer> legTripIds = journey.getItinerary().getLegTripIds();
+                int trips = 0;
+                for (int leg = 0; leg < legTripIds.size(); leg++) {
+                    if (legTripIds.get(leg) != DijkstraResult.WALKING_LEG && (leg == 0 || !legTripIds.get(leg).equals(legTripIds.get(leg - 1)))) {
+                        trips++;
+                    }
+                }
+                assertEquals(journey.getTrips(), trips);
+            }
+        }
+    }
+}
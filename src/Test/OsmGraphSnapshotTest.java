@@ -0,0 +1,89 @@
+package Test;
+
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import Algorithm.OSM.Graph;
+import Algorithm.OSM.GraphBuilder;
+import Algorithm.OSM.OsmGraphService;
+import Algorithm.OSM.OsmGraphSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OsmGraphSnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Graph createGraph() {
+        GraphBuilder builder = new GraphBuilder();
+        int a = builder.addNode(7, 50.850, 5.690);
+        int b = builder.addNode(3, 50.851, 5.691);
+        int c = builder.addNode(11, 50.852, 5.692);
+        builder.addEdge(a, b, 120.5f);
+        builder.addEdge(b, a, 120.5f);
+        builder.addEdge(b, c, 98.25f);
+        return builder.build();
+    }
+
+    private void assertSameGraph(Graph expected, Graph actual) {
+        assertEquals(expected.getNodeCount(), actual.getNodeCount());
+        assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+        for (int node = 0; node < expected.getNodeCount(); node++) {
+            assertEquals(expected.getNodeId(node), actual.getNodeId(node));
+            assertEquals(expected.getLatitude(node), actual.getLatitude(node), 0.0);
+            assertEquals(expected.getLongitude(node), actual.getLongitude(node), 0.0);
+            assertEquals(expected.getFirstEdge(node), actual.getFirstEdge(node));
+            assertEquals(expected.getLastEdge(node), actual.getLastEdge(node));
+        }
+        for (int edge = 0; edge < expected.getEdgeCount(); edge++) {
+            assertEquals(expected.getTarget(edge), actual.getTarget(edge));
+            assertEquals(expected.getLength(edge), actual.getLength(edge), 0f);
+        }
+    }
+
+    @Test
+    public void testRoundTripAndStaleSnapshots() throws IOException {
+        Graph graph = createGraph();
+        Path file = folder.getRoot().toPath().resolve("osm.bin");
+        assertNull(OsmGraphSnapshot.read(file, 42));
+        assertTrue(OsmGraphSnapshot.write(graph, file, 42));
+
+        assertSameGraph(graph, OsmGraphSnapshot.read(file, 42));
+        assertNull(OsmGraphSnapshot.read(file, 43));
+
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertNull(OsmGraphSnapshot.read(file, 42));
+    }
+
+    @Test
+    public void testServiceImportsOnlyWithoutValidSnapshot() {
+        Path file = folder.getRoot().toPath().resolve("service.bin");
+        AtomicInteger imports = new AtomicInteger();
+
+        Graph first = OsmGraphService.loadGraph(file, 5, () -> {
+            imports.incrementAndGet();
+            return createGraph();
+        });
+        Graph second = OsmGraphService.loadGraph(file, 5, () -> {
+            imports.incrementAndGet();
+            return createGraph();
+        });
+        assertEquals(1, imports.get());
+        assertSameGraph(first, second);
+
+        OsmGraphService.loadGraph(file, 6, () -> {
+            imports.incrementAndGet();
+            return createGraph();
+        });
+        assertEquals(2, imports.get());
+        assertEquals(-1, second.findClosestNode(Double.NaN, 5.69));
+        assertEquals(second.getNodeIndex(3), second.findClosestNode(50.851, 5.691));
+    }
+}
@@ -0,0 +1,63 @@
+package Test;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import Algorithm.OSM.Coordinate;
+import Algorithm.OSM.Dijkstra;
+import Algorithm.OSM.Graph;
+import Algorithm.OSM.GraphBuilder;
+
+public class OsmGraphTest {
+
+    @Test
+    public void testBuilderRenumbersNodesById() {
+        GraphBuilder builder = new GraphBuilder();
+        int c = builder.addNode(30, 50.852, 5.690);
+        int a = builder.addNode(10, 50.850, 5.690);
+        int b = builder.addNode(20, 50.851, 5.690);
+        assertEquals(a, builder.addNode(10, 0.0, 0.0));
+        builder.addEdge(c, a, 200f);
+        builder.addEdge(a, b, 110f);
+        builder.addEdge(b, c, 120f);
+        builder.addEdge(a, c, 250f);
+        Graph graph = builder.build();
+
+        assertEquals(3, graph.getNodeCount());
+        assertEquals(4, graph.getEdgeCount());
+        assertEquals(10, graph.getNodeId(0));
+        assertEquals(30, graph.getNodeId(2));
+        assertEquals(1, graph.getNodeIndex(20));
+        assertEquals(-1, graph.getNodeIndex(15));
+        assertEquals(50.850, graph.getLatitude(graph.getNodeIndex(10)), 0.0);
+
+        // Segments of a node keep the order they were added in
+        int first = graph.getFirstEdge(0);
+        assertEquals(2, graph.getLastEdge(0) - first);
+        assertEquals(1, graph.getTarget(first));
+        assertEquals(110f, graph.getLength(first), 0f);
+        assertEquals(2, graph.getTarget(first + 1));
+        assertEquals(0, graph.getTarget(graph.getFirstEdge(2)));
+
+        assertEquals(1, graph.findClosestNode(50.8511, 5.6901));
+        assertArrayEquals(new int[]{1, 0}, graph.findClosestNodes(50.8508, 5.690, 2));
+    }
+
+    @Test
+    public void testDijkstraOnFlatGraph() {
+        GraphBuilder builder = new GraphBuilder();
+        int a = builder.addNode(1, 50.850, 5.690);
+        int b = builder.addNode(2, 50.851, 5.690);
+        int c = builder.addNode(3, 50.852, 5.690);
+        builder.addNode(4, 50.860, 5.700);
+        builder.addEdge(a, b, 110f);
+        builder.addEdge(b, c, 120f);
+        builder.addEdge(a, c, 250f);
+        Graph graph = builder.build();
+        Dijkstra dijkstra = new Dijkstra(graph);
+
+        assertEquals(230.0, dijkstra.findShortestDistance(new Coordinate(50.850, 5.690), new Coordinate(50.852, 5.690)), 1e-9);
+        assertEquals(Double.MAX_VALUE, dijkstra.findShortestDistance(new Coordinate(50.852, 5.690), new Coordinate(50.850, 5.690)), 0.0);
+        assertEquals(Double.MAX_VALUE, dijkstra.findShortestDistance(new Coordinate(50.850, 5.690), new Coordinate(50.860, 5.700)), 0.0);
+    }
+}
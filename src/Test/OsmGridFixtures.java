@@ -0,0 +1,48 @@
+package Test;
+
+import Algorithm.OSM.Coordinate;
+import Algorithm.OSM.Graph;
+import Algorithm.OSM.GraphBuilder;
+
+import java.util.Random;
+
+// Street grids shared by the OSM walking graph tests
+class OsmGridFixtures {
+
+    // Street grid of size x size nodes about 100 m apart, node i at row i / size and column i % size with OSM id
+    // 1000 + i. Every street is minLength plus up to lengthSpread meters long; one block in missingOneIn is left out
+    // and one street in oneWayOneIn is one-way, where 0 means never. Draws that a 0 switches off are not taken from
+    // random, so each test keeps the grid its seed always produced.
+    static Graph createGridGraph(Random random, int size, int minLength, int lengthSpread, int missingOneIn, int oneWayOneIn) {
+        GraphBuilder builder = new GraphBuilder();
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                builder.addNode(1000 + row * size + column, 50.85 + row * 0.0009, 5.69 + column * 0.0014);
+            }
+        }
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                int node = row * size + column;
+                if (column + 1 < size && (missingOneIn == 0 || random.nextInt(missingOneIn) != 0)) {
+                    addStreet(random, builder, node, node + 1, minLength, lengthSpread, oneWayOneIn);
+                }
+                if (row + 1 < size && (missingOneIn == 0 || random.nextInt(missingOneIn) != 0)) {
+                    addStreet(random, builder, node, node + size, minLength, lengthSpread, oneWayOneIn);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static void addStreet(Random random, GraphBuilder builder, int from, int to, int minLength, int lengthSpread, int oneWayOneIn) {
+        float length = minLength + random.nextInt(lengthSpread);
+        builder.addEdge(from, to, length);
+        if (oneWayOneIn == 0 || random.nextInt(oneWayOneIn) != 0) {
+            builder.addEdge(to, from, length);
+        }
+    }
+
+    static Coordinate getCoordinate(Graph graph, int node) {
+        return new Coordinate(graph.getNodeId(node), graph.getLatitude(node), graph.getLongitude(node));
+    }
+}
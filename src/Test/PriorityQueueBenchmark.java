@@ -0,0 +1,137 @@
+package Test;
+
+import Algorithm.Dijkstra.CustomDijkstra;
+import Algorithm.Dijkstra.TransitGraph;
+import Algorithm.Dijkstra.TransitGraphBuilder;
+import Algorithm.Queue.IndexedPriorityQueue;
+import Algorithm.Queue.QueueType;
+
+import java.util.*;
+
+// Compares the indexed queues against the previous java.util.PriorityQueue approach of pushing every vertex
+// up front and adding a duplicate entry for every improvement. Run as a plain Java application.
+public class PriorityQueueBenchmark {
+    private static final int GRID_SIZE = 300;
+    private static final int QUERIES = 20;
+
+    public static void main(String[] args) {
+        Random random = new Random(7);
+        int vertexCount = GRID_SIZE * GRID_SIZE;
+        int[][] neighbours = new int[vertexCount][];
+        int[][] weights = new int[vertexCount][];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            int row = vertex / GRID_SIZE;
+            int column = vertex % GRID_SIZE;
+            List<Integer> adjacent = new ArrayList<>();
+            if (row > 0) adjacent.add(vertex - GRID_SIZE);
+            if (row < GRID_SIZE - 1) adjacent.add(vertex + GRID_SIZE);
+            if (column > 0) adjacent.add(vertex - 1);
+            if (column < GRID_SIZE - 1) adjacent.add(vertex + 1);
+            neighbours[vertex] = adjacent.stream().mapToInt(Integer::intValue).toArray();
+            weights[vertex] = new int[adjacent.size()];
+            for (int i = 0; i < adjacent.size(); i++) {
+                weights[vertex][i] = 1 + random.nextInt(10);
+            }
+        }
+
+        int[] sources = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            sources[i] = random.nextInt(vertexCount);
+        }
+
+        // Warm up once so the JIT compiles every variant before it is timed
+        runJavaPriorityQueue(neighbours, weights, sources);
+        runIndexedQueue(QueueType.DARY_HEAP.create(vertexCount, 1.0), neighbours, weights, sources);
+        runIndexedQueue(QueueType.BUCKET_QUEUE.create(vertexCount, 1.0), neighbours, weights, sources);
+
+        long start = System.nanoTime();
+        long checksum = runJavaPriorityQueue(neighbours, weights, sources);
+        print("java.util.PriorityQueue", start, checksum);
+
+        for (QueueType queueType : QueueType.values()) {
+            start = System.nanoTime();
+            checksum = runIndexedQueue(queueType.create(vertexCount, 1.0), neighbours, weights, sources);
+            print(queueType.name(), start, checksum);
+        }
+
+        benchmarkCustomDijkstra(neighbours, weights);
+    }
+
+    private static void print(String name, long start, long checksum) {
+        System.out.printf("%-32s %8d ms (checksum %d)%n", name, (System.nanoTime() - start) / 1_000_000, checksum);
+    }
+
+    // Previous approach: every vertex queued with an infinite distance and a new node per improvement
+    private static long runJavaPriorityQueue(int[][] neighbours, int[][] weights, int[] sources) {
+        long checksum = 0;
+        for (int source : sources) {
+            double[] distances = new double[neighbours.length];
+            PriorityQueue<double[]> queue = new PriorityQueue<>(Comparator.comparingDouble(node -> node[1]));
+            for (int vertex = 0; vertex < neighbours.length; vertex++) {
+                distances[vertex] = vertex == source ? 0.0 : Double.MAX_VALUE;
+                queue.add(new double[]{vertex, distances[vertex]});
+            }
+            while (!queue.isEmpty()) {
+                int vertex = (int) queue.poll()[0];
+                for (int i = 0; i < neighbours[vertex].length; i++) {
+                    int adjacent = neighbours[vertex][i];
+                    double newDist = distances[vertex] + weights[vertex][i];
+                    if (newDist < distances[adjacent]) {
+                        distances[adjacent] = newDist;
+                        queue.add(new double[]{adjacent, newDist});
+                    }
+                }
+            }
+            checksum += (long) distances[distances.length - 1];
+        }
+        return checksum;
+    }
+
+    private static long runIndexedQueue(IndexedPriorityQueue queue, int[][] neighbours, int[][] weights, int[] sources) {
+        long checksum = 0;
+        double[] distances = new double[neighbours.length];
+        for (int source : sources) {
+            Arrays.fill(distances, Double.MAX_VALUE);
+            queue.clear();
+            distances[source] = 0.0;
+            queue.insertOrDecrease(source, 0.0);
+            while (!queue.isEmpty()) {
+                int vertex = queue.poll();
+                for (int i = 0; i < neighbours[vertex].length; i++) {
+                    int adjacent = neighbours[vertex][i];
+                    double newDist = distances[vertex] + weights[vertex][i];
+                    if (newDist < distances[adjacent]) {
+                        distances[adjacent] = newDist;
+                        queue.insertOrDecrease(adjacent, newDist);
+                    }
+                }
+            }
+            checksum += (long) distances[distances.length - 1];
+        }
+        return checksum;
+    }
+
+    // Same grid as a walking-only TransitGraph, searched by CustomDijkstra with each queue
+    private static void benchmarkCustomDijkstra(int[][] neighbours, int[][] weights) {
+        TransitGraphBuilder builder = new TransitGraphBuilder();
+        for (int vertex = 0; vertex < neighbours.length; vertex++) {
+            builder.addStop(String.valueOf(vertex), Double.NaN, Double.NaN);
+        }
+        for (int vertex = 0; vertex < neighbours.length; vertex++) {
+            for (int i = 0; i < neighbours[vertex].length; i++) {
+                builder.addWalkingEdge(vertex, neighbours[vertex][i], weights[vertex][i]);
+            }
+        }
+        TransitGraph graph = builder.build();
+
+        for (QueueType queueType : QueueType.values()) {
+            CustomDijkstra dijkstra = new CustomDijkstra(graph, queueType);
+            dijkstra.execute(0, "08:00");
+            long start = System.nanoTime();
+            for (int query = 0; query < QUERIES; query++) {
+                dijkstra.execute(query * 997 % neighbours.length, "08:00");
+            }
+            print("CustomDijkstra " + queueType.name(), start, (long) dijkstra.getTotalTravelTime(neighbours.length - 1));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package Test;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import Algorithm.Queue.BucketQueue;
+import Algorithm.Queue.DaryHeap;
+import Algorithm.Queue.IndexedPriorityQueue;
+
+import java.util.Random;
+
+public class PriorityQueueTest {
+
+    private void assertPollsInKeyOrder(IndexedPriorityQueue queue) {
+        queue.insertOrDecrease(3, 30);
+        queue.insertOrDecrease(1, 10);
+        queue.insertOrDecrease(4, 40);
+        queue.insertOrDecrease(2, 25);
+        queue.insertOrDecrease(2, 20);
+        queue.insertOrDecrease(1, 50);
+
+        assertEquals(4, queue.size());
+        assertTrue(queue.contains(4));
+        assertEquals(10.0, queue.peekKey(), 0.0);
+        assertEquals(1, queue.poll());
+        assertEquals(2, queue.poll());
+        queue.insertOrDecrease(4, 35);
+        assertEquals(3, queue.poll());
+        assertEquals(35.0, queue.peekKey(), 0.0);
+        assertEquals(4, queue.poll());
+        assertTrue(queue.isEmpty());
+        assertFalse(queue.contains(4));
+    }
+
+    @Test
+    public void testDaryHeapOrder() {
+        assertPollsInKeyOrder(new DaryHeap(5, 4));
+        assertPollsInKeyOrder(new DaryHeap(5, 2));
+    }
+
+    @Test
+    public void testBucketQueueOrder() {
+        assertPollsInKeyOrder(new BucketQueue(5, 1.0));
+    }
+
+    @Test
+    public void testClearAllowsReuse() {
+        IndexedPriorityQueue heap = new DaryHeap(3, 4);
+        IndexedPriorityQueue buckets = new BucketQueue(3, 1.0);
+        for (IndexedPriorityQueue queue : new IndexedPriorityQueue[]{heap, buckets}) {
+            queue.insertOrDecrease(0, 500);
+            queue.insertOrDecrease(1, 600);
+            queue.clear();
+            assertTrue(queue.isEmpty());
+            assertFalse(queue.contains(1));
+            queue.insertOrDecrease(2, 5);
+            assertEquals(2, queue.poll());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBucketQueueRejectsKeyBelowCursor() {
+        BucketQueue queue = new BucketQueue(3, 1.0);
+        queue.insertOrDecrease(0, 10);
+        queue.insertOrDecrease(1, 20);
+        queue.poll();
+        queue.poll();
+        queue.insertOrDecrease(2, 30);
+        queue.insertOrDecrease(0, 15);
+        queue.poll();
+        queue.insertOrDecrease(1, 12);
+    }
+
+    @Test
+    public void testRandomKeysMatchBetweenQueues() {
+        Random random = new Random(42);
+        DaryHeap heap = new DaryHeap(1000, 4);
+        BucketQueue buckets = new BucketQueue(1000, 1.0);
+        for (int i = 0; i < 1000; i++) {
+            int key = random.nextInt(5000);
+            heap.insertOrDecrease(i, key);
+            buckets.insertOrDecrease(i, key);
+        }
+        double previous = -1;
+        while (!heap.isEmpty()) {
+            double key = heap.peekKey();
+            assertTrue(key >= previous);
+            assertEquals(key, buckets.peekKey(), 0.0);
+            heap.poll();
+            buckets.poll();
+            previous = key;
+        }
+        assertTrue(buckets.isEmpty());
+    }
+}
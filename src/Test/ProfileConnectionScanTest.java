@@ -0,0 +1,128 @@
+package Test;
+
+import static org.junit.Assert.*;
+import static Test.TimetableFixtures.unreachedExcept;
+import org.junit.Test;
+
+import Algorithm.CSA.ConnectionScan;
+import Algorithm.CSA.ProfileConnectionScan;
+import Algorithm.Dijkstra.ProfileResult;
+import Algorithm.Transit.Timetable;
+import Algorithm.Transit.TimetableBuilder;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class ProfileConnectionScanTest {
+
+    // A -> B -> C on line 1 every 20 minutes from 08:00, C -> D on line 2 at 08:15 and 09:15, plus a 5 minute walk from B to E
+    private Timetable createTimetable() {
+        TimetableBuilder builder = new TimetableBuilder();
+        int a = builder.addStop("A", 50.85, 5.69);
+        int b = builder.addStop("B", 50.86, 5.69);
+        int c = builder.addStop("C", 50.87, 5.69);
+        int d = builder.addStop("D", 50.88, 5.69);
+        int e = builder.addStop("E", 50.86, 5.70);
+        for (int trip = 0; trip < 4; trip++) {
+            int start = 480 + 20 * trip;
+            builder.addTrip(100 + trip, new int[]{a, b, c}, new int[]{start, start + 5, start + 10}, new int[]{start, start + 5, start + 10});
+        }
+        builder.addTrip(200, new int[]{c, d}, new int[]{495, 500}, new int[]{495, 500});
+        builder.addTrip(201, new int[]{c, d}, new int[]{555, 560}, new int[]{555, 560});
+        builder.addFootpath(b, e, 5);
+        return builder.build();
+    }
+
+    @Test
+    public void testParetoDepartures() {
+        Timetable timetable = createTimetable();
+        int stops = timetable.getStopCount();
+        ProfileConnectionScan profileScan = new ProfileConnectionScan(timetable);
+        ProfileResult result = profileScan.execute(unreachedExcept(stops, timetable.getStopIndex("A"), 0),
+                unreachedExcept(stops, timetable.getStopIndex("D"), 0), 470, 560);
+
+        // 08:00 catches the first line 2 trip; 08:20 and 08:40 wait for the second one, which 09:00 catches as well
+        assertEquals(2, result.size());
+        assertEquals(480, result.getDepartureTime(0));
+        assertEquals(500, result.getArrivalTime(0));
+        assertEquals(540, result.getDepartureTime(1));
+        assertEquals(560, result.getArrivalTime(1));
+        assertEquals(500, result.getEarliestArrival(470));
+        assertEquals(560, result.getEarliestArrival(481));
+        assertEquals(ProfileResult.UNREACHED, result.getEarliestArrival(541));
+        assertEquals(Arrays.asList("08:00 -> 08:20 (20 min)", "09:00 -> 09:20 (20 min)"), result.describe());
+    }
+
+    @Test
+    public void testWindowLimitsDepartures() {
+        Timetable timetable = createTimetable();
+        int stops = timetable.getStopCount();
+        ProfileConnectionScan profileScan = new ProfileConnectionScan(timetable);
+        ProfileResult result = profileScan.execute(unreachedExcept(stops, timetable.getStopIndex("A"), 2),
+                unreachedExcept(stops, timetable.getStopIndex("E"), 0), 490, 510);
+
+        // Leaving 2 minutes before the 08:20 trip, then walking from B to E; the 08:40 trip is the first one after the window
+        assertEquals(2, result.size());
+        assertEquals(498, result.getDepartureTime(0));
+        assertEquals(510, result.getArrivalTime(0));
+        assertEquals(518, result.getDepartureTime(1));
+        assertEquals(530, result.getEarliestArrival(505));
+        assertEquals(ProfileResult.UNREACHED, result.getDirectWalkMinutes());
+    }
+
+    @Test
+    public void testMatchesConnectionScanForEveryMinute() {
+        Random random = new Random(23);
+        TimetableBuilder builder = new TimetableBuilder();
+        int stops = 40;
+        for (int stop = 0; stop < stops; stop++) {
+            builder.addStop("S" + stop, 50.80 + random.nextDouble() * 0.05, 5.65 + random.nextDouble() * 0.05);
+        }
+        int tripId = 0;
+        for (int route = 0; route < 15; route++) {
+            int length = 3 + random.nextInt(5);
+            int[] routeStops = new int[length];
+            int[] hopMinutes = new int[length];
+            int first = random.nextInt(stops);
+            for (int position = 0; position < length; position++) {
+                // Distinct stops, so no trip visits a stop twice
+                routeStops[position] = (first + position * 7) % stops;
+                hopMinutes[position] = 1 + random.nextInt(6);
+            }
+            for (int start = 420 + random.nextInt(30); start < 660; start += 10 + random.nextInt(30)) {
+                int[] times = new int[length];
+                times[0] = start;
+                for (int position = 1; position < length; position++) {
+                    times[position] = times[position - 1] + hopMinutes[position];
+                }
+                builder.addTrip(tripId++, routeStops, times, times);
+            }
+        }
+        // A forward scan never walks on from a stop it reached on foot, so footpaths form clusters with metric walking
+        // times, and stop 0, the origin, has none
+        for (int from = 1; from < stops; from++) {
+            for (int to = 1; to < stops; to++) {
+                if (from != to && from % 8 == to % 8) {
+                    builder.addFootpath(from, to, 1 + Math.abs(from - to) / 4);
+                }
+            }
+        }
+        Timetable timetable = builder.build();
+
+        ProfileConnectionScan profileScan = new ProfileConnectionScan(timetable);
+        ConnectionScan connectionScan = new ConnectionScan(timetable);
+        for (int query = 0; query < 20; query++) {
+            int[] access = unreachedExcept(stops, 0, random.nextInt(5));
+            int[] egress = unreachedExcept(stops, random.nextInt(stops), random.nextInt(5));
+            ProfileResult result = profileScan.execute(access, egress, 450, 570);
+            for (int i = 1; i < result.size(); i++) {
+                assertTrue(result.getDepartureTime(i - 1) < result.getDepartureTime(i));
+                assertTrue(result.getArrivalTime(i - 1) < result.getArrivalTime(i));
+            }
+            for (int time = 450; time <= 570; time++) {
+                connectionScan.execute(access, egress, time);
+                assertEquals(connectionScan.getTargetArrival(), result.getEarliestArrival(time));
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package Test;
+
+import static org.junit.Assert.*;
+import static Test.TimetableFixtures.unreachedExcept;
+import org.junit.Test;
+
+import Algorithm.Dijkstra.DijkstraResult;
+import Algorithm.Raptor.Raptor;
+import Algorithm.Transit.Timetable;
+
+import java.util.Arrays;
+
+public class RaptorTest {
+    @Test
+    public void testEarliestArrivalWithTransfer() {
+        Timetable timetable = TimetableFixtures.createLineTimetable();
+        int stops = timetable.getStopCount();
+        Raptor raptor = new Raptor(timetable);
+        raptor.execute(unreachedExcept(stops, timetable.getStopIndex("A"), 0), unreachedExcept(stops, timetable.getStopIndex("D"), 0), 475);
+
+        assertEquals(500, raptor.getTargetArrival());
+        DijkstraResult result = raptor.getResult("origin", "destination");
+        assertEquals(Arrays.asList("origin", "A", "B", "C", "D", "destination"), result.getPath());
+        assertEquals(Arrays.asList(-1, 100, 100, 200, -1), result.getLegTripIds());
+        assertEquals(25.0, result.getTotalTravelTime(), 0.0);
+    }
+
+    @Test
+    public void testMissedTripTakesNextDeparture() {
+        Timetable timetable = TimetableFixtures.createLineTimetable();
+        int stops = timetable.getStopCount();
+        Raptor raptor = new Raptor(timetable);
+        raptor.execute(unreachedExcept(stops, timetable.getStopIndex("A"), 0), unreachedExcept(stops, timetable.getStopIndex("C"), 0), 481);
+
+        assertEquals(510, raptor.getTargetArrival());
+    }
+
+    @Test
+    public void testFootpathAfterTrip() {
+        Timetable timetable = TimetableFixtures.createLineTimetable();
+        int stops = timetable.getStopCount();
+        Raptor raptor = new Raptor(timetable);
+        raptor.execute(unreachedExcept(stops, timetable.getStopIndex("A"), 2), unreachedExcept(stops, timetable.getStopIndex("E"), 0), 470);
+
+        assertEquals(490, raptor.getTargetArrival());
+        DijkstraResult result = raptor.getResult("origin", "destination");
+        assertEquals(Arrays.asList("origin", "A", "B", "E", "destination"), result.getPath());
+        assertEquals(Arrays.asList(-1, 100, -1, -1), result.getLegTripIds());
+    }
+
+    @Test
+    public void testUnreachableTarget() {
+        Timetable timetable = TimetableFixtures.createLineTimetable();
+        int stops = timetable.getStopCount();
+        Raptor raptor = new Raptor(timetable);
+        raptor.execute(unreachedExcept(stops, timetable.getStopIndex("D"), 0), unreachedExcept(stops, timetable.getStopIndex("A"), 0), 470);
+
+        assertEquals(Raptor.UNREACHED, raptor.getTargetArrival());
+        assertEquals(Double.MAX_VALUE, raptor.getResult("origin", "destination").getTotalTravelTime(), 0.0);
+    }
+}
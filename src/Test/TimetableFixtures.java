@@ -0,0 +1,35 @@
+package Test;
+
+import Algorithm.Transit.Timetable;
+import Algorithm.Transit.TimetableBuilder;
+
+import java.util.Arrays;
+
+// Timetables and walking arrays shared by the RAPTOR and connection scan tests
+class TimetableFixtures {
+    // Every transit engine marks a stop it cannot reach with Integer.MAX_VALUE
+    static final int UNREACHED = Integer.MAX_VALUE;
+
+    // A -> B -> C on line 1 at 08:00 and 08:20, C -> D on line 2 at 08:15, plus a 5 minute walk from B to E
+    static Timetable createLineTimetable() {
+        TimetableBuilder builder = new TimetableBuilder();
+        int a = builder.addStop("A", 50.85, 5.69);
+        int b = builder.addStop("B", 50.86, 5.69);
+        int c = builder.addStop("C", 50.87, 5.69);
+        int d = builder.addStop("D", 50.88, 5.69);
+        int e = builder.addStop("E", 50.86, 5.70);
+        builder.addTrip(100, new int[]{a, b, c}, new int[]{480, 485, 490}, new int[]{480, 485, 490});
+        builder.addTrip(101, new int[]{a, b, c}, new int[]{500, 505, 510}, new int[]{500, 505, 510});
+        builder.addTrip(200, new int[]{c, d}, new int[]{495, 500}, new int[]{495, 500});
+        builder.addFootpath(b, e, 5);
+        return builder.build();
+    }
+
+    // Access or egress walking minutes that only reach one stop
+    static int[] unreachedExcept(int stopCount, int stop, int minutes) {
+        int[] walking = new int[stopCount];
+        Arrays.fill(walking, UNREACHED);
+        walking[stop] = minutes;
+        return walking;
+    }
+}
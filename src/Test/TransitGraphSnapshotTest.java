@@ -0,0 +1,79 @@
+package Test;
+
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import Algorithm.Dijkstra.DijkstraResult;
+import Algorithm.Dijkstra.TransitGraph;
+import Algorithm.Dijkstra.TransitGraphBuilder;
+import Algorithm.Dijkstra.TransitGraphSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class TransitGraphSnapshotTest {
+    private static final long CHECKSUM = 123456789L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static TransitGraph buildGraph() {
+        TransitGraphBuilder builder = new TransitGraphBuilder();
+        int a = builder.addStop("A", 50.85, 5.69);
+        int b = builder.addStop("B", 50.86, 5.70);
+        int c = builder.addStop("stoparea:\u00c7", Double.NaN, Double.NaN);
+        builder.addConnection(a, b, 480, 490, 1);
+        builder.addConnection(a, b, 500, 508, 2);
+        builder.addConnection(b, c, 495, 505, 1);
+        builder.addWalkingEdge(a, c, 12.5f);
+        return builder.build();
+    }
+
+    @Test
+    public void testRoundTrip() {
+        TransitGraph graph = buildGraph();
+        Path file = TransitGraphSnapshot.getSnapshotFile(folder.getRoot().toPath(), 480, 780);
+        assertTrue(TransitGraphSnapshot.write(graph, file, CHECKSUM, 480, 780));
+
+        TransitGraph loaded = TransitGraphSnapshot.read(file, CHECKSUM, 480, 780);
+        assertNotNull(loaded);
+        assertEquals(graph.toString(), loaded.toString());
+        assertEquals(graph.getMaximumSpeed(), loaded.getMaximumSpeed(), 0);
+        for (int stop = 0; stop < graph.getStopCount(); stop++) {
+            assertEquals(graph.getStopId(stop), loaded.getStopId(stop));
+            assertEquals(stop, loaded.getStopIndex(graph.getStopId(stop)));
+            assertEquals(Double.doubleToLongBits(graph.getLatitude(stop)), Double.doubleToLongBits(loaded.getLatitude(stop)));
+        }
+        for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+            assertEquals(graph.getSource(edge), loaded.getSource(edge));
+            assertEquals(graph.getTarget(edge), loaded.getTarget(edge));
+            assertEquals(graph.getWeight(edge), loaded.getWeight(edge), 0);
+            for (int time = 470; time < 520; time++) {
+                assertEquals(graph.getArrivalTime(edge, time), loaded.getArrivalTime(edge, time));
+                assertEquals(graph.getTripId(edge, time), loaded.getTripId(edge, time));
+            }
+        }
+        int a = loaded.getStopIndex("A");
+        int c = loaded.getStopIndex("stoparea:\u00c7");
+        assertEquals(DijkstraResult.WALKING_LEG, loaded.getTripId(loaded.findEdge(a, c), 490));
+    }
+
+    @Test
+    public void testStaleSnapshotsAreIgnored() throws IOException {
+        Path file = TransitGraphSnapshot.getSnapshotFile(folder.getRoot().toPath(), 480, 780);
+        assertNull(TransitGraphSnapshot.read(file, CHECKSUM, 480, 780));
+        assertTrue(TransitGraphSnapshot.write(buildGraph(), file, CHECKSUM, 480, 780));
+
+        assertNull(TransitGraphSnapshot.read(file, CHECKSUM + 1, 480, 780));
+        assertNull(TransitGraphSnapshot.read(file, CHECKSUM, 540, 780));
+        assertNotNull(TransitGraphSnapshot.read(file, CHECKSUM, 480, 780));
+
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertNull(TransitGraphSnapshot.read(file, CHECKSUM, 480, 780));
+    }
+}
@@ -0,0 +1,93 @@
+package Test;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import Algorithm.Dijkstra.CustomDijkstra;
+import Algorithm.Dijkstra.QueryOverlay;
+import Algorithm.Dijkstra.SearchMode;
+import Algorithm.Dijkstra.TransitGraph;
+import Algorithm.Dijkstra.TransitGraphBuilder;
+import Algorithm.Dijkstra.TravelTimeMatrix;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class TravelTimeMatrixTest {
+
+    private TransitGraph createRandomGraph(Random random, int stops) {
+        TransitGraphBuilder builder = new TransitGraphBuilder();
+        for (int stop = 0; stop < stops; stop++) {
+            builder.addStop("S" + stop, Double.NaN, Double.NaN);
+        }
+        for (int trip = 0; trip < 80; trip++) {
+            int stop = random.nextInt(stops);
+            int time = 420 + random.nextInt(240);
+            for (int hop = 0; hop < 6; hop++) {
+                int next = random.nextInt(stops);
+                int arrival = time + 1 + random.nextInt(8);
+                if (next != stop) {
+                    builder.addConnection(stop, next, time, arrival, trip);
+                    stop = next;
+                }
+                time = arrival + random.nextInt(3);
+            }
+        }
+        for (int walk = 0; walk < 120; walk++) {
+            builder.addWalkingEdge(random.nextInt(stops), random.nextInt(stops), 5 + random.nextInt(40));
+        }
+        return builder.build();
+    }
+
+    private float[][] createWalks(Random random, int count, int stops) {
+        float[][] walks = new float[count][stops];
+        for (int i = 0; i < count; i++) {
+            for (int stop = 0; stop < stops; stop++) {
+                walks[i][stop] = random.nextInt(4) == 0 ? random.nextInt(30) : TransitGraph.NO_WALK;
+            }
+        }
+        return walks;
+    }
+
+    @Test
+    public void testMatrixMatchesSingleQueries() {
+        Random random = new Random(5);
+        int stops = 60;
+        TransitGraph graph = createRandomGraph(random, stops);
+        float[][] access = createWalks(random, 12, stops);
+        float[][] egress = createWalks(random, 9, stops);
+        // One origin that cannot walk to any stop
+        Arrays.fill(access[3], TransitGraph.NO_WALK);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TravelTimeMatrix matrix = TravelTimeMatrix.compute(graph, access, egress, "08:00", pool);
+            assertEquals(12, matrix.getOriginCount());
+            assertEquals(9, matrix.getDestinationCount());
+            assertEquals(12 * 9, matrix.getMinutes().length);
+
+            int reached = 0;
+            for (int origin = 0; origin < access.length; origin++) {
+                for (int destination = 0; destination < egress.length; destination++) {
+                    CustomDijkstra dijkstra = new CustomDijkstra(graph, new QueryOverlay(access[origin], egress[destination], Double.NaN, Double.NaN));
+                    dijkstra.execute(graph.getOriginVertex(), graph.getDestinationVertex(), "08:00", SearchMode.TARGET);
+                    double expected = dijkstra.getTotalTravelTime(graph.getDestinationVertex());
+                    int actual = matrix.getTravelTime(origin, destination);
+                    if (expected == Double.MAX_VALUE) {
+                        assertEquals(TravelTimeMatrix.UNREACHED, actual);
+                    } else {
+                        assertEquals(expected, actual, 0.0);
+                        reached++;
+                    }
+                }
+                if (origin == 3) {
+                    assertEquals(TravelTimeMatrix.UNREACHED, matrix.getTravelTime(origin, 0));
+                }
+            }
+            assertTrue(reached > access.length * egress.length / 2);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package Test;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import Algorithm.Distance.DistanceCache;
+import Algorithm.Distance.WalkingDistanceOracle;
+import Algorithm.OSM.ContractionHierarchy;
+import Algorithm.OSM.Coordinate;
+import Algorithm.OSM.Dijkstra;
+import Algorithm.OSM.Graph;
+
+import java.util.Random;
+
+public class WalkingDistanceOracleTest {
+
+    // Every street present and walkable both ways
+    private Graph createGridGraph(Random random, int size) {
+        return OsmGridFixtures.createGridGraph(random, size, 100, 40, 0, 0);
+    }
+
+    @Test
+    public void testCacheHitsAndEvictions() {
+        DistanceCache cache = new DistanceCache(8);
+        assertEquals(8, cache.getCapacity());
+        assertTrue(Float.isNaN(cache.get(1)));
+
+        cache.put(1, 1.5f);
+        assertEquals(1.5f, cache.get(1), 0.0f);
+        cache.put(1, 2.5f);
+        assertEquals(2.5f, cache.get(1), 0.0f);
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2.0 / 3.0, cache.getHitRate(), 1e-12);
+
+        // Far more keys than entries: the cache never holds more than its capacity and the overflow is evicted
+        for (long key = 100; key < 200; key++) {
+            cache.put(key, key);
+        }
+        int cached = 0;
+        for (long key = 100; key < 200; key++) {
+            float value = cache.get(key);
+            if (!Float.isNaN(value)) {
+                assertEquals(key, value, 0.0f);
+                cached++;
+            }
+        }
+        assertTrue(cached <= cache.getCapacity());
+        assertTrue(cache.getEvictionCount() >= 100 - cache.getCapacity());
+
+        cache.clear();
+        assertTrue(Float.isNaN(cache.get(150)));
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void testRecentlyUsedEntrySurvives() {
+        // A single set: the entry read last before the overflow must not be the one evicted
+        DistanceCache cache = new DistanceCache(4);
+        for (long key = 0; key < 4; key++) {
+            cache.put(key, key);
+        }
+        cache.get(0);
+        cache.put(4, 4);
+        assertEquals(0.0f, cache.get(0), 0.0f);
+        assertTrue(Float.isNaN(cache.get(1)));
+    }
+
+    @Test
+    public void testMatchesDijkstraAndCaches() {
+        Random random = new Random(23);
+        Graph graph = createGridGraph(random, 12);
+        WalkingDistanceOracle oracle = new WalkingDistanceOracle(ContractionHierarchy.build(graph), 1024);
+        Dijkstra dijkstra = new Dijkstra(graph);
+
+        for (int i = 0; i < 50; i++) {
+            int source = random.nextInt(graph.getNodeCount());
+            int target = random.nextInt(graph.getNodeCount());
+            double expectedKm = dijkstra.findShortestDistance(
+                    new Coordinate(graph.getLatitude(source), graph.getLongitude(source)),
+                    new Coordinate(graph.getLatitude(target), graph.getLongitude(target))) / 1000.0;
+            double km = oracle.calculateDistance(graph.getLatitude(source), graph.getLongitude(source), graph.getLatitude(target), graph.getLongitude(target));
+            assertEquals(expectedKm, km, 1e-6);
+            // The second lookup of the same pair is answered from the cache
+            long hits = oracle.getCache().getHitCount();
+            assertEquals(km, oracle.calculateDistance(graph.getLatitude(source), graph.getLongitude(source), graph.getLatitude(target), graph.getLongitude(target)), 0.0);
+            assertEquals(hits + 1, oracle.getCache().getHitCount());
+        }
+    }
+}